@@ -24,10 +24,12 @@ import java.io.StringWriter;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import javafx.application.Platform;
 import javafx.concurrent.Task;
+import javafx.event.ActionEvent;
 import javafx.event.Event;
 import javafx.event.EventHandler;
 import javafx.geometry.Insets;
@@ -154,6 +156,24 @@ public final class MessageDialog
 		return dialog.getResult() == ButtonType.OK;
 	}
 
+	/**
+	 * Show a question message without waiting for the answer.
+	 * 
+	 * @param parent
+	 *            dialog parent, if null default parent is used
+	 * @param message
+	 *            Question message to show
+	 * @param answer
+	 *            called with true if confirmed by "ok" option, false otherwise, when the dialog is closed
+	 */
+	public static void showQuestionMessage(final Window parent, final String message, final Consumer<Boolean> answer)
+	{
+		final Alert dialog = new Alert(AlertType.CONFIRMATION, message, ButtonType.OK, ButtonType.CANCEL);
+		initDialog(parent, dialog);
+		dialog.setOnHidden((e) -> answer.accept(dialog.getResult() == ButtonType.OK));
+		dialog.show();
+	}
+
 	/**
 	 * @param parent
 	 *            dialog parent, if null default parent is used
@@ -211,10 +231,26 @@ public final class MessageDialog
 	 *            progress task
 	 */
 	public static void showProgressBar(final Window parent, final String title, final Task<?> task)
+	{
+		showProgressBar(parent, title, task, false);
+	}
+
+	/**
+	 * @param parent
+	 *            dialog parent, if null default parent is used
+	 * @param title
+	 *            dialog title
+	 * @param task
+	 *            progress task
+	 * @param cancellable
+	 *            true to add a "cancel" option cancelling the task
+	 */
+	public static void showProgressBar(final Window parent, final String title, final Task<?> task,
+			final boolean cancellable)
 	{
 		if (!Platform.isFxApplicationThread())
 		{
-			Platform.runLater(() -> showProgressBar(parent, title, task));
+			Platform.runLater(() -> showProgressBar(parent, title, task, cancellable));
 			Thread.yield();
 			return;
 		}
@@ -247,12 +283,21 @@ public final class MessageDialog
 				.disableProperty()
 				.bind(task.progressProperty().map(p -> p.doubleValue() < 1.0));
 
+		// Cancel button
+		if (cancellable)
+		{
+			dialog.getDialogPane().getButtonTypes().add(ButtonType.CANCEL);
+			dialog.getDialogPane()
+					.lookupButton(ButtonType.CANCEL)
+					.addEventFilter(ActionEvent.ACTION, (e) -> task.cancel());
+		}
+
 		pane.getChildren().addAll(messagePane, progressBar);
 		dialog.getDialogPane().setContent(pane);
 
-		// Close only for ended progression
+		// Close only for ended progression or cancelled task
 		final EventHandler<Event> onCloseRequest = (e) -> {
-			if (task.getProgress() < 1.0)
+			if (task.getProgress() < 1.0 && !task.isCancelled())
 			{
 				e.consume();
 			}
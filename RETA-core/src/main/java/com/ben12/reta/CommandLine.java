@@ -0,0 +1,294 @@
+// Package : com.ben12.reta
+// File : CommandLine.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+
+import com.google.common.io.Files;
+
+import com.ben12.reta.export.AnalysisExporter;
+import com.ben12.reta.model.AnalysisSnapshot;
+import com.ben12.reta.model.RequirementImpl;
+import com.ben12.reta.model.RequirementSearch;
+import com.ben12.reta.model.TraceGraph;
+import com.ben12.reta.util.AnalysisDiff;
+import com.ben12.reta.util.RETAAnalysis;
+
+/**
+ * Command line mode: analyse a RETA configuration without user interface.
+ * <p>
+ * Usage:
+ * <ul>
+ * <li><code>--search file.reta query</code>: print the requirements whose identifier or attributes match the query
+ * (see {@link RequirementSearch}),</li>
+ * <li><code>--search-text file.reta query</code>: print the requirements whose text or content match the full text
+ * query (see {@link com.ben12.reta.model.FullTextIndex}),</li>
+ * <li><code>--export file.reta output</code>: export the analysis result in the format given by the output file
+ * extension: <code>xlsx</code> or the extension of an {@link AnalysisExporter}; the <code>snapshot</code> extension
+ * saves a baseline for <code>--diff</code>,</li>
+ * <li><code>--diff file.reta baseline.snapshot</code>: print the differences with a baseline analysis result (see
+ * {@link AnalysisDiff}).</li>
+ * </ul>
+ * Found requirements are printed one per line: source name, tab, requirement text. Exit code is 0 if requirements are
+ * found or if the analysis is exported, 1 if no requirement is found, 2 on error.
+ * <p>
+ * Differences are printed one per line, with a tab separated prefix: <code>+</code> added requirement, <code>-</code>
+ * removed requirement, <code>*</code> changed requirement, <code>!</code> newly uncovered requirement, <code>?</code>
+ * new unknown reference (followed by the reference), <code>%</code> coverage rate (source, covering source, baseline
+ * and current rates in percent, <code>-</code> if none). Exit code is 0 without regression, 1 if a requirement is newly
+ * uncovered, a new unknown reference appeared or a coverage rate decreased, 2 on error.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public final class CommandLine
+{
+	/** Identifier and attribute search option. */
+	public static final String	SEARCH		= "--search";
+
+	/** Full text search option. */
+	public static final String	SEARCH_TEXT	= "--search-text";
+
+	/** Export option. */
+	public static final String	EXPORT		= "--export";
+
+	/** Baseline comparison option. */
+	public static final String	DIFF		= "--diff";
+
+	/** Excel output file extension. */
+	private static final String	EXCEL		= "xlsx";
+
+	/** Exit code when requirements are found or when the analysis is exported. */
+	private static final int	FOUND		= 0;
+
+	/** Exit code when no requirement is found. */
+	private static final int	NOT_FOUND	= 1;
+
+	/** Exit code when the analysis regressed since the baseline. */
+	private static final int	REGRESSION	= 1;
+
+	/** Exit code on error. */
+	private static final int	ERROR		= 2;
+
+	/**
+	 * Utility class.
+	 */
+	private CommandLine()
+	{
+	}
+
+	/**
+	 * @param args
+	 *            command line arguments
+	 * @return true if the arguments ask for the command line mode
+	 */
+	public static boolean accept(final String[] args)
+	{
+		return args.length > 0 && (SEARCH.equals(args[0]) || SEARCH_TEXT.equals(args[0]) || EXPORT.equals(args[0])
+				|| DIFF.equals(args[0]));
+	}
+
+	/**
+	 * @param args
+	 *            command line arguments
+	 */
+	public static void main(final String[] args)
+	{
+		System.exit(run(args, System.out));
+	}
+
+	/**
+	 * @param args
+	 *            command line arguments
+	 * @param out
+	 *            output stream of the found requirements
+	 * @return exit code
+	 */
+	public static int run(final String[] args, final PrintStream out)
+	{
+		int exitCode = ERROR;
+		if (!accept(args) || args.length < 3)
+		{
+			System.err.println("Usage: " + SEARCH + " <file.reta> <query>");
+			System.err.println("       " + SEARCH_TEXT + " <file.reta> <full text query>");
+			System.err.println("       " + EXPORT + " <file.reta> <output." + EXCEL + "|"
+					+ RETAAnalysis.getInstance()
+							.getExporters()
+							.stream()
+							.map(AnalysisExporter::getExtension)
+							.collect(Collectors.joining("|"))
+					+ ">");
+			System.err.println("       " + DIFF + " <file.reta> <baseline.snapshot>");
+		}
+		else
+		{
+			try
+			{
+				final RETAAnalysis analysis = RETAAnalysis.getInstance();
+				analysis.configure(new File(args[1]));
+				analysis.parse(p -> {
+				});
+				analysis.analyse(p -> {
+				});
+
+				if (EXPORT.equals(args[0]))
+				{
+					exitCode = export(analysis, new File(args[2]));
+				}
+				else if (DIFF.equals(args[0]))
+				{
+					exitCode = diff(analysis, new File(args[2]), out);
+				}
+				else
+				{
+					exitCode = search(analysis, args, out);
+				}
+			}
+			catch (final Exception e)
+			{
+				Logger.getLogger(CommandLine.class.getName()).log(Level.SEVERE, "Command line analysis error", e);
+			}
+		}
+		return exitCode;
+	}
+
+	/**
+	 * @param analysis
+	 *            analysed configuration
+	 * @param args
+	 *            command line arguments
+	 * @param out
+	 *            output stream of the found requirements
+	 * @return exit code
+	 */
+	private static int search(final RETAAnalysis analysis, final String[] args, final PrintStream out)
+	{
+		final String query = String.join(" ", Arrays.asList(args).subList(2, args.length));
+		final RequirementSearch search = analysis.getRequirementSearch();
+		final BitSet found = (SEARCH_TEXT.equals(args[0]) ? search.searchContent(query, null)
+				: search.search(query, null));
+
+		final TraceGraph graph = analysis.getTraceGraph();
+		int count = 0;
+		for (int i = (found == null ? -1 : found.nextSetBit(0)); i >= 0; i = found.nextSetBit(i + 1))
+		{
+			final RequirementImpl req = graph.getRequirement(i);
+			out.println(req.getSource().getName() + '\t' + req.getText());
+			count++;
+		}
+		out.flush();
+		return (count > 0 ? FOUND : NOT_FOUND);
+	}
+
+	/**
+	 * @param analysis
+	 *            analysed configuration
+	 * @param baselineFile
+	 *            baseline analysis snapshot file
+	 * @param out
+	 *            output stream of the differences
+	 * @return exit code
+	 * @throws IOException
+	 *             I/O exception
+	 */
+	private static int diff(final RETAAnalysis analysis, final File baselineFile, final PrintStream out)
+			throws IOException
+	{
+		final AnalysisDiff diff = analysis.compare(baselineFile);
+		final AnalysisSnapshot baseline = diff.getBaseline();
+		diff.getAdded().forEach(r -> out.println("+\t" + r.getSource().getName() + '\t' + r.getText()));
+		for (final int r : diff.getRemoved())
+		{
+			out.println("-\t" + baseline.getSourceName(baseline.getRequirementSource(r)) + '\t'
+					+ baseline.getRequirementText(r));
+		}
+		diff.getChanged().forEach(r -> out.println("*\t" + r.getSource().getName() + '\t' + r.getText()));
+		diff.getNewlyUncovered().forEach(r -> out.println("!\t" + r.getSource().getName() + '\t' + r.getText()));
+		diff.getNewUnknownReferences()
+				.forEach((r, refs) -> refs.forEach(ref -> out.println("?\t" + r.getSource().getName() + '\t'
+						+ r.getText() + '\t' + ref.getText())));
+		for (final AnalysisDiff.CoverageDelta delta : diff.getCoverageDeltas())
+		{
+			out.println("%\t" + delta.getSource() + '\t' + delta.getCoveringSource() + '\t'
+					+ percent(delta.getBaselineRate()) + '\t' + percent(delta.getRate()));
+		}
+		out.flush();
+		return (diff.isRegression() ? REGRESSION : FOUND);
+	}
+
+	/**
+	 * @param rate
+	 *            coverage rate, NaN if none
+	 * @return coverage rate in percent, <code>-</code> if none
+	 */
+	private static String percent(final double rate)
+	{
+		return (Double.isNaN(rate) ? "-" : String.format(Locale.ROOT, "%.1f", rate * 100));
+	}
+
+	/**
+	 * @param analysis
+	 *            analysed configuration
+	 * @param outputFile
+	 *            output file, whose extension gives the output format
+	 * @return exit code
+	 * @throws IOException
+	 *             I/O exception
+	 * @throws InvalidFormatException
+	 *             Invalid Excel format exception
+	 */
+	private static int export(final RETAAnalysis analysis, final File outputFile)
+			throws IOException, InvalidFormatException
+	{
+		final String extension = Files.getFileExtension(outputFile.getName());
+		int exitCode = FOUND;
+		if (EXCEL.equalsIgnoreCase(extension))
+		{
+			analysis.writeExcel(outputFile);
+		}
+		else
+		{
+			final Optional<AnalysisExporter> exporter = analysis.getExporters()
+					.stream()
+					.filter(e -> e.getExtension().equalsIgnoreCase(extension))
+					.findFirst();
+			if (exporter.isPresent())
+			{
+				analysis.export(exporter.get(), outputFile);
+			}
+			else
+			{
+				System.err.println("Unknown output format: " + extension);
+				exitCode = ERROR;
+			}
+		}
+		return exitCode;
+	}
+}
@@ -26,6 +26,13 @@ public class Launcher
 {
 	public static void main(final String[] args)
 	{
-		Main.main(args);
+		if (CommandLine.accept(args))
+		{
+			CommandLine.main(args);
+		}
+		else
+		{
+			Main.main(args);
+		}
 	}
 }
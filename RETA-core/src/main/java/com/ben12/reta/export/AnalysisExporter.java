@@ -0,0 +1,65 @@
+// Package : com.ben12.reta.export
+// File : AnalysisExporter.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.export;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.ben12.reta.model.InputRequirementSource;
+
+/**
+ * Exporter of the requirement traceability analysis result to a file format.<br>
+ * Implementations are discovered with {@link java.util.ServiceLoader}, like the source provider plug-ins: they are
+ * declared in <code>META-INF/services/com.ben12.reta.export.AnalysisExporter</code> and must have a public no-argument
+ * constructor. They should write the requirements as they are iterated, without building the whole output in memory.<br>
+ * The export may run in a background task: the progress consumer may throw a
+ * {@link java.util.concurrent.CancellationException} when the task is cancelled, which aborts the export.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public interface AnalysisExporter
+{
+	/**
+	 * @return format name exposed to users
+	 */
+	String getFormatName();
+
+	/**
+	 * @return output file name extension, without dot
+	 */
+	String getExtension();
+
+	/**
+	 * Export the requirement sources analysis result.
+	 * 
+	 * @param requirementSources
+	 *            the requirement sources analysis result to export
+	 * @param outputFile
+	 *            output file; an exporter writing several files writes the other ones next to it
+	 * @param progress
+	 *            progress consumer, from 0.0 to 1.0
+	 * @throws IOException
+	 *             I/O exception
+	 */
+	void export(List<InputRequirementSource> requirementSources, File outputFile, Consumer<Double> progress)
+			throws IOException;
+}
@@ -0,0 +1,147 @@
+// Package : com.ben12.reta.export
+// File : ColumnWidths.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.export;
+
+import java.util.Arrays;
+
+import org.apache.poi.ss.usermodel.Sheet;
+
+/**
+ * Column widths of a sheet estimated while its cells are written, without font rendering: each character width is
+ * taken from a table of the default Excel font (Calibri 11) glyph widths, in pixels. A multi-line text is as wide as
+ * its longest line.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+final class ColumnWidths
+{
+	/** Width in pixels of the digit zero, the Excel column width unit. */
+	private static final int	DIGIT_WIDTH		= 7;
+
+	/** Width in pixels of an East Asian wide character. */
+	private static final int	WIDE_WIDTH		= 2 * DIGIT_WIDTH;
+
+	/** Excel maximum column width, in characters. */
+	private static final int	EXCEL_MAX_WIDTH	= 255;
+
+	/** Width in pixels of the printable ASCII characters, from space to tilde. */
+	private static final byte[]	ASCII_WIDTHS	= { 3, 3, 5, 7, 7, 10, 10, 3, 4, 4, 7, 7, 3, 4, 3, 5, // space to /
+			7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 3, 3, 7, 7, 7, 6, // 0 to ?
+			12, 8, 8, 8, 9, 7, 7, 9, 9, 4, 5, 8, 6, 12, 9, 10, // @ to O
+			8, 10, 8, 7, 7, 9, 8, 13, 8, 7, 7, 4, 5, 4, 7, 7, // P to _
+			4, 7, 8, 6, 8, 7, 4, 7, 8, 3, 4, 7, 3, 12, 8, 8, // ` to o
+			8, 8, 5, 6, 5, 8, 7, 11, 7, 7, 6, 5, 7, 5, 7 }; // p to ~
+
+	/** Maximum column width, in characters. */
+	private final int			maxWidth;
+
+	/** Widest cell of each column, in pixels. */
+	private int[]				pixels			= new int[8];
+
+	/** Number of columns having a cell. */
+	private int					columns			= 0;
+
+	/**
+	 * @param theMaxWidth
+	 *            maximum column width, in characters
+	 */
+	ColumnWidths(final int theMaxWidth)
+	{
+		maxWidth = Math.min(theMaxWidth, EXCEL_MAX_WIDTH);
+	}
+
+	/**
+	 * Take a cell text into account.
+	 * 
+	 * @param column
+	 *            cell column index
+	 * @param text
+	 *            cell text
+	 */
+	void update(final int column, final String text)
+	{
+		if (column >= pixels.length)
+		{
+			pixels = Arrays.copyOf(pixels, Math.max(column + 1, 2 * pixels.length));
+		}
+		columns = Math.max(columns, column + 1);
+
+		int line = 0;
+		for (int i = 0; i < text.length(); i++)
+		{
+			final char c = text.charAt(i);
+			if (c == '\n')
+			{
+				pixels[column] = Math.max(pixels[column], line);
+				line = 0;
+			}
+			else
+			{
+				line += width(c);
+			}
+		}
+		pixels[column] = Math.max(pixels[column], line);
+	}
+
+	/**
+	 * Set the estimated column widths to the sheet.
+	 * 
+	 * @param sheet
+	 *            sheet whose cells were taken into account
+	 */
+	void apply(final Sheet sheet)
+	{
+		for (int j = 0; j < columns; j++)
+		{
+			// Excel adds a 5 pixels padding to the cell content; widths are in 1/256 of character
+			final int width = (int) Math.min((pixels[j] + 5L) * 256 / DIGIT_WIDTH, maxWidth * 256L);
+			sheet.setColumnWidth(j, width);
+		}
+	}
+
+	/**
+	 * @param c
+	 *            a character
+	 * @return the character estimated width, in pixels
+	 */
+	private static int width(final char c)
+	{
+		final int width;
+		if (c >= ' ' && c <= '~')
+		{
+			width = ASCII_WIDTHS[c - ' '];
+		}
+		else if (c >= 0x1100 && (Character.isIdeographic(c) || (c >= 0xAC00 && c <= 0xD7A3) // Hangul
+				|| (c >= 0x3000 && c <= 0x30FF) // CJK punctuation, Hiragana and Katakana
+				|| (c >= 0xFF00 && c <= 0xFF60))) // full width forms
+		{
+			width = WIDE_WIDTH;
+		}
+		else if (Character.isISOControl(c) || Character.getType(c) == Character.NON_SPACING_MARK)
+		{
+			width = 0;
+		}
+		else
+		{
+			width = DIGIT_WIDTH;
+		}
+		return width;
+	}
+}
@@ -0,0 +1,134 @@
+// Package : com.ben12.reta.export
+// File : CsvExporter.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.export;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.ben12.reta.model.CoverageState;
+import com.ben12.reta.model.InputRequirementSource;
+import com.ben12.reta.model.RequirementImpl;
+
+/**
+ * CSV exporter (RFC 4180, UTF-8): a header line, then one line per requirement with the {@link ExportRecords#FIELDS}.
+ * Multi-valued fields list one value per line in a quoted field, as in the Excel export.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public class CsvExporter implements AnalysisExporter
+{
+	/** Record separator. */
+	private static final String	EOL	= "\r\n";
+
+	@Override
+	public String getFormatName()
+	{
+		return "CSV";
+	}
+
+	@Override
+	public String getExtension()
+	{
+		return "csv";
+	}
+
+	@Override
+	public void export(final List<InputRequirementSource> requirementSources, final File outputFile,
+			final Consumer<Double> progress) throws IOException
+	{
+		final ExportProgress exportProgress = new ExportProgress(progress, 0.0, 1.0,
+				ExportProgress.requirementCount(requirementSources));
+		try (BufferedWriter writer = Files.newBufferedWriter(outputFile.toPath(), StandardCharsets.UTF_8))
+		{
+			writeRecord(writer, ExportRecords.FIELDS);
+			for (final InputRequirementSource source : requirementSources)
+			{
+				for (final RequirementImpl req : source.getRequirements())
+				{
+					writeRecord(writer,
+							List.of(source.getName(), req.getId(), req.getVersion(), req.getText(),
+									CoverageState.of(req).name(),
+									String.join("\n", ExportRecords.names(req.getReferredBySource())),
+									String.join("\n", ExportRecords.names(req.getTransitiveCoverage())),
+									String.join("\n", ExportRecords.describe(req.getReferences())),
+									String.join("\n", ExportRecords.describe(req.getReferredByRequirement()))));
+					exportProgress.step();
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param writer
+	 *            output writer
+	 * @param fields
+	 *            record fields
+	 * @throws IOException
+	 *             I/O exception
+	 */
+	private static void writeRecord(final Writer writer, final List<String> fields) throws IOException
+	{
+		for (int i = 0; i < fields.size(); i++)
+		{
+			if (i > 0)
+			{
+				writer.write(',');
+			}
+			writeField(writer, fields.get(i));
+		}
+		writer.write(EOL);
+	}
+
+	/**
+	 * Write a field, quoted if it contains a separator, a quote or a line break.
+	 * 
+	 * @param writer
+	 *            output writer
+	 * @param field
+	 *            field value
+	 * @throws IOException
+	 *             I/O exception
+	 */
+	private static void writeField(final Writer writer, final String field) throws IOException
+	{
+		boolean quoted = false;
+		for (int i = 0; i < field.length() && !quoted; i++)
+		{
+			final char c = field.charAt(i);
+			quoted = (c == ',' || c == '"' || c == '\n' || c == '\r');
+		}
+		if (quoted)
+		{
+			writer.write('"');
+			writer.write(field.replace("\"", "\"\""));
+			writer.write('"');
+		}
+		else
+		{
+			writer.write(field);
+		}
+	}
+}
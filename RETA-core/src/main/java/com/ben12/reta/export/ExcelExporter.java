@@ -19,264 +19,312 @@
 // along with RETA.  If not, see <http://www.gnu.org/licenses/>.
 package com.ben12.reta.export;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
-import org.apache.poi.ss.usermodel.BorderStyle;
-import org.apache.poi.ss.usermodel.CellPropertyType;
+import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.HorizontalAlignment;
 import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache.poi.ss.util.CellUtil;
-import org.apache.poi.xssf.usermodel.XSSFCell;
-import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFColor;
-import org.apache.poi.xssf.usermodel.XSSFFont;
-import org.apache.poi.xssf.usermodel.XSSFRow;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import com.ben12.reta.api.SourceConfiguration;
+import com.ben12.reta.export.SheetModel.Border;
+import com.ben12.reta.export.SheetModel.Style;
 import com.ben12.reta.model.InputRequirementSource;
 import com.ben12.reta.model.RequirementImpl;
+import com.ben12.reta.model.UnknownReferenceKind;
 
 /**
- * Excel Exporter.
+ * Excel Exporter.<br>
+ * In streaming mode, the workbook is a {@link SXSSFWorkbook}: only the last {@link #STREAMING_WINDOW} rows of each
+ * sheet are kept in memory, older rows are flushed to temporary files. Rows and cells are therefore only added after
+ * the last ones, and merged regions are given by row and column indexes, never by reading back earlier rows.<br>
+ * The content of each sheet is first prepared as a {@link SheetModel}, independently of the workbook, which allows the
+ * sheets of the next {@link #PREPARE_AHEAD} sources to be prepared in parallel while a sheet is written; a sheet model
+ * is released as soon as its sheet is written. Column widths are estimated from the cell texts while they
+ * are prepared, without font rendering (see {@link ColumnWidths}); row heights are left to the spreadsheet
+ * application.
  * 
  * @author Benot Moreau (ben.12)
  */
 public class ExcelExporter
 {
-	/**
-	 * Table header cell borders.
-	 */
-	private final Map<CellPropertyType, Object>	tableHeaderProperties	= Map.of(CellPropertyType.BORDER_TOP,
-			BorderStyle.THIN, CellPropertyType.BORDER_LEFT, BorderStyle.THIN, CellPropertyType.BORDER_BOTTOM,
-			BorderStyle.MEDIUM, CellPropertyType.BORDER_RIGHT, BorderStyle.THIN);
+	/** Rows kept in memory per sheet in streaming mode. */
+	public static final int						STREAMING_WINDOW		= 100;
 
-	/**
-	 * Table cell borders.
-	 */
-	private final Map<CellPropertyType, Object>	tableProperties			= Map.of(CellPropertyType.BORDER_TOP,
-			BorderStyle.THIN, CellPropertyType.BORDER_LEFT, BorderStyle.THIN, CellPropertyType.BORDER_BOTTOM,
-			BorderStyle.THIN, CellPropertyType.BORDER_RIGHT, BorderStyle.THIN);
+	/** Default maximum column width, in characters. */
+	public static final int						DEFAULT_MAX_COLUMN_WIDTH	= 100;
 
-	/**
-	 * The workbook.
-	 */
-	private final XSSFWorkbook					workbook;
+	/** Sources whose sheet models are prepared ahead of the written sheets, bounding the sheet models in memory. */
+	public static final int						PREPARE_AHEAD				= Math.max(2,
+			Runtime.getRuntime().availableProcessors());
 
 	/**
-	 * Title 1 cell style.
-	 */
-	private final XSSFCellStyle					title1;
-
-	/**
-	 * Title 2 cell style.
+	 * The workbook.
 	 */
-	private final XSSFCellStyle					title2;
+	private final Workbook						workbook;
 
 	/**
-	 * Table header cell style.
+	 * Maximum column width, in characters.
 	 */
-	private final XSSFCellStyle					tableHeader;
+	private final int							maxColumnWidth;
 
 	/**
-	 * Uncovered cell style.
+	 * Cell styles of each base style and border, created once for the workbook.
 	 */
-	private final XSSFCellStyle					uncovered;
+	private final CellStyle[][]					styles;
 
 	/**
-	 * Partially covered cell style.
+	 * Construct and initialize excel exporter building the whole workbook in memory.
 	 */
-	private final XSSFCellStyle					partialCovered;
+	public ExcelExporter()
+	{
+		this(false);
+	}
 
 	/**
-	 * Wrapped cell style.
+	 * Construct and initialize excel exporter.
+	 * 
+	 * @param isStreaming
+	 *            true to stream the workbook rows to temporary files with a fixed window of rows in memory; the
+	 *            workbook must be closed after being written, which deletes them (see {@link SXSSFWorkbook#close()})
 	 */
-	private final XSSFCellStyle					wrapped;
+	public ExcelExporter(final boolean isStreaming)
+	{
+		this(isStreaming, DEFAULT_MAX_COLUMN_WIDTH);
+	}
 
 	/**
 	 * Construct and initialize excel exporter.
+	 * 
+	 * @param isStreaming
+	 *            true to stream the workbook rows to temporary files with a fixed window of rows in memory; the
+	 *            workbook must be closed after being written, which deletes them (see {@link SXSSFWorkbook#close()})
+	 * @param theMaxColumnWidth
+	 *            maximum column width, in characters (at most 255)
 	 */
-	public ExcelExporter()
+	public ExcelExporter(final boolean isStreaming, final int theMaxColumnWidth)
 	{
-		workbook = new XSSFWorkbook();
+		maxColumnWidth = theMaxColumnWidth;
+		if (isStreaming)
+		{
+			final var streamingWorkbook = new SXSSFWorkbook(STREAMING_WINDOW);
+			streamingWorkbook.setCompressTempFiles(true);
+			workbook = streamingWorkbook;
+		}
+		else
+		{
+			workbook = new XSSFWorkbook();
+		}
 
-		title1 = workbook.createCellStyle();
+		final CellStyle title1 = workbook.createCellStyle();
 		title1.setFillForegroundColor(new XSSFColor(new byte[] { 79, (byte) 129, (byte) 189 }));
 		title1.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-		final XSSFFont font = workbook.createFont();
+		final Font font = workbook.createFont();
 		font.setBold(true);
 		title1.setFont(font);
 		title1.setAlignment(HorizontalAlignment.CENTER);
 
-		title2 = workbook.createCellStyle();
+		final CellStyle title2 = workbook.createCellStyle();
 		title2.setFillForegroundColor(new XSSFColor(new byte[] { 49, (byte) 179, (byte) 215 }));
 		title2.setFillPattern(FillPatternType.SOLID_FOREGROUND);
 
-		tableHeader = workbook.createCellStyle();
+		final CellStyle tableHeader = workbook.createCellStyle();
 		tableHeader.setFillForegroundColor(new XSSFColor(new byte[] { (byte) 204, (byte) 255, (byte) 204 }));
 		tableHeader.setFillPattern(FillPatternType.SOLID_FOREGROUND);
 		tableHeader.setAlignment(HorizontalAlignment.CENTER);
 
-		uncovered = workbook.createCellStyle();
+		final CellStyle uncovered = workbook.createCellStyle();
 		uncovered.setFillForegroundColor(IndexedColors.RED.getIndex());
 		uncovered.setFillPattern(FillPatternType.SOLID_FOREGROUND);
 		uncovered.setWrapText(true);
 
-		partialCovered = workbook.createCellStyle();
+		final CellStyle partialCovered = workbook.createCellStyle();
 		partialCovered.setFillForegroundColor(IndexedColors.YELLOW.getIndex());
 		partialCovered.setFillPattern(FillPatternType.SOLID_FOREGROUND);
 		partialCovered.setWrapText(true);
 
-		wrapped = workbook.createCellStyle();
+		final CellStyle wrapped = workbook.createCellStyle();
 		wrapped.setWrapText(true);
-	}
-
-	/**
-	 * Export the requirement sources analysis result.
-	 * 
-	 * @param requirementSources
-	 *            the requirement sources analysis result to export
-	 * @return the built workbook.
-	 */
-	public XSSFWorkbook export(final List<InputRequirementSource> requirementSources)
-	{
-		for (final InputRequirementSource source : requirementSources)
-		{
-			exportDocumentSheet(source);
-			exportDocumentCoverageSheet(source);
-		}
 
-		final var sheetCount = workbook.getNumberOfSheets();
-		for (int i = 0; i < sheetCount; i++)
+		styles = new CellStyle[Style.values().length][Border.values().length];
+		final CellStyle[] baseStyles = { workbook.getCellStyleAt(0), title1, title2, tableHeader, uncovered,
+				partialCovered, wrapped };
+		for (final Style style : Style.values())
 		{
-			final var sheet = workbook.getSheetAt(i);
-			int columns = 0;
-			for (int j = 0; j <= sheet.getLastRowNum(); j++)
+			for (final Border border : Border.values())
 			{
-				final var row = sheet.getRow(j);
-				if (row != null)
+				final CellStyle base = baseStyles[style.ordinal()];
+				final CellStyle cellStyle;
+				if (border == Border.NONE)
 				{
-					row.setHeight((short) -1);
-					columns = Math.max(columns, row.getLastCellNum() + 1);
+					cellStyle = base;
 				}
-			}
-			for (int j = 0; j < columns; j++)
-			{
-				sheet.autoSizeColumn(j);
+				else
+				{
+					cellStyle = workbook.createCellStyle();
+					cellStyle.cloneStyleFrom(base);
+					border.applyTo(cellStyle);
+				}
+				styles[style.ordinal()][border.ordinal()] = cellStyle;
 			}
 		}
-
-		return workbook;
 	}
 
 	/**
-	 * Add a new row after last one.
-	 * 
-	 * @param sheet
-	 *            Sheet where add the row
-	 * @return the added row
+	 * @return the workbook the requirement sources analysis result is exported to
 	 */
-	private XSSFRow addNewRow(final XSSFSheet sheet)
+	public Workbook getWorkbook()
 	{
-		return addNewRow(sheet, 0);
+		return workbook;
 	}
 
 	/**
-	 * Add a new row after last one.
+	 * Export the requirement sources analysis result.<br>
+	 * The sheet models of the sources are prepared in parallel, a few sources ahead, and written sequentially to the
+	 * workbook.
 	 * 
-	 * @param sheet
-	 *            Sheet where add the row
-	 * @param skip
-	 *            row count to skip
-	 * @return the added row
+	 * @param requirementSources
+	 *            the requirement sources analysis result to export
+	 * @return the built workbook.
 	 */
-	private XSSFRow addNewRow(final XSSFSheet sheet, final int skip)
+	public Workbook export(final List<InputRequirementSource> requirementSources)
 	{
-		return sheet.createRow(sheet.getLastRowNum() + 1 + skip);
+		return export(requirementSources, p -> {
+		});
 	}
 
 	/**
-	 * Add a new cell after last one.
+	 * Export the requirement sources analysis result.<br>
+	 * The sheet models of the next {@link #PREPARE_AHEAD} sources are prepared in parallel while the sheets of a source
+	 * are written, in order, to the workbook. The progress is counted in requirements, twice per sheet: once when it is
+	 * prepared and once while its rows are written.
 	 * 
-	 * @param row
-	 *            Row where add the cell
-	 * @return the added cell
+	 * @param requirementSources
+	 *            the requirement sources analysis result to export
+	 * @param progress
+	 *            progress consumer, from 0.0 to 1.0, called from the preparation threads too; it may throw a
+	 *            {@link java.util.concurrent.CancellationException} to abort the export
+	 * @return the built workbook.
 	 */
-	private XSSFCell addNewCell(final XSSFRow row)
+	public Workbook export(final List<InputRequirementSource> requirementSources, final Consumer<Double> progress)
 	{
-		return addNewCell(row, 0);
+		final ExportProgress exportProgress = new ExportProgress(progress, 0.0, 1.0,
+				4 * ExportProgress.requirementCount(requirementSources));
+		// Preparations of the sources following the written one, in source order
+		final Deque<ForkJoinTask<List<SheetModel>>> preparations = new ArrayDeque<>(PREPARE_AHEAD);
+		int next = 0;
+		try
+		{
+			for (final InputRequirementSource source : requirementSources)
+			{
+				while (next < requirementSources.size() && preparations.size() < PREPARE_AHEAD)
+				{
+					final InputRequirementSource prepared = requirementSources.get(next++);
+					preparations.add(ForkJoinPool.commonPool().submit(() -> prepare(prepared, exportProgress)));
+				}
+				for (final SheetModel sheet : preparations.remove().join())
+				{
+					write(sheet, exportProgress, source.getRequirements().size());
+				}
+			}
+		}
+		finally
+		{
+			// Export aborted: the following preparations are useless
+			preparations.forEach(preparation -> preparation.cancel(false));
+		}
+		return workbook;
 	}
 
 	/**
-	 * Add a new cell after last one.
+	 * Prepare the sheet models of a source.
 	 * 
-	 * @param row
-	 *            Row where add the cell
-	 * @param skip
-	 *            cell count to skip
-	 * @return the added cell
+	 * @param source
+	 *            source to export
+	 * @param exportProgress
+	 *            export progress, counted in requirements
+	 * @return the document sheet model and the document coverage sheet model
 	 */
-	private XSSFCell addNewCell(final XSSFRow row, final int skip)
+	private List<SheetModel> prepare(final InputRequirementSource source, final ExportProgress exportProgress)
 	{
-		final var last = row.getLastCellNum();
-		return row.createCell(Math.max(last, 0) + skip);
+		final SheetModel documentSheet = prepareDocumentSheet(source);
+		exportProgress.step(source.getRequirements().size());
+		final SheetModel coverageSheet = prepareDocumentCoverageSheet(source);
+		exportProgress.step(source.getRequirements().size());
+		return List.of(documentSheet, coverageSheet);
 	}
 
 	/**
-	 * Columns spanning.
+	 * Write a sheet model to the workbook; merged regions are disjoint by construction, they are added without
+	 * validation, which would check each new region against all the previous ones.
 	 * 
-	 * @param sheet
-	 *            Sheet where span columns
-	 * @param cell
-	 *            Left cell to span
-	 * @param span
-	 *            Columns to span
+	 * @param model
+	 *            sheet model to write
+	 * @param exportProgress
+	 *            export progress, counted in requirements
+	 * @param steps
+	 *            progress steps of the sheet, counted one per row up to this count
 	 */
-	private void addColspan(final XSSFSheet sheet, final XSSFCell cell, final int span)
+	private void write(final SheetModel model, final ExportProgress exportProgress, final long steps)
 	{
-		if (span > 1)
+		long remainingSteps = steps;
+		final Sheet sheet = workbook.createSheet(model.getName());
+		for (final SheetModel.RowModel rowModel : model.getRows())
 		{
-			sheet.addMergedRegion(new CellRangeAddress(cell.getRowIndex(), cell.getRowIndex(), cell.getColumnIndex(),
-					cell.getColumnIndex() + span - 1));
+			final Row row = sheet.createRow(rowModel.getIndex());
+			for (final SheetModel.CellModel cellModel : rowModel.getCells())
+			{
+				final Cell cell = row.createCell(cellModel.getColumn());
+				if (cellModel.getValue() != null)
+				{
+					cell.setCellValue(cellModel.getValue());
+				}
+				cell.setCellStyle(styles[cellModel.getStyle().ordinal()][cellModel.getBorder().ordinal()]);
+			}
+			if (remainingSteps > 0)
+			{
+				exportProgress.step();
+				remainingSteps--;
+			}
 		}
-	}
-
-	/**
-	 * Rows spanning.
-	 * 
-	 * @param sheet
-	 *            Sheet where span rows
-	 * @param cell
-	 *            Top cell to span
-	 * @param span
-	 *            Rows to span
-	 */
-	private void addRowspan(final XSSFSheet sheet, final XSSFCell cell, final int span)
-	{
-		if (span > 1)
+		model.getColumnWidths().apply(sheet);
+		for (final CellRangeAddress region : model.getMergedRegions())
+		{
+			sheet.addMergedRegionUnsafe(region);
+		}
+		if (remainingSteps > 0)
 		{
-			sheet.addMergedRegion(new CellRangeAddress(cell.getRowIndex(), cell.getRowIndex() + span - 1,
-					cell.getColumnIndex(), cell.getColumnIndex()));
+			exportProgress.step(remainingSteps);
 		}
 	}
 
 	/**
-	 * Export the document sheet.
+	 * Prepare the document sheet.
 	 * 
 	 * @param source
 	 *            source to export
+	 * @return the document sheet model
 	 */
-	private void exportDocumentSheet(final InputRequirementSource source)
+	private SheetModel prepareDocumentSheet(final InputRequirementSource source)
 	{
-		final var sheet = workbook.createSheet(source.getName());
+		final var sheet = new SheetModel.Builder(source.getName(), maxColumnWidth);
 
 		final Set<String> attributes = new LinkedHashSet<>();
 		// ID in first
@@ -290,131 +338,105 @@ public class ExcelExporter
 		// Text is a special case
 		attributes.remove(SourceConfiguration.ATTRIBUTE_TEXT);
 
-		final var titleRow = addNewRow(sheet);
-		final var titleCell = addNewCell(titleRow);
-		titleCell.setCellValue(source.getName());
-		titleCell.setCellStyle(title1);
-		addColspan(sheet, titleCell, attributes.size() + 1);
+		sheet.addRow();
+		sheet.addSpanningCell(source.getName(), Style.TITLE1, Border.NONE, attributes.size() + 2);
 
-		final var pathRow = addNewRow(sheet);
-		final var pathCell = addNewCell(pathRow);
-		pathCell.setCellValue(source.getConfiguration().getDescription());
-		pathCell.setCellStyle(title2);
-		addColspan(sheet, pathCell, attributes.size() + 1);
+		sheet.addRow();
+		sheet.addSpanningCell(source.getConfiguration().getDescription(), Style.TITLE2, Border.NONE,
+				attributes.size() + 2);
 
-		final var counterRow = addNewRow(sheet, 1);
-		final var counterCell = addNewCell(counterRow);
-		counterCell.setCellValue("Total: " + source.getRequirements().size());
-		addColspan(sheet, counterCell, attributes.size() + 1);
+		sheet.addRow(1);
+		sheet.addSpanningCell("Total: " + source.getRequirements().size(), Style.DEFAULT, Border.NONE,
+				attributes.size() + 2);
 
-		final var tableHeaderRow = addNewRow(sheet);
+		sheet.addRow();
 		for (final var attribute : attributes)
 		{
-			final var headerAttributeCell = addNewCell(tableHeaderRow);
-			headerAttributeCell.setCellValue(attribute);
-			headerAttributeCell.setCellStyle(tableHeader);
-			CellUtil.setCellStylePropertiesEnum(headerAttributeCell, tableHeaderProperties);
+			sheet.addCell(attribute, Style.TABLE_HEADER, Border.TABLE_HEADER);
 		}
-
-		final var headerCoveredByCell = addNewCell(tableHeaderRow);
-		headerCoveredByCell.setCellValue("Covered by");
-		headerCoveredByCell.setCellStyle(tableHeader);
-		CellUtil.setCellStylePropertiesEnum(headerCoveredByCell, tableHeaderProperties);
+		sheet.addCell("Covered by", Style.TABLE_HEADER, Border.TABLE_HEADER);
+		sheet.addCell("Covered up to", Style.TABLE_HEADER, Border.TABLE_HEADER);
 
 		for (final var req : source.getRequirements())
 		{
-			final var tableRow = addNewRow(sheet);
+			sheet.addRow();
 
-			final CellStyle cellStyle;
+			final Style cellStyle;
 			if (req.getReferredBySource().isEmpty() && !source.getCoversBy().isEmpty())
 			{
-				cellStyle = uncovered;
+				cellStyle = Style.UNCOVERED;
 			}
 			else if (!req.getReferredBySource().isEmpty()
 					&& req.getReferredBySource().size() < source.getCoversBy().size())
 			{
-				cellStyle = partialCovered;
+				cellStyle = Style.PARTIAL_COVERED;
 			}
 			else
 			{
-				cellStyle = wrapped;
+				cellStyle = Style.WRAPPED;
 			}
 
 			for (final var attribute : attributes)
 			{
-				final var attributeCell = addNewCell(tableRow);
-				attributeCell.setCellValue(req.getAttribute(attribute));
-				attributeCell.setCellStyle(cellStyle);
-				CellUtil.setCellStylePropertiesEnum(attributeCell, tableProperties);
+				sheet.addCell(req.getAttribute(attribute), cellStyle, Border.TABLE);
 			}
 
-			final var coveredByCell = addNewCell(tableRow);
-			coveredByCell.setCellValue(req.getReferredBySource()
+			sheet.addCell(req.getReferredBySource()
 					.stream()
 					.map(InputRequirementSource::getName)
-					.collect(Collectors.joining("\n")));
-			coveredByCell.setCellStyle(cellStyle);
-			CellUtil.setCellStylePropertiesEnum(coveredByCell, tableProperties);
+					.collect(Collectors.joining("\n")), cellStyle, Border.TABLE);
 
+			sheet.addCell(req.getTransitiveCoverage()
+					.stream()
+					.map(InputRequirementSource::getName)
+					.collect(Collectors.joining("\n")), cellStyle, Border.TABLE);
 		}
+		return sheet.build();
 	}
 
 	/**
-	 * Export the document coverage sheet.
+	 * Prepare the document coverage sheet.
 	 * 
 	 * @param source
 	 *            source to export
+	 * @return the document coverage sheet model
 	 */
-	private void exportDocumentCoverageSheet(final InputRequirementSource source)
+	private SheetModel prepareDocumentCoverageSheet(final InputRequirementSource source)
 	{
-		final var sheet = workbook.createSheet(source.getName() + " coverage");
-
-		final var titleRow = addNewRow(sheet);
-		final var titleCell = addNewCell(titleRow);
-		titleCell.setCellValue(source.getName());
-		titleCell.setCellStyle(title1);
-		addColspan(sheet, titleCell, 2);
-
-		final var pathRow = addNewRow(sheet);
-		final var pathCell = addNewCell(pathRow);
-		pathCell.setCellValue(source.getConfiguration().getDescription());
-		pathCell.setCellStyle(title2);
-		addColspan(sheet, pathCell, 2);
-
-		exportCovers(source, sheet);
-		exportCoverBy(source, sheet);
-		exportUnknownReferences(source, sheet);
+		final var sheet = new SheetModel.Builder(source.getName() + " coverage", maxColumnWidth);
+
+		sheet.addRow();
+		sheet.addSpanningCell(source.getName(), Style.TITLE1, Border.NONE, 2);
+
+		sheet.addRow();
+		sheet.addSpanningCell(source.getConfiguration().getDescription(), Style.TITLE2, Border.NONE, 2);
+
+		prepareCovers(source, sheet);
+		prepareCoverBy(source, sheet);
+		prepareTransitiveCoverBy(source, sheet);
+		prepareUnknownReferences(source, sheet);
+		return sheet.build();
 	}
 
 	/**
-	 * Export the "cover" table.
+	 * Prepare the "cover" table.
 	 * 
 	 * @param source
 	 *            source to export
 	 * @param sheet
-	 *            sheet where export
+	 *            sheet model where export
 	 */
-	private void exportCovers(final InputRequirementSource source, final XSSFSheet sheet)
+	private void prepareCovers(final InputRequirementSource source, final SheetModel.Builder sheet)
 	{
 		for (final var cover : source.getCovers())
 		{
-			final var rateRow = addNewRow(sheet, 1);
-			final var rateCell = addNewCell(rateRow);
-			rateCell.setCellValue(source.getName() + " cover " + cover.getName() + " at "
-					+ (cover.getCoversBy().get(source) * 100) + " %");
-			addColspan(sheet, rateCell, 2);
-
-			final var tableHeaderRow = addNewRow(sheet);
+			sheet.addRow(1);
+			sheet.addSpanningCell(source.getName() + " cover " + cover.getName() + " at "
+					+ (cover.getCoversBy().get(source) * 100) + " %", Style.DEFAULT, Border.NONE, 2);
 
-			final var headerSourceCell = addNewCell(tableHeaderRow);
-			headerSourceCell.setCellValue(source.getName());
-			headerSourceCell.setCellStyle(tableHeader);
-			CellUtil.setCellStylePropertiesEnum(headerSourceCell, tableHeaderProperties);
-
-			final var headerCoverCell = addNewCell(tableHeaderRow);
-			headerCoverCell.setCellValue(cover.getName());
-			headerCoverCell.setCellStyle(tableHeader);
-			CellUtil.setCellStylePropertiesEnum(headerCoverCell, tableHeaderProperties);
+			sheet.addRow();
+			sheet.addCell(source.getName(), Style.TABLE_HEADER, Border.TABLE_HEADER);
+			sheet.addCell(cover.getName(), Style.TABLE_HEADER, Border.TABLE_HEADER);
 
 			for (final var req : source.getRequirements())
 			{
@@ -422,51 +444,34 @@ public class ExcelExporter
 
 				if (!refForReq.isEmpty())
 				{
-					final var tableReqRow = addNewRow(sheet);
-
-					final var reqSourceCell = addNewCell(tableReqRow);
-					reqSourceCell.setCellValue(req.getText());
-					CellUtil.setCellStylePropertiesEnum(reqSourceCell, tableProperties);
-
-					final var covSourceCell = addNewCell(tableReqRow);
-					covSourceCell.setCellValue(
-							refForReq.stream().map(RequirementImpl::getText).collect(Collectors.joining("\n")));
-					covSourceCell.setCellStyle(wrapped);
-					CellUtil.setCellStylePropertiesEnum(covSourceCell, tableProperties);
+					sheet.addRow();
+					sheet.addCell(req.getText(), Style.DEFAULT, Border.TABLE);
+					sheet.addCell(refForReq.stream().map(RequirementImpl::getText).collect(Collectors.joining("\n")),
+							Style.WRAPPED, Border.TABLE);
 				}
 			}
 		}
 	}
 
 	/**
-	 * Export the "cover by" table.
+	 * Prepare the "cover by" table.
 	 * 
 	 * @param source
 	 *            source to export
 	 * @param sheet
-	 *            sheet where export
+	 *            sheet model where export
 	 */
-	private void exportCoverBy(final InputRequirementSource source, final XSSFSheet sheet)
+	private void prepareCoverBy(final InputRequirementSource source, final SheetModel.Builder sheet)
 	{
 		for (final var coverBy : source.getCoversBy().entrySet())
 		{
-			final var rateRow = addNewRow(sheet, 1);
-			final var rateCell = addNewCell(rateRow);
-			rateCell.setCellValue(source.getName() + " is covered by " + coverBy.getKey().getName() + " at "
-					+ (coverBy.getValue() * 100) + " %");
-			addColspan(sheet, rateCell, 2);
+			sheet.addRow(1);
+			sheet.addSpanningCell(source.getName() + " is covered by " + coverBy.getKey().getName() + " at "
+					+ (coverBy.getValue() * 100) + " %", Style.DEFAULT, Border.NONE, 2);
 
-			final var tableHeaderRow = addNewRow(sheet);
-
-			final var headerSourceCell = addNewCell(tableHeaderRow);
-			headerSourceCell.setCellValue(source.getName());
-			headerSourceCell.setCellStyle(tableHeader);
-			CellUtil.setCellStylePropertiesEnum(headerSourceCell, tableHeaderProperties);
-
-			final var headerCoverCell = addNewCell(tableHeaderRow);
-			headerCoverCell.setCellValue(coverBy.getKey().getName());
-			headerCoverCell.setCellStyle(tableHeader);
-			CellUtil.setCellStylePropertiesEnum(headerCoverCell, tableHeaderProperties);
+			sheet.addRow();
+			sheet.addCell(source.getName(), Style.TABLE_HEADER, Border.TABLE_HEADER);
+			sheet.addCell(coverBy.getKey().getName(), Style.TABLE_HEADER, Border.TABLE_HEADER);
 
 			for (final var req : source.getRequirements())
 			{
@@ -474,31 +479,73 @@ public class ExcelExporter
 
 				if (!refByForReq.isEmpty())
 				{
-					final var tableReqRow = addNewRow(sheet);
-
-					final var reqSourceCell = addNewCell(tableReqRow);
-					reqSourceCell.setCellValue(req.getText());
-					CellUtil.setCellStylePropertiesEnum(reqSourceCell, tableProperties);
-
-					final var covSourceCell = addNewCell(tableReqRow);
-					covSourceCell.setCellValue(
-							refByForReq.stream().map(RequirementImpl::getText).collect(Collectors.joining("\n")));
-					covSourceCell.setCellStyle(wrapped);
-					CellUtil.setCellStylePropertiesEnum(covSourceCell, tableProperties);
+					sheet.addRow();
+					sheet.addCell(req.getText(), Style.DEFAULT, Border.TABLE);
+					sheet.addCell(
+							refByForReq.stream().map(RequirementImpl::getText).collect(Collectors.joining("\n")),
+							Style.WRAPPED, Border.TABLE);
 				}
 			}
 		}
 	}
 
 	/**
-	 * Export the "unknown reference" table.
+	 * Prepare the direct or transitive coverage rates.
 	 * 
 	 * @param source
 	 *            source to export
 	 * @param sheet
-	 *            sheet where export
+	 *            sheet model where export
 	 */
-	private void exportUnknownReferences(final InputRequirementSource source, final XSSFSheet sheet)
+	private void prepareTransitiveCoverBy(final InputRequirementSource source, final SheetModel.Builder sheet)
+	{
+		var skip = 1;
+		for (final var coverBy : source.getTransitiveCoversBy().entrySet())
+		{
+			sheet.addRow(skip);
+			sheet.addSpanningCell(source.getName() + " is covered up to " + coverBy.getKey().getName() + " at "
+					+ (coverBy.getValue() * 100) + " %", Style.DEFAULT, Border.NONE, 2);
+			skip = 0;
+		}
+	}
+
+	/**
+	 * @param ref
+	 *            unresolved reference
+	 * @return diagnostic of the unresolved reference
+	 */
+	private static String getUnknownReferenceDiagnostic(final RequirementImpl ref)
+	{
+		final String candidates = ref.getCandidates()
+				.stream()
+				.map(c -> c.getSource().getName() + " " + c.getId()
+						+ (c.getVersion().isEmpty() ? "" : " " + c.getVersion()))
+				.collect(Collectors.joining(", "));
+		final String diagnostic;
+		if (ref.getUnknownKind() == UnknownReferenceKind.VERSION_MISMATCH)
+		{
+			diagnostic = "Version mismatch, existing: " + candidates;
+		}
+		else if (ref.getUnknownKind() == UnknownReferenceKind.NOT_COVERED_SOURCE)
+		{
+			diagnostic = "Found in a not covered source: " + candidates;
+		}
+		else
+		{
+			diagnostic = "Unknown requirement";
+		}
+		return diagnostic;
+	}
+
+	/**
+	 * Prepare the "unknown reference" table.
+	 * 
+	 * @param source
+	 *            source to export
+	 * @param sheet
+	 *            sheet model where export
+	 */
+	private void prepareUnknownReferences(final InputRequirementSource source, final SheetModel.Builder sheet)
 	{
 		final var unknownReferences = source.getAllUknownReferences();
 		if (!unknownReferences.isEmpty())
@@ -515,67 +562,51 @@ public class ExcelExporter
 			// Text is a special case
 			refAttributes.remove(SourceConfiguration.ATTRIBUTE_TEXT);
 
-			final var counterRow = addNewRow(sheet, 1);
-			final var counterCell = addNewCell(counterRow);
-			counterCell.setCellValue("Total: " + unknownReferences.size());
-			addColspan(sheet, counterCell, refAttributes.size());
-
-			final var tableHeaderRow = addNewRow(sheet);
-
-			final var headerSourceCell = addNewCell(tableHeaderRow);
-			headerSourceCell.setCellValue(source.getName());
-			headerSourceCell.setCellStyle(tableHeader);
-			CellUtil.setCellStylePropertiesEnum(headerSourceCell, tableHeaderProperties);
-
-			final var headerUnknownRefCell = addNewCell(tableHeaderRow);
-			headerUnknownRefCell.setCellValue("Unknown reference");
-			headerUnknownRefCell.setCellStyle(tableHeader);
-			CellUtil.setCellStylePropertiesEnum(headerUnknownRefCell, tableProperties);
-			CellUtil.setCellStylePropertiesEnum(addNewCell(tableHeaderRow, refAttributes.size() - 2), tableProperties);
-			addColspan(sheet, headerUnknownRefCell, refAttributes.size());
+			sheet.addRow(1);
+			sheet.addCell("Total: " + unknownReferences.size(), Style.DEFAULT, Border.NONE);
 
-			final var tableHeaderRow2 = addNewRow(sheet);
-			CellUtil.setCellStylePropertiesEnum(addNewCell(tableHeaderRow2), tableHeaderProperties);
+			final int headerRow = sheet.addRow();
+			final int headerSourceColumn = sheet.addCell(source.getName(), Style.TABLE_HEADER, Border.TABLE_HEADER);
+			sheet.addSpanningCell("Unknown reference", Style.TABLE_HEADER, Border.TABLE, refAttributes.size() + 1);
+			sheet.addCell(refAttributes.size() - 1, null, Style.DEFAULT, Border.TABLE);
 
+			sheet.addRow();
+			sheet.addCell(null, Style.DEFAULT, Border.TABLE_HEADER);
 			for (final var attribute : refAttributes)
 			{
-				final var headerRefAttributeCell = addNewCell(tableHeaderRow2);
-				headerRefAttributeCell.setCellValue(attribute);
-				headerRefAttributeCell.setCellStyle(tableHeader);
-				CellUtil.setCellStylePropertiesEnum(headerRefAttributeCell, tableHeaderProperties);
+				sheet.addCell(attribute, Style.TABLE_HEADER, Border.TABLE_HEADER);
 			}
+			sheet.addCell("Diagnostic", Style.TABLE_HEADER, Border.TABLE_HEADER);
 
-			addRowspan(sheet, headerSourceCell, 2);
+			sheet.addRowspan(headerRow, headerSourceColumn, 2);
 
-			var tableRow = addNewRow(sheet);
+			var tableRow = sheet.addRow();
 			for (final var req : source.getRequirements())
 			{
 				final var refRequirements = req.getReferencesFor(null);
 
 				if (!refRequirements.isEmpty())
 				{
-					final var reqCell = addNewCell(tableRow);
-					reqCell.setCellValue(req.getText());
-					CellUtil.setCellStylePropertiesEnum(reqCell, tableProperties);
+					final int reqRow = tableRow;
+					final int reqColumn = sheet.addCell(req.getText(), Style.DEFAULT, Border.TABLE);
 
 					var skip = 0;
 					for (final var ref : refRequirements)
 					{
 						for (int i = 0; i < skip; i++)
 						{
-							CellUtil.setCellStylePropertiesEnum(addNewCell(tableRow), tableProperties);
+							sheet.addCell(null, Style.DEFAULT, Border.TABLE);
 						}
 						for (final var attribute : refAttributes)
 						{
-							final var refAttrituteCell = addNewCell(tableRow);
-							refAttrituteCell.setCellValue(ref.getAttribute(attribute));
-							CellUtil.setCellStylePropertiesEnum(refAttrituteCell, tableProperties);
+							sheet.addCell(ref.getAttribute(attribute), Style.DEFAULT, Border.TABLE);
 						}
-						skip = reqCell.getColumnIndex() + 1;
-						tableRow = addNewRow(sheet);
+						sheet.addCell(getUnknownReferenceDiagnostic(ref), Style.DEFAULT, Border.TABLE);
+						skip = reqColumn + 1;
+						tableRow = sheet.addRow();
 					}
 
-					addRowspan(sheet, reqCell, refRequirements.size());
+					sheet.addRowspan(reqRow, reqColumn, refRequirements.size());
 				}
 			}
 		}
@@ -0,0 +1,110 @@
+// Package : com.ben12.reta.export
+// File : ExportProgress.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.export;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import com.ben12.reta.model.InputRequirementSource;
+
+/**
+ * Export progress, counted in steps (requirements or rows) and reported to a progress consumer between two bounds.<br>
+ * Steps may be counted from several threads. The progress is reported every {@link #REPORT_INTERVAL} steps only: the
+ * consumer may throw a {@link java.util.concurrent.CancellationException} to abort the export.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+final class ExportProgress
+{
+	/** Steps between two progress reports. */
+	static final int				REPORT_INTERVAL	= 256;
+
+	/** Progress consumer, from 0.0 to 1.0. */
+	private final Consumer<Double>	progress;
+
+	/** Progress reported at the first step. */
+	private final double			from;
+
+	/** Progress reported at the last step. */
+	private final double			to;
+
+	/** Total step count. */
+	private final long				total;
+
+	/** Done step count. */
+	private final AtomicLong		done			= new AtomicLong();
+
+	/**
+	 * @param theProgress
+	 *            progress consumer, from 0.0 to 1.0
+	 * @param theFrom
+	 *            progress reported at the first step
+	 * @param theTo
+	 *            progress reported at the last step
+	 * @param theTotal
+	 *            total step count
+	 */
+	ExportProgress(final Consumer<Double> theProgress, final double theFrom, final double theTo, final long theTotal)
+	{
+		progress = theProgress;
+		from = theFrom;
+		to = theTo;
+		total = Math.max(1, theTotal);
+	}
+
+	/**
+	 * @param sources
+	 *            requirement sources
+	 * @return requirement count of the sources
+	 */
+	static long requirementCount(final List<InputRequirementSource> sources)
+	{
+		long count = 0;
+		for (final InputRequirementSource source : sources)
+		{
+			count += source.getRequirements().size();
+		}
+		return count;
+	}
+
+	/**
+	 * Count a done step.
+	 */
+	void step()
+	{
+		step(1);
+	}
+
+	/**
+	 * Count done steps, and report the progress if a report interval is crossed.
+	 * 
+	 * @param count
+	 *            done step count
+	 */
+	void step(final long count)
+	{
+		final long value = done.addAndGet(count);
+		if (value / REPORT_INTERVAL != (value - count) / REPORT_INTERVAL || value >= total)
+		{
+			progress.accept(from + ((to - from) * Math.min(value, total)) / total);
+		}
+	}
+}
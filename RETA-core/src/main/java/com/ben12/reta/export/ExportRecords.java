@@ -0,0 +1,103 @@
+// Package : com.ben12.reta.export
+// File : ExportRecords.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.export;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.ben12.reta.api.SourceConfiguration;
+import com.ben12.reta.model.InputRequirementSource;
+import com.ben12.reta.model.RequirementImpl;
+
+/**
+ * Requirement record fields shared by the text exporters: one record per requirement, with its source, identifier,
+ * version, text, coverage state, covering sources, references and referring requirements.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+final class ExportRecords
+{
+	/** Record field names, in record order. */
+	static final List<String>	FIELDS	= List.of("Source", "Id", "Version", "Text", "Coverage", "Covered by",
+			"Covered up to", "References", "Referred by");
+
+	/**
+	 * Utility class.
+	 */
+	private ExportRecords()
+	{
+	}
+
+	/**
+	 * @param req
+	 *            a requirement or a reference
+	 * @return the requirement designation: source name (if resolved), identifier and version (if any)
+	 */
+	static String describe(final RequirementImpl req)
+	{
+		final StringBuilder designation = new StringBuilder();
+		if (req.getSource() != null)
+		{
+			designation.append(req.getSource().getName()).append(' ');
+		}
+		designation.append(req.getId());
+		if (!req.getVersion().isEmpty())
+		{
+			designation.append(' ').append(req.getVersion());
+		}
+		return designation.toString();
+	}
+
+	/**
+	 * @param sources
+	 *            requirement sources
+	 * @return the source names
+	 */
+	static List<String> names(final List<InputRequirementSource> sources)
+	{
+		return sources.stream().map(InputRequirementSource::getName).collect(Collectors.toList());
+	}
+
+	/**
+	 * @param reqs
+	 *            requirements or references
+	 * @return the requirement designations
+	 */
+	static List<String> describe(final List<RequirementImpl> reqs)
+	{
+		return reqs.stream().map(ExportRecords::describe).collect(Collectors.toList());
+	}
+
+	/**
+	 * @param source
+	 *            requirement source
+	 * @return the other requirement attributes of the source, identifier, version and text excluded
+	 */
+	static Set<String> otherAttributes(final InputRequirementSource source)
+	{
+		final Set<String> attributes = new LinkedHashSet<>(source.getRequirementAttributes());
+		attributes.remove(SourceConfiguration.ATTRIBUTE_ID);
+		attributes.remove(SourceConfiguration.ATTRIBUTE_VERSION);
+		attributes.remove(SourceConfiguration.ATTRIBUTE_TEXT);
+		return attributes;
+	}
+}
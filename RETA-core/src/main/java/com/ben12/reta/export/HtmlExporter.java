@@ -0,0 +1,345 @@
+// Package : com.ben12.reta.export
+// File : HtmlExporter.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.export;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.ben12.reta.model.CoverageState;
+import com.ben12.reta.model.InputRequirementSource;
+import com.ben12.reta.model.RequirementImpl;
+
+/**
+ * Static HTML report exporter: the output file is an index of the sources with their coverage rates, linking to the
+ * requirement pages of each source. Requirement pages hold {@link #PAGE_SIZE} requirements and are written next to the
+ * index, named after it: <code>report.html</code>, <code>report-1-1.html</code>, <code>report-1-2.html</code>, ...
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public class HtmlExporter implements AnalysisExporter
+{
+	/** Requirements per page. */
+	public static final int		PAGE_SIZE	= 500;
+
+	/** Style sheet of the pages. */
+	private static final String	STYLE		= "body{font-family:sans-serif}"
+			+ "table{border-collapse:collapse}th,td{border:1px solid #999;padding:2px 4px;vertical-align:top}"
+			+ "th{background:#cfc}td{white-space:pre-wrap}.uncovered{background:#f88}.partial{background:#ff8}"
+			+ "nav{margin:8px 0}nav a,nav span{margin-right:12px}";
+
+	@Override
+	public String getFormatName()
+	{
+		return "HTML";
+	}
+
+	@Override
+	public String getExtension()
+	{
+		return "html";
+	}
+
+	@Override
+	public void export(final List<InputRequirementSource> requirementSources, final File outputFile,
+			final Consumer<Double> progress) throws IOException
+	{
+		final ExportProgress exportProgress = new ExportProgress(progress, 0.0, 1.0,
+				ExportProgress.requirementCount(requirementSources));
+		final String fileName = outputFile.getName();
+		final int dot = fileName.lastIndexOf('.');
+		final String baseName = (dot > 0 ? fileName.substring(0, dot) : fileName);
+		final File directory = outputFile.getAbsoluteFile().getParentFile();
+
+		try (BufferedWriter writer = Files.newBufferedWriter(outputFile.toPath(), StandardCharsets.UTF_8))
+		{
+			writeHeader(writer, "RETA analysis");
+			writer.write("<table><tr><th>Source</th><th>Description</th><th>Requirements</th>"
+					+ "<th>Covered by</th><th>Covered up to</th><th>Pages</th></tr>\n");
+			for (int s = 0; s < requirementSources.size(); s++)
+			{
+				final InputRequirementSource source = requirementSources.get(s);
+				final int pages = pageCount(source);
+				writer.write("<tr><td>");
+				writeText(writer, source.getName());
+				writer.write("</td><td>");
+				writeText(writer,
+						(source.getConfiguration() == null ? "" : source.getConfiguration().getDescription()));
+				writer.write("</td><td>" + source.getRequirements().size() + "</td><td>");
+				writeRates(writer, source.getCoversBy());
+				writer.write("</td><td>");
+				writeRates(writer, source.getTransitiveCoversBy());
+				writer.write("</td><td>");
+				for (int p = 0; p < pages; p++)
+				{
+					writeLink(writer, pageName(baseName, s, p), String.valueOf(p + 1));
+					writer.write(' ');
+				}
+				writer.write("</td></tr>\n");
+			}
+			writer.write("</table>\n");
+			writeFooter(writer);
+		}
+
+		for (int s = 0; s < requirementSources.size(); s++)
+		{
+			exportSource(requirementSources.get(s), s, baseName, fileName, directory, exportProgress);
+		}
+	}
+
+	/**
+	 * Write the requirement pages of a source.
+	 * 
+	 * @param source
+	 *            source to export
+	 * @param sourceIndex
+	 *            source index
+	 * @param baseName
+	 *            index file name without extension
+	 * @param indexName
+	 *            index file name
+	 * @param directory
+	 *            output directory
+	 * @param exportProgress
+	 *            export progress, counted in requirements
+	 * @throws IOException
+	 *             I/O exception
+	 */
+	private void exportSource(final InputRequirementSource source, final int sourceIndex, final String baseName,
+			final String indexName, final File directory, final ExportProgress exportProgress) throws IOException
+	{
+		final int pages = pageCount(source);
+		final Iterator<RequirementImpl> requirements = source.getRequirements().iterator();
+		for (int p = 0; p < pages; p++)
+		{
+			final File pageFile = new File(directory, pageName(baseName, sourceIndex, p));
+			try (BufferedWriter writer = Files.newBufferedWriter(pageFile.toPath(), StandardCharsets.UTF_8))
+			{
+				writeHeader(writer, source.getName() + " (" + (p + 1) + "/" + pages + ")");
+				writeNavigation(writer, baseName, indexName, sourceIndex, p, pages);
+				writer.write("<table><tr><th>Id</th><th>Version</th><th>Text</th><th>Covered by</th>"
+						+ "<th>Covered up to</th><th>References</th></tr>\n");
+				for (int i = 0; i < PAGE_SIZE && requirements.hasNext(); i++)
+				{
+					final RequirementImpl req = requirements.next();
+					final CoverageState state = CoverageState.of(req);
+					if (state == CoverageState.COVERED)
+					{
+						writer.write("<tr><td>");
+					}
+					else
+					{
+						writer.write("<tr class=\"" + (state == CoverageState.PARTIAL ? "partial" : "uncovered")
+								+ "\"><td>");
+					}
+					writeText(writer, req.getId());
+					writer.write("</td><td>");
+					writeText(writer, req.getVersion());
+					writer.write("</td><td>");
+					writeText(writer, req.getText());
+					writer.write("</td><td>");
+					writeText(writer, String.join("\n", ExportRecords.names(req.getReferredBySource())));
+					writer.write("</td><td>");
+					writeText(writer, String.join("\n", ExportRecords.names(req.getTransitiveCoverage())));
+					writer.write("</td><td>");
+					writeText(writer, String.join("\n", ExportRecords.describe(req.getReferences())));
+					writer.write("</td></tr>\n");
+					exportProgress.step();
+				}
+				writer.write("</table>\n");
+				writeNavigation(writer, baseName, indexName, sourceIndex, p, pages);
+				writeFooter(writer);
+			}
+		}
+	}
+
+	/**
+	 * @param source
+	 *            requirement source
+	 * @return requirement page count of the source, at least one
+	 */
+	private static int pageCount(final InputRequirementSource source)
+	{
+		return Math.max(1, (source.getRequirements().size() + PAGE_SIZE - 1) / PAGE_SIZE);
+	}
+
+	/**
+	 * @param baseName
+	 *            index file name without extension
+	 * @param sourceIndex
+	 *            source index
+	 * @param page
+	 *            page index
+	 * @return requirement page file name
+	 */
+	private static String pageName(final String baseName, final int sourceIndex, final int page)
+	{
+		return baseName + "-" + (sourceIndex + 1) + "-" + (page + 1) + ".html";
+	}
+
+	/**
+	 * @param writer
+	 *            output writer
+	 * @param title
+	 *            page title
+	 * @throws IOException
+	 *             I/O exception
+	 */
+	private static void writeHeader(final Writer writer, final String title) throws IOException
+	{
+		writer.write("<!DOCTYPE html>\n<html><head><meta charset=\"UTF-8\"><title>");
+		writeText(writer, title);
+		writer.write("</title><style>" + STYLE + "</style></head><body>\n<h1>");
+		writeText(writer, title);
+		writer.write("</h1>\n");
+	}
+
+	/**
+	 * @param writer
+	 *            output writer
+	 * @throws IOException
+	 *             I/O exception
+	 */
+	private static void writeFooter(final Writer writer) throws IOException
+	{
+		writer.write("</body></html>\n");
+	}
+
+	/**
+	 * Write the links to the index and to the previous and next pages.
+	 * 
+	 * @param writer
+	 *            output writer
+	 * @param baseName
+	 *            index file name without extension
+	 * @param indexName
+	 *            index file name
+	 * @param sourceIndex
+	 *            source index
+	 * @param page
+	 *            current page index
+	 * @param pages
+	 *            page count
+	 * @throws IOException
+	 *             I/O exception
+	 */
+	private static void writeNavigation(final Writer writer, final String baseName, final String indexName,
+			final int sourceIndex, final int page, final int pages) throws IOException
+	{
+		writer.write("<nav>");
+		writeLink(writer, indexName, "Index");
+		if (page > 0)
+		{
+			writeLink(writer, pageName(baseName, sourceIndex, page - 1), "Previous");
+		}
+		writer.write("<span>" + (page + 1) + "/" + pages + "</span>");
+		if (page + 1 < pages)
+		{
+			writeLink(writer, pageName(baseName, sourceIndex, page + 1), "Next");
+		}
+		writer.write("</nav>\n");
+	}
+
+	/**
+	 * @param writer
+	 *            output writer
+	 * @param href
+	 *            link target file name
+	 * @param label
+	 *            link label
+	 * @throws IOException
+	 *             I/O exception
+	 */
+	private static void writeLink(final Writer writer, final String href, final String label) throws IOException
+	{
+		writer.write("<a href=\"");
+		writeText(writer, href);
+		writer.write("\">");
+		writeText(writer, label);
+		writer.write("</a>");
+	}
+
+	/**
+	 * @param writer
+	 *            output writer
+	 * @param rates
+	 *            coverage rates by source
+	 * @throws IOException
+	 *             I/O exception
+	 */
+	private static void writeRates(final Writer writer, final Map<InputRequirementSource, Double> rates)
+			throws IOException
+	{
+		final StringBuilder text = new StringBuilder();
+		for (final Map.Entry<InputRequirementSource, Double> rate : rates.entrySet())
+		{
+			if (text.length() > 0)
+			{
+				text.append('\n');
+			}
+			text.append(rate.getKey().getName())
+					.append(": ")
+					.append(String.format("%.1f", rate.getValue() * 100))
+					.append(" %");
+		}
+		writeText(writer, text.toString());
+	}
+
+	/**
+	 * @param writer
+	 *            output writer
+	 * @param text
+	 *            text to write escaped
+	 * @throws IOException
+	 *             I/O exception
+	 */
+	private static void writeText(final Writer writer, final String text) throws IOException
+	{
+		for (int i = 0; i < text.length(); i++)
+		{
+			final char c = text.charAt(i);
+			switch (c)
+			{
+			case '&':
+				writer.write("&amp;");
+				break;
+			case '<':
+				writer.write("&lt;");
+				break;
+			case '>':
+				writer.write("&gt;");
+				break;
+			case '"':
+				writer.write("&quot;");
+				break;
+			default:
+				writer.write(c);
+				break;
+			}
+		}
+	}
+}
@@ -0,0 +1,183 @@
+// Package : com.ben12.reta.export
+// File : JsonLinesExporter.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.export;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import com.ben12.reta.model.CoverageState;
+import com.ben12.reta.model.InputRequirementSource;
+import com.ben12.reta.model.RequirementImpl;
+
+/**
+ * JSON Lines exporter (UTF-8): one JSON object per line and per requirement, for example:
+ * 
+ * <pre>
+ * {"source":"DOC1","id":"REQ_1","version":"a","text":"REQ_1 a - Title","coverage":"PARTIAL",
+ *  "coveredBy":["DOC2"],"coveredUpTo":["DOC2"],"references":[],"referredBy":["DOC2 REQ_5"],
+ *  "attributes":{"Title":"Title"}}
+ * </pre>
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public class JsonLinesExporter implements AnalysisExporter
+{
+	@Override
+	public String getFormatName()
+	{
+		return "JSON Lines";
+	}
+
+	@Override
+	public String getExtension()
+	{
+		return "jsonl";
+	}
+
+	@Override
+	public void export(final List<InputRequirementSource> requirementSources, final File outputFile,
+			final Consumer<Double> progress) throws IOException
+	{
+		final ExportProgress exportProgress = new ExportProgress(progress, 0.0, 1.0,
+				ExportProgress.requirementCount(requirementSources));
+		try (BufferedWriter writer = Files.newBufferedWriter(outputFile.toPath(), StandardCharsets.UTF_8))
+		{
+			for (final InputRequirementSource source : requirementSources)
+			{
+				final Set<String> attributes = ExportRecords.otherAttributes(source);
+				for (final RequirementImpl req : source.getRequirements())
+				{
+					writer.write("{\"source\":");
+					writeString(writer, source.getName());
+					writer.write(",\"id\":");
+					writeString(writer, req.getId());
+					writer.write(",\"version\":");
+					writeString(writer, req.getVersion());
+					writer.write(",\"text\":");
+					writeString(writer, req.getText());
+					writer.write(",\"coverage\":");
+					writeString(writer, CoverageState.of(req).name());
+					writer.write(",\"coveredBy\":");
+					writeArray(writer, ExportRecords.names(req.getReferredBySource()));
+					writer.write(",\"coveredUpTo\":");
+					writeArray(writer, ExportRecords.names(req.getTransitiveCoverage()));
+					writer.write(",\"references\":");
+					writeArray(writer, ExportRecords.describe(req.getReferences()));
+					writer.write(",\"referredBy\":");
+					writeArray(writer, ExportRecords.describe(req.getReferredByRequirement()));
+					writer.write(",\"attributes\":{");
+					boolean first = true;
+					for (final String attribute : attributes)
+					{
+						final String value = req.getAttribute(attribute);
+						if (value != null)
+						{
+							if (!first)
+							{
+								writer.write(',');
+							}
+							writeString(writer, attribute);
+							writer.write(':');
+							writeString(writer, value);
+							first = false;
+						}
+					}
+					writer.write("}}\n");
+					exportProgress.step();
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param writer
+	 *            output writer
+	 * @param values
+	 *            array values
+	 * @throws IOException
+	 *             I/O exception
+	 */
+	private static void writeArray(final Writer writer, final List<String> values) throws IOException
+	{
+		writer.write('[');
+		for (int i = 0; i < values.size(); i++)
+		{
+			if (i > 0)
+			{
+				writer.write(',');
+			}
+			writeString(writer, values.get(i));
+		}
+		writer.write(']');
+	}
+
+	/**
+	 * @param writer
+	 *            output writer
+	 * @param value
+	 *            string value to write as a JSON string
+	 * @throws IOException
+	 *             I/O exception
+	 */
+	private static void writeString(final Writer writer, final String value) throws IOException
+	{
+		writer.write('"');
+		for (int i = 0; i < value.length(); i++)
+		{
+			final char c = value.charAt(i);
+			switch (c)
+			{
+			case '"':
+				writer.write("\\\"");
+				break;
+			case '\\':
+				writer.write("\\\\");
+				break;
+			case '\n':
+				writer.write("\\n");
+				break;
+			case '\r':
+				writer.write("\\r");
+				break;
+			case '\t':
+				writer.write("\\t");
+				break;
+			default:
+				if (c < ' ')
+				{
+					writer.write(String.format("\\u%04x", (int) c));
+				}
+				else
+				{
+					writer.write(c);
+				}
+				break;
+			}
+		}
+		writer.write('"');
+	}
+}
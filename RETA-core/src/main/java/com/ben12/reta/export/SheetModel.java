@@ -0,0 +1,442 @@
+// Package : com.ben12.reta.export
+// File : SheetModel.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.export;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+/**
+ * Immutable content of a sheet, prepared independently of any workbook: rows of positioned cells with their value,
+ * style and borders, merged regions and estimated column widths. Sheet models of several sources can be built in
+ * parallel, and then written sequentially to the workbook.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+final class SheetModel
+{
+	/**
+	 * Base cell styles.
+	 */
+	enum Style
+	{
+		/** Workbook default style. */
+		DEFAULT,
+		/** Title 1. */
+		TITLE1,
+		/** Title 2. */
+		TITLE2,
+		/** Table header. */
+		TABLE_HEADER,
+		/** Uncovered requirement. */
+		UNCOVERED,
+		/** Partially covered requirement. */
+		PARTIAL_COVERED,
+		/** Wrapped text. */
+		WRAPPED
+	}
+
+	/**
+	 * Cell borders.
+	 */
+	enum Border
+	{
+		/** No border. */
+		NONE(BorderStyle.NONE, BorderStyle.NONE),
+		/** Table cell borders. */
+		TABLE(BorderStyle.THIN, BorderStyle.THIN),
+		/** Table header cell borders. */
+		TABLE_HEADER(BorderStyle.THIN, BorderStyle.MEDIUM);
+
+		/** Top, left and right border. */
+		private final BorderStyle	sides;
+
+		/** Bottom border. */
+		private final BorderStyle	bottom;
+
+		/**
+		 * @param theSides
+		 *            top, left and right border
+		 * @param theBottom
+		 *            bottom border
+		 */
+		Border(final BorderStyle theSides, final BorderStyle theBottom)
+		{
+			sides = theSides;
+			bottom = theBottom;
+		}
+
+		/**
+		 * @param style
+		 *            cell style where set the borders
+		 */
+		void applyTo(final CellStyle style)
+		{
+			style.setBorderTop(sides);
+			style.setBorderLeft(sides);
+			style.setBorderBottom(bottom);
+			style.setBorderRight(sides);
+		}
+	}
+
+	/**
+	 * A cell of a row.
+	 */
+	static final class CellModel
+	{
+		/** Column index. */
+		private final int		column;
+
+		/** Cell value, null for an empty cell. */
+		private final String	value;
+
+		/** Base style. */
+		private final Style		style;
+
+		/** Borders. */
+		private final Border	border;
+
+		/**
+		 * @param theColumn
+		 *            column index
+		 * @param theValue
+		 *            cell value, null for an empty cell
+		 * @param theStyle
+		 *            base style
+		 * @param theBorder
+		 *            borders
+		 */
+		private CellModel(final int theColumn, final String theValue, final Style theStyle, final Border theBorder)
+		{
+			column = theColumn;
+			value = theValue;
+			style = theStyle;
+			border = theBorder;
+		}
+
+		/**
+		 * @return the column index
+		 */
+		int getColumn()
+		{
+			return column;
+		}
+
+		/**
+		 * @return the cell value, null for an empty cell
+		 */
+		String getValue()
+		{
+			return value;
+		}
+
+		/**
+		 * @return the base style
+		 */
+		Style getStyle()
+		{
+			return style;
+		}
+
+		/**
+		 * @return the borders
+		 */
+		Border getBorder()
+		{
+			return border;
+		}
+	}
+
+	/**
+	 * A row of the sheet.
+	 */
+	static final class RowModel
+	{
+		/** Row index. */
+		private final int				index;
+
+		/** Row cells, in column order. */
+		private final List<CellModel>	cells;
+
+		/**
+		 * @param theIndex
+		 *            row index
+		 * @param theCells
+		 *            row cells, in column order
+		 */
+		private RowModel(final int theIndex, final List<CellModel> theCells)
+		{
+			index = theIndex;
+			cells = List.copyOf(theCells);
+		}
+
+		/**
+		 * @return the row index
+		 */
+		int getIndex()
+		{
+			return index;
+		}
+
+		/**
+		 * @return the row cells, in column order
+		 */
+		List<CellModel> getCells()
+		{
+			return cells;
+		}
+	}
+
+	/**
+	 * Sheet model builder: rows and cells are only added after the last ones.
+	 */
+	static final class Builder
+	{
+		/** Sheet name. */
+		private final String					name;
+
+		/** Built rows. */
+		private final List<RowModel>			rows			= new ArrayList<>();
+
+		/** Cells of the current row. */
+		private final List<CellModel>			cells			= new ArrayList<>();
+
+		/** Merged regions. */
+		private final List<CellRangeAddress>	mergedRegions	= new ArrayList<>();
+
+		/** Estimated column widths. */
+		private final ColumnWidths				columnWidths;
+
+		/** Current row index. */
+		private int								row				= -1;
+
+		/** Next cell column index in the current row. */
+		private int								column			= 0;
+
+		/**
+		 * @param theName
+		 *            sheet name
+		 * @param maxColumnWidth
+		 *            maximum column width, in characters
+		 */
+		Builder(final String theName, final int maxColumnWidth)
+		{
+			name = theName;
+			columnWidths = new ColumnWidths(maxColumnWidth);
+		}
+
+		/**
+		 * Add a new row after last one.
+		 * 
+		 * @return the added row index
+		 */
+		int addRow()
+		{
+			return addRow(0);
+		}
+
+		/**
+		 * Add a new row after last one.
+		 * 
+		 * @param skip
+		 *            row count to skip
+		 * @return the added row index
+		 */
+		int addRow(final int skip)
+		{
+			completeRow();
+			row += 1 + skip;
+			column = 0;
+			return row;
+		}
+
+		/**
+		 * Add a new cell after last one of the current row; its value is taken into account for the column width.
+		 * 
+		 * @param value
+		 *            cell value, null for an empty cell
+		 * @param style
+		 *            base style
+		 * @param border
+		 *            borders
+		 * @return the added cell column index
+		 */
+		int addCell(final String value, final Style style, final Border border)
+		{
+			return addCell(0, value, style, border);
+		}
+
+		/**
+		 * Add a new cell after last one of the current row; its value is taken into account for the column width.
+		 * 
+		 * @param skip
+		 *            cell count to skip
+		 * @param value
+		 *            cell value, null for an empty cell
+		 * @param style
+		 *            base style
+		 * @param border
+		 *            borders
+		 * @return the added cell column index
+		 */
+		int addCell(final int skip, final String value, final Style style, final Border border)
+		{
+			final int cellColumn = column + skip;
+			cells.add(new CellModel(cellColumn, value, style, border));
+			if (value != null)
+			{
+				columnWidths.update(cellColumn, value);
+			}
+			column = cellColumn + 1;
+			return cellColumn;
+		}
+
+		/**
+		 * Add a new cell after last one of the current row, spanning several columns; as a merged cell, it doesn't
+		 * widen its first column.
+		 * 
+		 * @param value
+		 *            cell value
+		 * @param style
+		 *            base style
+		 * @param border
+		 *            borders
+		 * @param span
+		 *            columns to span
+		 * @return the added cell column index
+		 */
+		int addSpanningCell(final String value, final Style style, final Border border, final int span)
+		{
+			final int cellColumn = column;
+			cells.add(new CellModel(cellColumn, value, style, border));
+			if (span > 1)
+			{
+				mergedRegions.add(new CellRangeAddress(row, row, cellColumn, cellColumn + span - 1));
+			}
+			column = cellColumn + 1;
+			return cellColumn;
+		}
+
+		/**
+		 * Rows spanning.
+		 * 
+		 * @param top
+		 *            top row index
+		 * @param cellColumn
+		 *            column index
+		 * @param span
+		 *            rows to span
+		 */
+		void addRowspan(final int top, final int cellColumn, final int span)
+		{
+			if (span > 1)
+			{
+				mergedRegions.add(new CellRangeAddress(top, top + span - 1, cellColumn, cellColumn));
+			}
+		}
+
+		/**
+		 * @return the built sheet model
+		 */
+		SheetModel build()
+		{
+			completeRow();
+			return new SheetModel(name, rows, mergedRegions, columnWidths);
+		}
+
+		/**
+		 * Add the current row cells to the built rows.
+		 */
+		private void completeRow()
+		{
+			if (row >= 0)
+			{
+				rows.add(new RowModel(row, cells));
+				cells.clear();
+			}
+		}
+	}
+
+	/** Sheet name. */
+	private final String					name;
+
+	/** Sheet rows, in index order. */
+	private final List<RowModel>			rows;
+
+	/** Merged regions, disjoint by construction. */
+	private final List<CellRangeAddress>	mergedRegions;
+
+	/** Estimated column widths. */
+	private final ColumnWidths				columnWidths;
+
+	/**
+	 * @param theName
+	 *            sheet name
+	 * @param theRows
+	 *            sheet rows, in index order
+	 * @param theMergedRegions
+	 *            merged regions, disjoint by construction
+	 * @param theColumnWidths
+	 *            estimated column widths
+	 */
+	private SheetModel(final String theName, final List<RowModel> theRows,
+			final List<CellRangeAddress> theMergedRegions, final ColumnWidths theColumnWidths)
+	{
+		name = theName;
+		rows = List.copyOf(theRows);
+		mergedRegions = List.copyOf(theMergedRegions);
+		columnWidths = theColumnWidths;
+	}
+
+	/**
+	 * @return the sheet name
+	 */
+	String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * @return the sheet rows, in index order
+	 */
+	List<RowModel> getRows()
+	{
+		return rows;
+	}
+
+	/**
+	 * @return the merged regions, disjoint by construction
+	 */
+	List<CellRangeAddress> getMergedRegions()
+	{
+		return mergedRegions;
+	}
+
+	/**
+	 * @return the estimated column widths
+	 */
+	ColumnWidths getColumnWidths()
+	{
+		return columnWidths;
+	}
+}
@@ -0,0 +1,59 @@
+// Package : com.ben12.reta.export
+// File : SnapshotExporter.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.export;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.ben12.reta.model.AnalysisSnapshot;
+import com.ben12.reta.model.InputRequirementSource;
+
+/**
+ * {@link AnalysisSnapshot} exporter: the exported snapshot is a baseline the next analyses can be compared with (see
+ * {@link com.ben12.reta.util.AnalysisDiff}).
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public class SnapshotExporter implements AnalysisExporter
+{
+	@Override
+	public String getFormatName()
+	{
+		return "RETA snapshot";
+	}
+
+	@Override
+	public String getExtension()
+	{
+		return AnalysisSnapshot.EXTENSION.substring(1);
+	}
+
+	@Override
+	public void export(final List<InputRequirementSource> requirementSources, final File outputFile,
+			final Consumer<Double> progress) throws IOException
+	{
+		progress.accept(0.0);
+		// Not bound to a configuration file: never restored as the last analysis result of a configuration
+		AnalysisSnapshot.write(requirementSources, 0, outputFile.toPath());
+		progress.accept(1.0);
+	}
+}
@@ -0,0 +1,151 @@
+// Package : com.ben12.reta.graph
+// File : ColumnRouter.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.graph;
+
+/**
+ * Route edges between boxes laid out in columns: an edge leaves its box by the side facing the other box and crosses
+ * the intermediate columns through the gaps between their boxes.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+final class ColumnRouter
+{
+	/** Left position of each column. */
+	private final double[]		columnX;
+
+	/** Width of each column. */
+	private final double[]		columnWidth;
+
+	/** Top position of the boxes of each column, in vertical order. */
+	private final double[][]	tops;
+
+	/** Bottom position of the boxes of each column, in vertical order. */
+	private final double[][]	bottoms;
+
+	/** Vertical gap between boxes. */
+	private final double		boxGap;
+
+	/** Horizontal extent of edges between boxes of the same column. */
+	private final double		loop;
+
+	/**
+	 * @param theColumnX
+	 *            left position of each column
+	 * @param theColumnWidth
+	 *            width of each column
+	 * @param theTops
+	 *            top position of the boxes of each column, in vertical order
+	 * @param theBottoms
+	 *            bottom position of the boxes of each column, in vertical order
+	 * @param theBoxGap
+	 *            vertical gap between boxes
+	 * @param theLoop
+	 *            horizontal extent of edges between boxes of the same column
+	 */
+	ColumnRouter(final double[] theColumnX, final double[] theColumnWidth, final double[][] theTops,
+			final double[][] theBottoms, final double theBoxGap, final double theLoop)
+	{
+		columnX = theColumnX;
+		columnWidth = theColumnWidth;
+		tops = theTops;
+		bottoms = theBottoms;
+		boxGap = theBoxGap;
+		loop = theLoop;
+	}
+
+	/**
+	 * @param la
+	 *            start column
+	 * @param ya
+	 *            start vertical position
+	 * @param lb
+	 *            end column
+	 * @param yb
+	 *            end vertical position
+	 * @return way points coordinates: x0, y0, x1, y1, ...
+	 */
+	double[] route(final int la, final double ya, final int lb, final double yb)
+	{
+		final double[] points;
+		if (la == lb)
+		{
+			final double left = columnX[la];
+			points = new double[] { left, ya, left - loop, (ya + yb) / 2, left, yb };
+		}
+		else
+		{
+			final int step = (la > lb ? -1 : 1);
+			final int crossed = Math.abs(la - lb) - 1;
+			points = new double[4 + crossed * 4];
+			final double xa = (step < 0 ? columnX[la] : columnX[la] + columnWidth[la]);
+			final double xb = (step < 0 ? columnX[lb] + columnWidth[lb] : columnX[lb]);
+			points[0] = xa;
+			points[1] = ya;
+			int p = 2;
+			for (int l = la + step; l != lb; l += step)
+			{
+				final double xIn = (step < 0 ? columnX[l] + columnWidth[l] : columnX[l]);
+				final double xOut = (step < 0 ? columnX[l] : columnX[l] + columnWidth[l]);
+				final double t = (xIn - xa) / (xb - xa);
+				final double gap = gap(l, ya + t * (yb - ya));
+				points[p++] = xIn;
+				points[p++] = gap;
+				points[p++] = xOut;
+				points[p++] = gap;
+			}
+			points[p++] = xb;
+			points[p] = yb;
+		}
+		return points;
+	}
+
+	/**
+	 * @param l
+	 *            crossed column
+	 * @param y
+	 *            wanted vertical position
+	 * @return nearest vertical position to <code>y</code> not overlapping a box of the column
+	 */
+	private double gap(final int l, final double y)
+	{
+		double result = y;
+		int low = 0;
+		int high = tops[l].length - 1;
+		while (low <= high)
+		{
+			final int mid = (low + high) >>> 1;
+			if (y < tops[l][mid])
+			{
+				high = mid - 1;
+			}
+			else if (y > bottoms[l][mid])
+			{
+				low = mid + 1;
+			}
+			else
+			{
+				result = (y - tops[l][mid] < bottoms[l][mid] - y ? tops[l][mid] - boxGap / 2
+						: bottoms[l][mid] + boxGap / 2);
+				break;
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,276 @@
+// Package : com.ben12.reta.graph
+// File : EdgeIndex.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.graph;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Hierarchical grid spatial index of the edges of a {@link GraphLayout}.<br>
+ * Edge segments are indexed by their bounding box in the finest grid level whose cells are larger than the box, so
+ * each segment is registered in at most four cells whatever its length. Each level stores its cells in a compressed
+ * layout (one start offset per cell). Queries are not thread safe.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public final class EdgeIndex
+{
+	/** Cell size of the finest grid level. */
+	private static final double		CELL_SIZE	= 256;
+
+	/** Indexed edges. */
+	private final List<GraphLayout.Edge>	edges;
+
+	/** Edge index of each segment. */
+	private final int[]				segmentEdges;
+
+	/** Bounding box of each segment: min x, min y, max x, max y. */
+	private final double[]			bounds;
+
+	/** Grid levels, finest first. */
+	private final Level[]			levels;
+
+	/** Last query stamp of each edge, used to report an edge once per query. */
+	private final int[]				stamps;
+
+	/** Current query stamp. */
+	private int						stamp		= 0;
+
+	/**
+	 * @param layout
+	 *            laid out graph
+	 */
+	public EdgeIndex(final GraphLayout layout)
+	{
+		edges = layout.getEdges();
+		int segmentCount = 0;
+		for (final GraphLayout.Edge edge : edges)
+		{
+			segmentCount += Math.max(0, edge.getPointCount() - 1);
+		}
+
+		segmentEdges = new int[segmentCount];
+		bounds = new double[segmentCount * 4];
+		int segment = 0;
+		for (int e = 0; e < edges.size(); e++)
+		{
+			final GraphLayout.Edge edge = edges.get(e);
+			for (int p = 1; p < edge.getPointCount(); p++, segment++)
+			{
+				// Segments are cubic curves with horizontal tangents: their control points share the ends bounding box
+				segmentEdges[segment] = e;
+				bounds[segment * 4] = Math.min(edge.getX(p - 1), edge.getX(p));
+				bounds[segment * 4 + 1] = Math.min(edge.getY(p - 1), edge.getY(p));
+				bounds[segment * 4 + 2] = Math.max(edge.getX(p - 1), edge.getX(p));
+				bounds[segment * 4 + 3] = Math.max(edge.getY(p - 1), edge.getY(p));
+			}
+		}
+
+		final double extent = Math.max(CELL_SIZE, Math.max(layout.getWidth(), layout.getHeight()));
+		final int levelCount = 1 + Math.max(0, (int) Math.ceil(Math.log(extent / CELL_SIZE) / Math.log(2)));
+		final int[] segmentLevels = new int[segmentCount];
+		final int[] levelSizes = new int[levelCount];
+		for (int s = 0; s < segmentCount; s++)
+		{
+			final double size = Math.max(bounds[s * 4 + 2] - bounds[s * 4], bounds[s * 4 + 3] - bounds[s * 4 + 1]);
+			int level = 0;
+			while (level < levelCount - 1 && size > CELL_SIZE * (1L << level))
+			{
+				level++;
+			}
+			segmentLevels[s] = level;
+			levelSizes[level]++;
+		}
+
+		levels = new Level[levelCount];
+		for (int l = 0; l < levelCount; l++)
+		{
+			levels[l] = (levelSizes[l] == 0 ? null
+					: new Level(CELL_SIZE * (1L << l), layout.getWidth(), layout.getHeight(), l, segmentLevels));
+		}
+		stamps = new int[edges.size()];
+	}
+
+	/**
+	 * @param index
+	 *            edge index
+	 * @return the edge
+	 */
+	public GraphLayout.Edge getEdge(final int index)
+	{
+		return edges.get(index);
+	}
+
+	/**
+	 * @return indexed edge count
+	 */
+	public int size()
+	{
+		return edges.size();
+	}
+
+	/**
+	 * Report once every edge having a segment whose bounding box intersects the rectangle.
+	 * 
+	 * @param minX
+	 *            rectangle left
+	 * @param minY
+	 *            rectangle top
+	 * @param maxX
+	 *            rectangle right
+	 * @param maxY
+	 *            rectangle bottom
+	 * @param action
+	 *            action called with the index of each found edge
+	 */
+	public void forEachEdge(final double minX, final double minY, final double maxX, final double maxY,
+			final IntConsumer action)
+	{
+		if (++stamp == 0)
+		{
+			Arrays.fill(stamps, 0);
+			stamp = 1;
+		}
+		for (final Level level : levels)
+		{
+			if (level != null)
+			{
+				final int maxColumn = level.column(maxX);
+				final int maxRow = level.row(maxY);
+				for (int r = level.row(minY); r <= maxRow; r++)
+				{
+					for (int c = level.column(minX); c <= maxColumn; c++)
+					{
+						final int cell = r * level.columns + c;
+						for (int i = level.cellStart[cell]; i < level.cellStart[cell + 1]; i++)
+						{
+							final int s = level.cellSegments[i];
+							final int e = segmentEdges[s];
+							if (stamps[e] != stamp && bounds[s * 4] <= maxX && bounds[s * 4 + 1] <= maxY
+									&& bounds[s * 4 + 2] >= minX && bounds[s * 4 + 3] >= minY)
+							{
+								stamps[e] = stamp;
+								action.accept(e);
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Grid level: segments of the level by cell.
+	 */
+	private final class Level
+	{
+		/** Cell size. */
+		private final double	cellSize;
+
+		/** Cell count on the horizontal axis. */
+		private final int		columns;
+
+		/** Cell count on the vertical axis. */
+		private final int		rows;
+
+		/** First entry of each cell in {@link #cellSegments}. */
+		private final int[]		cellStart;
+
+		/** Segment indexes of each cell. */
+		private final int[]		cellSegments;
+
+		/**
+		 * @param theCellSize
+		 *            cell size
+		 * @param width
+		 *            graph width
+		 * @param height
+		 *            graph height
+		 * @param level
+		 *            level index
+		 * @param segmentLevels
+		 *            level index of each segment
+		 */
+		Level(final double theCellSize, final double width, final double height, final int level,
+				final int[] segmentLevels)
+		{
+			cellSize = theCellSize;
+			columns = Math.max(1, (int) Math.ceil(width / cellSize));
+			rows = Math.max(1, (int) Math.ceil(height / cellSize));
+
+			cellStart = new int[columns * rows + 1];
+			for (int s = 0; s < segmentLevels.length; s++)
+			{
+				if (segmentLevels[s] == level)
+				{
+					for (int r = row(bounds[s * 4 + 1]); r <= row(bounds[s * 4 + 3]); r++)
+					{
+						for (int c = column(bounds[s * 4]); c <= column(bounds[s * 4 + 2]); c++)
+						{
+							cellStart[r * columns + c + 1]++;
+						}
+					}
+				}
+			}
+			for (int c = 0; c < columns * rows; c++)
+			{
+				cellStart[c + 1] += cellStart[c];
+			}
+
+			cellSegments = new int[cellStart[columns * rows]];
+			final int[] fill = new int[columns * rows];
+			for (int s = 0; s < segmentLevels.length; s++)
+			{
+				if (segmentLevels[s] == level)
+				{
+					for (int r = row(bounds[s * 4 + 1]); r <= row(bounds[s * 4 + 3]); r++)
+					{
+						for (int c = column(bounds[s * 4]); c <= column(bounds[s * 4 + 2]); c++)
+						{
+							final int cell = r * columns + c;
+							cellSegments[cellStart[cell] + fill[cell]++] = s;
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * @param x
+		 *            horizontal position
+		 * @return cell column, clamped to the grid
+		 */
+		private int column(final double x)
+		{
+			return Math.max(0, Math.min(columns - 1, (int) (x / cellSize)));
+		}
+
+		/**
+		 * @param y
+		 *            vertical position
+		 * @return cell row, clamped to the grid
+		 */
+		private int row(final double y)
+		{
+			return Math.max(0, Math.min(rows - 1, (int) (y / cellSize)));
+		}
+	}
+}
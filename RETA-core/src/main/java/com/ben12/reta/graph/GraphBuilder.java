@@ -0,0 +1,449 @@
+// Package : com.ben12.reta.graph
+// File : GraphBuilder.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.graph;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.FileFormatOption;
+import net.sourceforge.plantuml.SourceStringReader;
+import net.sourceforge.plantuml.version.Version;
+
+import com.google.common.base.Suppliers;
+
+import com.ben12.reta.model.CoverageState;
+import com.ben12.reta.model.GraphData;
+import com.ben12.reta.model.GraphData.Link;
+import com.ben12.reta.model.GraphData.SourceLink;
+import com.ben12.reta.model.InputRequirementSource;
+import com.ben12.reta.model.RequirementImpl;
+import com.ben12.reta.model.TraceGraph;
+
+/**
+ * Build the traceability graph views of an analysis: PlantUML for small graphs, {@link LayeredLayout} for larger
+ * ones, and a {@link SummaryLayout} when the whole graph is too large to be useful.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public final class GraphBuilder
+{
+	/** Maximum requirement and link count of a graph rendered by PlantUML, larger ones use {@link LayeredLayout}. */
+	public static final int		PLANTUML_MAX_ELEMENTS	= 600;
+
+	/** Maximum requirement and link count of the initial requirement level graph, larger ones start summarised. */
+	public static final int		DETAIL_MAX_ELEMENTS		= 5000;
+
+	/** PlantUML entity group start, the group contains the source name text followed by one text per field. */
+	private static final Pattern	ENTITY_PATTERN			= Pattern
+			.compile("<g\\b[^>]*\\bdata-entity=\"([^\"]*)\"[^>]*>");
+
+	/** SVG text element without child element. */
+	private static final Pattern	TEXT_PATTERN			= Pattern.compile("<text\\b([^>]*)>([^<]*)</text>");
+
+	/** XML character reference or predefined entity. */
+	private static final Pattern	ENTITY_REFERENCE		= Pattern.compile("&(#x?)?(\\w+);");
+
+	/** {@link GraphBuilder} logger. */
+	private static final Logger	LOGGER					= Logger.getLogger(GraphBuilder.class.getName());
+
+	/** Analysed traceability graph. */
+	private final TraceGraph	graph;
+
+	/** Translated labels. */
+	private final ResourceBundle	labels;
+
+	/** Rendered PlantUML graphs cache, may be null. */
+	private final GraphCache		cache;
+
+	/**
+	 * @param theGraph
+	 *            analysed traceability graph
+	 * @param theLabels
+	 *            translated labels
+	 */
+	public GraphBuilder(final TraceGraph theGraph, final ResourceBundle theLabels)
+	{
+		this(theGraph, theLabels, null);
+	}
+
+	/**
+	 * @param theGraph
+	 *            analysed traceability graph
+	 * @param theLabels
+	 *            translated labels
+	 * @param theCache
+	 *            rendered PlantUML graphs cache, may be null
+	 */
+	public GraphBuilder(final TraceGraph theGraph, final ResourceBundle theLabels, final GraphCache theCache)
+	{
+		graph = theGraph;
+		labels = theLabels;
+		cache = theCache;
+	}
+
+	/**
+	 * @return the initial graph: requirement level when small enough, source level summary otherwise
+	 */
+	public GraphData build()
+	{
+		final GraphData graphData;
+		if (graph.size() + graph.getLinkCount() <= DETAIL_MAX_ELEMENTS)
+		{
+			graphData = buildDetail(graph.getSources());
+		}
+		else
+		{
+			graphData = buildSummary();
+		}
+		return graphData;
+	}
+
+	/**
+	 * @return the source level summary graph
+	 */
+	public GraphData buildSummary()
+	{
+		final var summary = new SummaryLayout(graph);
+		final var layout = summary.layout(source -> {
+			final int count = source.getRequirements().size();
+			final List<String> rows = new ArrayList<>(2);
+			rows.add(MessageFormat.format(labels.getString("graph.requirements"), count));
+			if (!source.getCoversBy().isEmpty())
+			{
+				final long uncovered = source.getRequirements().stream().filter(r -> r.getReferredByCount() == 0).count();
+				rows.add(MessageFormat.format(labels.getString("graph.uncovered"), uncovered));
+			}
+			return rows;
+		}, link -> MessageFormat.format(labels.getString("graph.links"), link.getCount(), link.getCoverage()));
+
+		final Map<String, InputRequirementSource> sourceEntities = new HashMap<>();
+		for (final var box : layout.getBoxes())
+		{
+			sourceEntities.put(box.getAlias(), box.getSource());
+		}
+		final Map<String, SourceLink> sourceLinks = new HashMap<>(summary.getSourceLinks());
+		return new GraphData(Suppliers.memoize(() -> toHtml(SvgRenderer.render(layout))), layout, sourceEntities,
+				new HashMap<>(), sourceLinks);
+	}
+
+	/**
+	 * @param sources
+	 *            sources to show
+	 * @return the requirement level graph of <code>sources</code> and the links between them
+	 */
+	public GraphData buildDetail(final Collection<InputRequirementSource> sources)
+	{
+		int elements = 0;
+		for (int i = 0; i < graph.size(); i++)
+		{
+			if (sources.contains(graph.getRequirement(i).getSource()))
+			{
+				elements++;
+				for (final int q : graph.getReferredBy(i))
+				{
+					elements += (sources.contains(graph.getRequirement(q).getSource()) ? 1 : 0);
+				}
+			}
+		}
+
+		final GraphData graphData;
+		if (elements <= PLANTUML_MAX_ELEMENTS)
+		{
+			graphData = buildPlantumlGraph(sources);
+		}
+		else
+		{
+			graphData = buildLayeredGraph(sources);
+		}
+		return graphData;
+	}
+
+	/**
+	 * @param sources
+	 *            sources to show
+	 * @return the graph data laid out by {@link LayeredLayout}
+	 */
+	private GraphData buildLayeredGraph(final Collection<InputRequirementSource> sources)
+	{
+		final var layout = new LayeredLayout(graph, sources).layout();
+		final Map<String, InputRequirementSource> sourceEntities = new HashMap<>();
+		for (final var box : layout.getBoxes())
+		{
+			sourceEntities.put(box.getAlias(), box.getSource());
+		}
+		final Map<String, Link> links = new HashMap<>();
+		for (final var edge : layout.getEdges())
+		{
+			links.put(edge.getKey(), edge.getLink());
+		}
+		return new GraphData(Suppliers.memoize(() -> toHtml(SvgRenderer.render(layout))), layout, sourceEntities, links,
+				null);
+	}
+
+	/**
+	 * @param sources
+	 *            sources to show
+	 * @return the graph data rendered by PlantUML
+	 */
+	private GraphData buildPlantumlGraph(final Collection<InputRequirementSource> sources)
+	{
+		final Map<String, InputRequirementSource> sourceEntities = new HashMap<>();
+		final Map<String, Link> links = new HashMap<>();
+		final var graphLines = new ArrayList<String>();
+
+		graphLines.add("@startuml");
+		graphLines.add("skinparam classAttributeIconSize 0");
+
+		final var allSources = graph.getSources();
+		for (int i = 0; i < allSources.size(); i++)
+		{
+			final var source = allSources.get(i);
+			if (sources.contains(source))
+			{
+				graphLines.add("object \"**" + source.getName() + "**\" as S" + i + " {");
+				final var reqs = source.getRequirements();
+				for (final var req : reqs)
+				{
+					graphLines.add("{field} " + req.getId().replace("\\", "<U+200C>\\<U+200C>"));
+				}
+				graphLines.add("}");
+
+				sourceEntities.put("S" + i, source);
+			}
+		}
+
+		for (int i = 0; i < allSources.size(); i++)
+		{
+			final var source = allSources.get(i);
+			if (sources.contains(source))
+			{
+				final var reqs = source.getRequirements();
+				for (final var req : reqs)
+				{
+					final var reqId = req.getId().replace("\\", "<U+200C>\\<U+200C>");
+					final var refs = req.getReferences();
+					for (final var ref : refs)
+					{
+						final var refSource = ref.getSource();
+						if (refSource != null && sources.contains(refSource))
+						{
+							final var refSo = allSources.indexOf(refSource);
+							final var refId = ref.getId().replace("\\", "<U+200C>\\<U+200C>");
+							graphLines.add("\"S" + refSo + "::" + refId + "\" <--- \"S" + i + "::" + reqId + "\"");
+
+							final String dataSourceLine = "" + graphLines.size();
+							links.put(dataSourceLine, new Link(dataSourceLine, source, req, refSource, ref));
+						}
+					}
+				}
+			}
+		}
+
+		graphLines.add("@enduml");
+
+		final var puGraph = String.join("\n", graphLines);
+		final var key = GraphCache.key(Version.versionString() + '\n' + puGraph);
+		var svg = (cache == null ? null : cache.get(key));
+		if (svg == null)
+		{
+			final var reader = new SourceStringReader(puGraph);
+			final var output = new ByteArrayOutputStream();
+			try
+			{
+				reader.outputImage(output, new FileFormatOption(FileFormat.SVG));
+				svg = new String(output.toByteArray(), StandardCharsets.UTF_8);
+				// PlantUML renders layout errors (e.g. Graphviz not found) as an image: do not cache them
+				if (cache != null && svg.contains("data-entity"))
+				{
+					cache.put(key, svg);
+				}
+			}
+			catch (final IOException e)
+			{
+				LOGGER.log(Level.SEVERE, "Error during Graph generation", e);
+				svg = new String(output.toByteArray(), StandardCharsets.UTF_8);
+			}
+		}
+		return new GraphData(toHtml(decoratePlantumlSvg(svg, sourceEntities)), sourceEntities, links);
+	}
+
+	/**
+	 * Add the source description and requirement text tool-tips, and the requirement coverage colours, to the PlantUML
+	 * SVG. Field texts are matched to requirements through an identifier index built once per source.
+	 * 
+	 * @param svg
+	 *            PlantUML SVG graph
+	 * @param sourceEntities
+	 *            requirement sources by entity alias
+	 * @return decorated SVG graph
+	 */
+	private static String decoratePlantumlSvg(final String svg,
+			final Map<String, InputRequirementSource> sourceEntities)
+	{
+		final StringBuilder decorated = new StringBuilder(svg.length() + svg.length() / 2);
+		final Matcher entity = ENTITY_PATTERN.matcher(svg);
+		final Matcher text = TEXT_PATTERN.matcher(svg);
+		int position = 0;
+		while (entity.find())
+		{
+			final var source = sourceEntities.get(entity.group(1));
+			final int end = svg.indexOf("</g>", entity.end());
+			if (source != null && end >= 0)
+			{
+				final Map<String, RequirementImpl> requirementsById = new HashMap<>();
+				for (final var req : source.getRequirements())
+				{
+					requirementsById.putIfAbsent(req.getId(), req);
+				}
+
+				decorated.append(svg, position, entity.end());
+				position = entity.end();
+				text.region(entity.end(), end);
+				boolean header = true;
+				while (text.find())
+				{
+					final String content = unescape(text.group(2));
+					String title = null;
+					String style = "";
+					if (header)
+					{
+						header = false;
+						if (source.getName().equals(content))
+						{
+							title = source.getConfiguration().getDescription();
+						}
+					}
+					else
+					{
+						final var req = requirementsById.get(content);
+						if (req != null)
+						{
+							title = req.getText();
+							style = SvgRenderer.coverageStyle(CoverageState.of(req));
+						}
+					}
+
+					decorated.append(svg, position, text.start());
+					decorated.append("<text").append(text.group(1)).append(style).append('>').append(text.group(2));
+					SvgRenderer.appendTitle(decorated, title);
+					decorated.append("</text>");
+					position = text.end();
+				}
+				decorated.append(svg, position, end);
+				position = end;
+				entity.region(end, svg.length());
+			}
+		}
+		decorated.append(svg, position, svg.length());
+		return decorated.toString();
+	}
+
+	/**
+	 * @param xml
+	 *            XML text content
+	 * @return the text with character references and predefined entities replaced, and without the zero width
+	 *         non-joiners added around back-slashes
+	 */
+	private static String unescape(final String xml)
+	{
+		final StringBuilder text = new StringBuilder(xml.length());
+		final Matcher reference = ENTITY_REFERENCE.matcher(xml);
+		int position = 0;
+		while (reference.find())
+		{
+			text.append(xml, position, reference.start());
+			final String name = reference.group(2);
+			if ("#".equals(reference.group(1)))
+			{
+				text.appendCodePoint(Integer.parseInt(name));
+			}
+			else if ("#x".equals(reference.group(1)))
+			{
+				text.appendCodePoint(Integer.parseInt(name, 16));
+			}
+			else
+			{
+				switch (name)
+				{
+				case "lt":
+					text.append('<');
+					break;
+				case "gt":
+					text.append('>');
+					break;
+				case "amp":
+					text.append('&');
+					break;
+				case "quot":
+					text.append('"');
+					break;
+				case "apos":
+					text.append('\'');
+					break;
+				default:
+					text.append(reference.group());
+					break;
+				}
+			}
+			position = reference.end();
+		}
+		text.append(xml, position, xml.length());
+		return text.toString().replace("\u200C", "").replace('\u00A0', ' ');
+	}
+
+	/**
+	 * @param svg
+	 *            SVG graph
+	 * @return HTML page centering the graph
+	 */
+	private static String toHtml(final String svg)
+	{
+		return """
+				    <head>
+					  <style>
+					    body {
+					      display: flex;
+					      justify-content: center;
+					      align-items: center;
+					      padding: 4px;
+					      min-width: fit-content;
+					      min-height: fit-content;
+						}
+					  </style>
+				    </head>
+				    <body>
+				""" + svg + """
+				    </body>
+				""";
+	}
+}
@@ -0,0 +1,175 @@
+// Package : com.ben12.reta.graph
+// File : GraphCache.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.graph;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * On disk cache of rendered SVG graphs, keyed by a hash of the graph source.<br>
+ * Cache files are written in a <code>.reta-cache</code> directory next to the analysis configuration file; only the
+ * most recently used entries are kept.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public final class GraphCache
+{
+	/** Cache directory name. */
+	public static final String	DIRECTORY	= ".reta-cache";
+
+	/** Maximum cached graph count. */
+	private static final int	MAX_ENTRIES	= 16;
+
+	/** Cache file extension. */
+	private static final String	EXTENSION	= ".svg";
+
+	/** {@link GraphCache} logger. */
+	private static final Logger	LOGGER		= Logger.getLogger(GraphCache.class.getName());
+
+	/** Cache directory. */
+	private final Path			directory;
+
+	/**
+	 * @param theDirectory
+	 *            cache directory, created on first write
+	 */
+	public GraphCache(final Path theDirectory)
+	{
+		directory = theDirectory;
+	}
+
+	/**
+	 * @param config
+	 *            analysis configuration file, may be null
+	 * @return the graph cache of the analysis, null if the analysis is not saved
+	 */
+	public static GraphCache forConfiguration(final File config)
+	{
+		GraphCache cache = null;
+		if (config != null)
+		{
+			cache = new GraphCache(config.getAbsoluteFile().toPath().resolveSibling(DIRECTORY));
+		}
+		return cache;
+	}
+
+	/**
+	 * @param source
+	 *            graph source
+	 * @return cache key of the graph source
+	 */
+	public static String key(final String source)
+	{
+		return Hashing.murmur3_128().hashString(source, StandardCharsets.UTF_8).toString();
+	}
+
+	/**
+	 * @param key
+	 *            cache key (see {@link #key(String)})
+	 * @return the cached SVG graph, null if not cached
+	 */
+	public String get(final String key)
+	{
+		String svg = null;
+		final Path file = directory.resolve(key + EXTENSION);
+		if (Files.isRegularFile(file))
+		{
+			try
+			{
+				svg = Files.readString(file, StandardCharsets.UTF_8);
+				// Last modified time is the last use time, for the cache eviction
+				Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+			}
+			catch (final IOException e)
+			{
+				LOGGER.log(Level.WARNING, "Cannot read cached graph " + file, e);
+			}
+		}
+		return svg;
+	}
+
+	/**
+	 * Cache a rendered SVG graph, and evict the least recently used entries.
+	 * 
+	 * @param key
+	 *            cache key (see {@link #key(String)})
+	 * @param svg
+	 *            rendered SVG graph
+	 */
+	public void put(final String key, final String svg)
+	{
+		try
+		{
+			Files.createDirectories(directory);
+			final Path temp = Files.createTempFile(directory, key, ".tmp");
+			Files.writeString(temp, svg, StandardCharsets.UTF_8);
+			Files.move(temp, directory.resolve(key + EXTENSION), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+
+			final List<Path> entries;
+			try (Stream<Path> files = Files.list(directory))
+			{
+				entries = files.filter(f -> f.getFileName().toString().endsWith(EXTENSION))
+						.sorted(Comparator.comparing(GraphCache::lastModified).reversed())
+						.collect(Collectors.toList());
+			}
+			for (final Path old : entries.subList(Math.min(MAX_ENTRIES, entries.size()), entries.size()))
+			{
+				Files.deleteIfExists(old);
+			}
+		}
+		catch (final IOException e)
+		{
+			LOGGER.log(Level.WARNING, "Cannot cache graph in " + directory, e);
+		}
+	}
+
+	/**
+	 * @param file
+	 *            cache file
+	 * @return last modified time of the file in milliseconds, 0 if unknown
+	 */
+	private static long lastModified(final Path file)
+	{
+		long time = 0;
+		try
+		{
+			time = Files.getLastModifiedTime(file).toMillis();
+		}
+		catch (final IOException e)
+		{
+			LOGGER.log(Level.FINE, "Cannot read last modified time of " + file, e);
+		}
+		return time;
+	}
+}
@@ -0,0 +1,356 @@
+// Package : com.ben12.reta.graph
+// File : GraphLayout.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.graph;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.ben12.reta.model.GraphData.Link;
+import com.ben12.reta.model.InputRequirementSource;
+import com.ben12.reta.model.RequirementImpl;
+
+/**
+ * Laid out traceability graph: one box per requirement source, one row per requirement (or per summary line) and
+ * one poly-curve per link (or per linked source pair).
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public final class GraphLayout
+{
+	/** Box header (source name) height. */
+	public static final double	HEADER_HEIGHT	= 24;
+
+	/** Requirement row height. */
+	public static final double	ROW_HEIGHT		= 18;
+
+	/** Estimated character width of the monospaced graph font. */
+	public static final double	CHAR_WIDTH		= 7.2;
+
+	/** Font size of the graph texts. */
+	public static final double	FONT_SIZE		= 12;
+
+	/** Horizontal text padding in boxes. */
+	public static final double	PADDING			= 6;
+
+	/** Requirement source boxes. */
+	private final List<Box>		boxes;
+
+	/** Link edges. */
+	private final List<Edge>	edges;
+
+	/** Graph width. */
+	private final double		width;
+
+	/** Graph height. */
+	private final double		height;
+
+	/**
+	 * @param theBoxes
+	 *            requirement source boxes
+	 * @param theEdges
+	 *            link edges
+	 * @param theWidth
+	 *            graph width
+	 * @param theHeight
+	 *            graph height
+	 */
+	GraphLayout(final List<Box> theBoxes, final List<Edge> theEdges, final double theWidth, final double theHeight)
+	{
+		boxes = Collections.unmodifiableList(theBoxes);
+		edges = Collections.unmodifiableList(theEdges);
+		width = theWidth;
+		height = theHeight;
+	}
+
+	/**
+	 * @return requirement source boxes
+	 */
+	public List<Box> getBoxes()
+	{
+		return boxes;
+	}
+
+	/**
+	 * @return link edges
+	 */
+	public List<Edge> getEdges()
+	{
+		return edges;
+	}
+
+	/**
+	 * @return graph width
+	 */
+	public double getWidth()
+	{
+		return width;
+	}
+
+	/**
+	 * @return graph height
+	 */
+	public double getHeight()
+	{
+		return height;
+	}
+
+	/**
+	 * Requirement source box.
+	 */
+	public static final class Box
+	{
+		/** Source alias. */
+		private final String					alias;
+
+		/** Requirement source. */
+		private final InputRequirementSource	source;
+
+		/** Requirements, one per row, empty for summary boxes. */
+		private final List<RequirementImpl>		requirements;
+
+		/** Row texts. */
+		private final List<String>				rows;
+
+		/** Layer (column) of the box. */
+		private final int						layer;
+
+		/** Left position. */
+		private final double					x;
+
+		/** Top position. */
+		private final double					y;
+
+		/** Box width. */
+		private final double					width;
+
+		/**
+		 * @param theAlias
+		 *            source alias
+		 * @param theSource
+		 *            requirement source
+		 * @param theRequirements
+		 *            requirements, one per row, empty for summary boxes
+		 * @param theRows
+		 *            row texts
+		 * @param theLayer
+		 *            layer (column) of the box
+		 * @param theX
+		 *            left position
+		 * @param theY
+		 *            top position
+		 * @param theWidth
+		 *            box width
+		 */
+		Box(final String theAlias, final InputRequirementSource theSource, final List<RequirementImpl> theRequirements,
+				final List<String> theRows, final int theLayer, final double theX, final double theY,
+				final double theWidth)
+		{
+			alias = theAlias;
+			source = theSource;
+			requirements = Collections.unmodifiableList(theRequirements);
+			rows = Collections.unmodifiableList(theRows);
+			layer = theLayer;
+			x = theX;
+			y = theY;
+			width = theWidth;
+		}
+
+		/**
+		 * @return the source alias
+		 */
+		public String getAlias()
+		{
+			return alias;
+		}
+
+		/**
+		 * @return the requirement source
+		 */
+		public InputRequirementSource getSource()
+		{
+			return source;
+		}
+
+		/**
+		 * @return the requirements, one per row, empty for summary boxes
+		 */
+		public List<RequirementImpl> getRequirements()
+		{
+			return requirements;
+		}
+
+		/**
+		 * @return the row texts
+		 */
+		public List<String> getRows()
+		{
+			return rows;
+		}
+
+		/**
+		 * @return the layer (column) of the box
+		 */
+		public int getLayer()
+		{
+			return layer;
+		}
+
+		/**
+		 * @return the left position
+		 */
+		public double getX()
+		{
+			return x;
+		}
+
+		/**
+		 * @return the top position
+		 */
+		public double getY()
+		{
+			return y;
+		}
+
+		/**
+		 * @return the box width
+		 */
+		public double getWidth()
+		{
+			return width;
+		}
+
+		/**
+		 * @return the box height
+		 */
+		public double getHeight()
+		{
+			return height(rows.size());
+		}
+
+		/**
+		 * @param row
+		 *            requirement row
+		 * @return top position of the row
+		 */
+		public double getRowY(final int row)
+		{
+			return y + HEADER_HEIGHT + row * ROW_HEIGHT;
+		}
+
+		/**
+		 * @param rowCount
+		 *            row count
+		 * @return height of a box having <code>rowCount</code> rows
+		 */
+		static double height(final int rowCount)
+		{
+			return HEADER_HEIGHT + rowCount * ROW_HEIGHT + 4;
+		}
+	}
+
+	/**
+	 * Link edge, from the referencing requirement row to the referenced requirement row, or from the covering source
+	 * box to the covered source box.
+	 */
+	public static final class Edge
+	{
+		/** Edge identifier. */
+		private final String	key;
+
+		/** Edge label, may be null. */
+		private final String	label;
+
+		/** Requirement link, null for source level edges. */
+		private final Link		link;
+
+		/** Way points coordinates: x0, y0, x1, y1, ... */
+		private final double[]	points;
+
+		/**
+		 * @param theKey
+		 *            edge identifier
+		 * @param theLabel
+		 *            edge label, may be null
+		 * @param theLink
+		 *            requirement link, null for source level edges
+		 * @param thePoints
+		 *            way points coordinates: x0, y0, x1, y1, ...
+		 */
+		Edge(final String theKey, final String theLabel, final Link theLink, final double[] thePoints)
+		{
+			key = theKey;
+			label = theLabel;
+			link = theLink;
+			points = thePoints;
+		}
+
+		/**
+		 * @return the edge identifier
+		 */
+		public String getKey()
+		{
+			return key;
+		}
+
+		/**
+		 * @return the edge label, may be null
+		 */
+		public String getLabel()
+		{
+			return label;
+		}
+
+		/**
+		 * @return the requirement link, null for source level edges
+		 */
+		public Link getLink()
+		{
+			return link;
+		}
+
+		/**
+		 * @return the way points count
+		 */
+		public int getPointCount()
+		{
+			return points.length / 2;
+		}
+
+		/**
+		 * @param point
+		 *            way point index
+		 * @return x coordinate of the way point
+		 */
+		public double getX(final int point)
+		{
+			return points[point * 2];
+		}
+
+		/**
+		 * @param point
+		 *            way point index
+		 * @return y coordinate of the way point
+		 */
+		public double getY(final int point)
+		{
+			return points[point * 2 + 1];
+		}
+	}
+}
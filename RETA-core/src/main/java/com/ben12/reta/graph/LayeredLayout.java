@@ -0,0 +1,429 @@
+// Package : com.ben12.reta.graph
+// File : LayeredLayout.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ben12.reta.model.GraphData.Link;
+import com.ben12.reta.model.InputRequirementSource;
+import com.ben12.reta.model.RequirementImpl;
+import com.ben12.reta.model.TraceGraph;
+
+/**
+ * Layered (Sugiyama style) layout of the traceability graph.<br>
+ * Each requirement source is a box placed in a column given by its depth in the "covers" relation, most covered
+ * sources on the left. Boxes of a column are ordered and vertically placed by barycenter sweeps over the rows they
+ * are linked to, and links spanning several columns are routed through the gaps between the boxes of the crossed
+ * columns. The whole layout is linear in the number of requirements and links, plus the sort of the boxes of each
+ * column.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public final class LayeredLayout
+{
+	/** Horizontal gap between columns. */
+	private static final double		LAYER_GAP	= 140;
+
+	/** Vertical gap between boxes. */
+	private static final double		BOX_GAP		= 30;
+
+	/** Graph margin. */
+	private static final double		MARGIN		= 24;
+
+	/** Horizontal extent of links between boxes of the same column. */
+	private static final double		LOOP		= 20;
+
+	/** Barycenter sweeps count. */
+	private static final int		SWEEPS		= 4;
+
+	/** Analysed traceability graph. */
+	private final TraceGraph		graph;
+
+	/** Laid out sources, in {@link TraceGraph#getSources()} order. */
+	private final boolean[]			included;
+
+	/** First requirement index of each source. */
+	private final int[]				firstIndex;
+
+	/** Layer of each source. */
+	private final int[]				layers;
+
+	/** Source indexes of each layer, in vertical order. */
+	private final List<List<Integer>>	columns		= new ArrayList<>();
+
+	/** Top position of each source box. */
+	private final double[]			tops;
+
+	/** Referencing requirement index of each link. */
+	private int[]					edgeFrom;
+
+	/** Referenced requirement index of each link. */
+	private int[]					edgeTo;
+
+	/**
+	 * Lay out all the sources of <code>theGraph</code>.
+	 * 
+	 * @param theGraph
+	 *            analysed traceability graph
+	 */
+	public LayeredLayout(final TraceGraph theGraph)
+	{
+		this(theGraph, theGraph.getSources());
+	}
+
+	/**
+	 * Lay out a subset of the sources of <code>theGraph</code>, with the links between them.
+	 * 
+	 * @param theGraph
+	 *            analysed traceability graph
+	 * @param sources
+	 *            sources to lay out
+	 */
+	public LayeredLayout(final TraceGraph theGraph, final Collection<InputRequirementSource> sources)
+	{
+		graph = theGraph;
+		final List<InputRequirementSource> allSources = graph.getSources();
+		final int count = allSources.size();
+		included = new boolean[count];
+		firstIndex = new int[count + 1];
+		layers = new int[count];
+		tops = new double[count];
+
+		for (int s = 0; s < count; s++)
+		{
+			included[s] = sources.contains(allSources.get(s));
+		}
+		Arrays.fill(firstIndex, graph.size());
+		for (int i = graph.size() - 1; i >= 0; i--)
+		{
+			firstIndex[graph.getSourceIndex(i)] = i;
+		}
+		for (int s = count - 1; s >= 0; s--)
+		{
+			firstIndex[s] = Math.min(firstIndex[s], firstIndex[s + 1]);
+		}
+
+		assignLayers(allSources, included, layers);
+		int maxLayer = 0;
+		for (int s = 0; s < count; s++)
+		{
+			maxLayer = Math.max(maxLayer, included[s] ? layers[s] : 0);
+		}
+		for (int l = 0; l <= maxLayer; l++)
+		{
+			columns.add(new ArrayList<>());
+		}
+		for (int s = 0; s < count; s++)
+		{
+			if (included[s])
+			{
+				columns.get(layers[s]).add(s);
+			}
+		}
+
+		collectEdges();
+	}
+
+	/**
+	 * Assign to each source its depth in the "covers" relation, "covers" cycles being ignored.
+	 * 
+	 * @param sources
+	 *            sources in topological order, covering sources first (see {@link TraceGraph#getSources()})
+	 * @param included
+	 *            laid out sources
+	 * @param layers
+	 *            layer of each source, filled
+	 */
+	static void assignLayers(final List<InputRequirementSource> sources, final boolean[] included, final int[] layers)
+	{
+		final Map<InputRequirementSource, Integer> sourceIndexes = new IdentityHashMap<>();
+		for (int s = 0; s < sources.size(); s++)
+		{
+			sourceIndexes.put(sources.get(s), s);
+		}
+		// assign layers from the last source, so that covered sources are done first
+		for (int s = sources.size() - 1; s >= 0; s--)
+		{
+			layers[s] = 0;
+			for (final InputRequirementSource cover : sources.get(s).getCovers())
+			{
+				final Integer c = sourceIndexes.get(cover);
+				if (c != null && c > s && included[c])
+				{
+					layers[s] = Math.max(layers[s], layers[c] + 1);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Collect the links between laid out sources.
+	 */
+	private void collectEdges()
+	{
+		int count = 0;
+		for (int i = 0; i < graph.size(); i++)
+		{
+			if (included[graph.getSourceIndex(i)])
+			{
+				for (final int q : graph.getReferredBy(i))
+				{
+					if (included[graph.getSourceIndex(q)])
+					{
+						count++;
+					}
+				}
+			}
+		}
+
+		edgeFrom = new int[count];
+		edgeTo = new int[count];
+		int e = 0;
+		for (int i = 0; i < graph.size(); i++)
+		{
+			if (included[graph.getSourceIndex(i)])
+			{
+				for (final int q : graph.getReferredBy(i))
+				{
+					if (included[graph.getSourceIndex(q)])
+					{
+						edgeFrom[e] = q;
+						edgeTo[e] = i;
+						e++;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the laid out graph
+	 */
+	public GraphLayout layout()
+	{
+		for (final List<Integer> column : columns)
+		{
+			place(column, column.stream().mapToDouble(s -> tops[s]).toArray());
+		}
+		for (int sweep = 0; sweep < SWEEPS; sweep++)
+		{
+			final boolean forward = (sweep % 2 == 0);
+			for (int c = 0; c < columns.size(); c++)
+			{
+				final List<Integer> column = columns.get(forward ? c : columns.size() - 1 - c);
+				if (!column.isEmpty())
+				{
+					place(column, barycenters(column));
+				}
+			}
+		}
+
+		// Column positions, all boxes of a column share its width
+		final double[] columnX = new double[columns.size()];
+		final double[] columnWidth = new double[columns.size()];
+		double x = MARGIN;
+		for (int l = 0; l < columns.size(); l++)
+		{
+			double width = 0;
+			for (final int s : columns.get(l))
+			{
+				width = Math.max(width, textWidth(graph.getSources().get(s).getName()));
+				for (int i = firstIndex[s]; i < firstIndex[s + 1]; i++)
+				{
+					width = Math.max(width, textWidth(graph.getRequirement(i).getId()));
+				}
+			}
+			columnX[l] = x;
+			columnWidth[l] = width + 2 * GraphLayout.PADDING;
+			x += columnWidth[l] + LAYER_GAP;
+		}
+
+		final List<GraphLayout.Box> boxes = new ArrayList<>();
+		double height = 0;
+		for (int s = 0; s < included.length; s++)
+		{
+			if (included[s])
+			{
+				final List<RequirementImpl> reqs = new ArrayList<>(firstIndex[s + 1] - firstIndex[s]);
+				final List<String> rows = new ArrayList<>(reqs.size());
+				for (int i = firstIndex[s]; i < firstIndex[s + 1]; i++)
+				{
+					reqs.add(graph.getRequirement(i));
+					rows.add(graph.getRequirement(i).getId());
+				}
+				final int l = layers[s];
+				final GraphLayout.Box box = new GraphLayout.Box("S" + s, graph.getSources().get(s), reqs, rows, l,
+						columnX[l], tops[s], columnWidth[l]);
+				boxes.add(box);
+				height = Math.max(height, box.getY() + box.getHeight());
+			}
+		}
+
+		final double[][] columnTops = new double[columns.size()][];
+		final double[][] columnBottoms = new double[columns.size()][];
+		for (int l = 0; l < columns.size(); l++)
+		{
+			final List<Integer> column = columns.get(l);
+			columnTops[l] = new double[column.size()];
+			columnBottoms[l] = new double[column.size()];
+			for (int k = 0; k < column.size(); k++)
+			{
+				final int s = column.get(k);
+				columnTops[l][k] = tops[s];
+				columnBottoms[l][k] = tops[s] + GraphLayout.Box.height(firstIndex[s + 1] - firstIndex[s]);
+			}
+		}
+		final var router = new ColumnRouter(columnX, columnWidth, columnTops, columnBottoms, BOX_GAP, LOOP);
+
+		final List<GraphLayout.Edge> edges = new ArrayList<>(edgeFrom.length);
+		for (int e = 0; e < edgeFrom.length; e++)
+		{
+			edges.add(route(e, router));
+		}
+
+		final double width = Math.max(MARGIN, x - LAYER_GAP + MARGIN);
+		return new GraphLayout(boxes, edges, width, height + MARGIN);
+	}
+
+	/**
+	 * @param text
+	 *            text to measure
+	 * @return estimated text width
+	 */
+	private static double textWidth(final String text)
+	{
+		return text.length() * GraphLayout.CHAR_WIDTH;
+	}
+
+	/**
+	 * @param i
+	 *            requirement index
+	 * @return vertical offset of the requirement row center in its box
+	 */
+	private double rowOffset(final int i)
+	{
+		return GraphLayout.HEADER_HEIGHT + (i - firstIndex[graph.getSourceIndex(i)] + 0.5) * GraphLayout.ROW_HEIGHT;
+	}
+
+	/**
+	 * @param i
+	 *            requirement index
+	 * @return vertical position of the requirement row center
+	 */
+	private double rowY(final int i)
+	{
+		return tops[graph.getSourceIndex(i)] + rowOffset(i);
+	}
+
+	/**
+	 * @param column
+	 *            source indexes of a column
+	 * @return wanted top position of each box so that its rows face the rows they are linked to (barycenter)
+	 */
+	private double[] barycenters(final List<Integer> column)
+	{
+		final double[] sums = new double[included.length];
+		final int[] counts = new int[included.length];
+		final int layer = layers[column.get(0)];
+		for (int e = 0; e < edgeFrom.length; e++)
+		{
+			final int a = edgeFrom[e];
+			final int b = edgeTo[e];
+			final int sa = graph.getSourceIndex(a);
+			final int sb = graph.getSourceIndex(b);
+			if (layers[sa] != layers[sb])
+			{
+				if (layers[sa] == layer)
+				{
+					sums[sa] += rowY(b) - rowOffset(a);
+					counts[sa]++;
+				}
+				else if (layers[sb] == layer)
+				{
+					sums[sb] += rowY(a) - rowOffset(b);
+					counts[sb]++;
+				}
+			}
+		}
+		final double[] wanted = new double[column.size()];
+		for (int k = 0; k < column.size(); k++)
+		{
+			final int s = column.get(k);
+			wanted[k] = (counts[s] > 0 ? sums[s] / counts[s] : tops[s]);
+		}
+		return wanted;
+	}
+
+	/**
+	 * Order the boxes of a column by wanted position and place them as near as possible without overlapping.
+	 * 
+	 * @param column
+	 *            source indexes of a column, reordered
+	 * @param wanted
+	 *            wanted top position of each box
+	 */
+	private void place(final List<Integer> column, final double[] wanted)
+	{
+		final Integer[] order = new Integer[column.size()];
+		for (int k = 0; k < order.length; k++)
+		{
+			order[k] = k;
+		}
+		Arrays.sort(order, Comparator.comparingDouble(k -> wanted[k]));
+
+		final List<Integer> sorted = new ArrayList<>(column.size());
+		double y = MARGIN;
+		for (final int k : order)
+		{
+			final int s = column.get(k);
+			tops[s] = Math.max(y, wanted[k]);
+			y = tops[s] + GraphLayout.Box.height(firstIndex[s + 1] - firstIndex[s]) + BOX_GAP;
+			sorted.add(s);
+		}
+		column.clear();
+		column.addAll(sorted);
+	}
+
+	/**
+	 * @param e
+	 *            link index
+	 * @param router
+	 *            edge router
+	 * @return the routed link
+	 */
+	private GraphLayout.Edge route(final int e, final ColumnRouter router)
+	{
+		final int a = edgeFrom[e];
+		final int b = edgeTo[e];
+		final double[] points = router.route(layers[graph.getSourceIndex(a)], rowY(a), layers[graph.getSourceIndex(b)],
+				rowY(b));
+
+		final RequirementImpl req = graph.getRequirement(a);
+		final RequirementImpl ref = graph.getRequirement(b);
+		final Link link = new Link("L" + e, req.getSource(), req, ref.getSource(), ref);
+		return new GraphLayout.Edge(link.getLine(), null, link, points);
+	}
+}
@@ -0,0 +1,228 @@
+// Package : com.ben12.reta.graph
+// File : SummaryLayout.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.ben12.reta.model.GraphData.SourceLink;
+import com.ben12.reta.model.InputRequirementSource;
+import com.ben12.reta.model.TraceGraph;
+
+/**
+ * Source level layout of the traceability graph: one box per requirement source and one edge per covering and
+ * covered source pair, aggregating the requirement links between them.<br>
+ * Columns are the same than the requirement level {@link LayeredLayout}.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public final class SummaryLayout
+{
+	/** Horizontal gap between columns, leaving room for edge labels. */
+	private static final double					LAYER_GAP	= 200;
+
+	/** Vertical gap between boxes. */
+	private static final double					BOX_GAP		= 40;
+
+	/** Graph margin. */
+	private static final double					MARGIN		= 24;
+
+	/** Horizontal extent of links between boxes of the same column. */
+	private static final double					LOOP		= 30;
+
+	/** Analysed traceability graph. */
+	private final TraceGraph					graph;
+
+	/** Layer of each source. */
+	private final int[]							layers;
+
+	/** Aggregated links by identifier. */
+	private final Map<String, SourceLink>		sourceLinks	= new LinkedHashMap<>();
+
+	/** Source index by source. */
+	private final Map<InputRequirementSource, Integer>	sourceIndexes	= new IdentityHashMap<>();
+
+	/**
+	 * @param theGraph
+	 *            analysed traceability graph
+	 */
+	public SummaryLayout(final TraceGraph theGraph)
+	{
+		graph = theGraph;
+		final List<InputRequirementSource> sources = graph.getSources();
+		final int count = sources.size();
+		layers = new int[count];
+		final boolean[] included = new boolean[count];
+		Arrays.fill(included, true);
+		LayeredLayout.assignLayers(sources, included, layers);
+		for (int s = 0; s < count; s++)
+		{
+			sourceIndexes.put(sources.get(s), s);
+		}
+
+		// requirement links count of each (covering source, covered source) pair
+		final int[] counts = new int[count * count];
+		for (int i = 0; i < graph.size(); i++)
+		{
+			final int covered = graph.getSourceIndex(i);
+			graph.forEachReferredBy(i, q -> counts[graph.getSourceIndex(q) * count + covered]++);
+		}
+		for (int s = 0; s < count; s++)
+		{
+			for (final InputRequirementSource cover : sources.get(s).getCovers())
+			{
+				final Integer c = sourceIndexes.get(cover);
+				if (c != null)
+				{
+					final String key = "P" + sourceLinks.size();
+					sourceLinks.put(key, new SourceLink(key, sources.get(s), cover, counts[s * count + c]));
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return aggregated links by identifier
+	 */
+	public Map<String, SourceLink> getSourceLinks()
+	{
+		return sourceLinks;
+	}
+
+	/**
+	 * @param rows
+	 *            summary lines of a source box
+	 * @param label
+	 *            label of an aggregated link
+	 * @return the laid out summary graph
+	 */
+	public GraphLayout layout(final Function<InputRequirementSource, List<String>> rows,
+			final Function<SourceLink, String> label)
+	{
+		final List<InputRequirementSource> sources = graph.getSources();
+		final int count = sources.size();
+		final List<List<String>> boxRows = new ArrayList<>(count);
+		final List<List<Integer>> columns = new ArrayList<>();
+		for (int s = 0; s < count; s++)
+		{
+			boxRows.add(rows.apply(sources.get(s)));
+			while (columns.size() <= layers[s])
+			{
+				columns.add(new ArrayList<>());
+			}
+			columns.get(layers[s]).add(s);
+		}
+
+		// order each column by the barycenter of the linked boxes of the previous columns
+		final double[] centers = new double[count];
+		for (final List<Integer> column : columns)
+		{
+			final double[] wanted = new double[count];
+			for (final int s : column)
+			{
+				double sum = 0;
+				int links = 0;
+				for (final SourceLink link : sourceLinks.values())
+				{
+					final int a = sourceIndexes.get(link.getSource());
+					final int b = sourceIndexes.get(link.getCover());
+					if (a == s && layers[b] < layers[s])
+					{
+						sum += centers[b];
+						links++;
+					}
+				}
+				wanted[s] = (links > 0 ? sum / links : Double.MAX_VALUE);
+			}
+			column.sort(Comparator.comparingDouble(s -> wanted[s]));
+			double y = MARGIN;
+			for (final int s : column)
+			{
+				final double height = GraphLayout.Box.height(boxRows.get(s).size());
+				centers[s] = y + height / 2;
+				y += height + BOX_GAP;
+			}
+		}
+
+		final double[] columnX = new double[columns.size()];
+		final double[] columnWidth = new double[columns.size()];
+		double x = MARGIN;
+		for (int l = 0; l < columns.size(); l++)
+		{
+			double width = 0;
+			for (final int s : columns.get(l))
+			{
+				width = Math.max(width, sources.get(s).getName().length() * GraphLayout.CHAR_WIDTH);
+				for (final String row : boxRows.get(s))
+				{
+					width = Math.max(width, row.length() * GraphLayout.CHAR_WIDTH);
+				}
+			}
+			columnX[l] = x;
+			columnWidth[l] = width + 2 * GraphLayout.PADDING;
+			x += columnWidth[l] + LAYER_GAP;
+		}
+
+		final List<GraphLayout.Box> boxes = new ArrayList<>(count);
+		double height = 0;
+		for (int s = 0; s < count; s++)
+		{
+			final int l = layers[s];
+			final double top = centers[s] - GraphLayout.Box.height(boxRows.get(s).size()) / 2;
+			final GraphLayout.Box box = new GraphLayout.Box("S" + s, sources.get(s), List.of(), boxRows.get(s), l,
+					columnX[l], top, columnWidth[l]);
+			boxes.add(box);
+			height = Math.max(height, top + box.getHeight());
+		}
+
+		final double[][] columnTops = new double[columns.size()][];
+		final double[][] columnBottoms = new double[columns.size()][];
+		for (int l = 0; l < columns.size(); l++)
+		{
+			final List<Integer> column = columns.get(l);
+			columnTops[l] = new double[column.size()];
+			columnBottoms[l] = new double[column.size()];
+			for (int k = 0; k < column.size(); k++)
+			{
+				final double half = GraphLayout.Box.height(boxRows.get(column.get(k)).size()) / 2;
+				columnTops[l][k] = centers[column.get(k)] - half;
+				columnBottoms[l][k] = centers[column.get(k)] + half;
+			}
+		}
+		final var router = new ColumnRouter(columnX, columnWidth, columnTops, columnBottoms, BOX_GAP, LOOP);
+
+		final List<GraphLayout.Edge> edges = new ArrayList<>(sourceLinks.size());
+		for (final SourceLink link : sourceLinks.values())
+		{
+			final int a = sourceIndexes.get(link.getSource());
+			final int b = sourceIndexes.get(link.getCover());
+			final double[] points = router.route(layers[a], centers[a], layers[b], centers[b]);
+			edges.add(new GraphLayout.Edge(link.getLine(), label.apply(link), null, points));
+		}
+
+		return new GraphLayout(boxes, edges, Math.max(MARGIN, x - LAYER_GAP + MARGIN), height + MARGIN);
+	}
+}
@@ -0,0 +1,252 @@
+// Package : com.ben12.reta.graph
+// File : SvgRenderer.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.graph;
+
+import java.util.List;
+
+import com.google.common.base.Strings;
+import com.google.common.escape.Escaper;
+import com.google.common.xml.XmlEscapers;
+
+import com.ben12.reta.model.CoverageState;
+import com.ben12.reta.model.RequirementImpl;
+
+/**
+ * Render a {@link GraphLayout} as SVG, with the same structure than the PlantUML object diagrams: one
+ * <code>&lt;g data-entity="alias"&gt;</code> per source whose first text is the source name, followed by one text per
+ * row (requirement identifier or summary line). Requirement rows hold their text as tool-tip and are coloured by
+ * coverage state, so the SVG needs no post-processing.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public final class SvgRenderer
+{
+	/** XML text escaper. */
+	private static final Escaper	TEXT_ESCAPER		= XmlEscapers.xmlContentEscaper();
+
+	/** XML attribute escaper. */
+	private static final Escaper	ATTRIBUTE_ESCAPER	= XmlEscapers.xmlAttributeEscaper();
+
+	/**
+	 * Utility class.
+	 */
+	private SvgRenderer()
+	{
+	}
+
+	/**
+	 * @param layout
+	 *            laid out graph
+	 * @return SVG document
+	 */
+	public static String render(final GraphLayout layout)
+	{
+		final StringBuilder svg = new StringBuilder(64 * (layout.getEdges().size() + layout.getBoxes().size() * 16));
+		svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"")
+				.append(format(layout.getWidth()))
+				.append("\" height=\"")
+				.append(format(layout.getHeight()))
+				.append("\" viewBox=\"0 0 ")
+				.append(format(layout.getWidth()))
+				.append(' ')
+				.append(format(layout.getHeight()))
+				.append("\" style=\"font-family: monospace; font-size: ")
+				.append(format(GraphLayout.FONT_SIZE))
+				.append("px;\">\n");
+		svg.append("<defs><marker id=\"arrow\" viewBox=\"0 0 10 10\" refX=\"10\" refY=\"5\" markerWidth=\"8\"")
+				.append(" markerHeight=\"8\" orient=\"auto\"><path d=\"M0,0 L10,5 L0,10 z\" fill=\"#181818\"/>")
+				.append("</marker></defs>\n");
+
+		for (final GraphLayout.Box box : layout.getBoxes())
+		{
+			renderBox(svg, box);
+		}
+
+		svg.append("<g fill=\"none\" stroke=\"#181818\" stroke-width=\"1\">\n");
+		for (final GraphLayout.Edge edge : layout.getEdges())
+		{
+			renderEdge(svg, edge);
+		}
+		svg.append("</g>\n");
+		svg.append("</svg>\n");
+		return svg.toString();
+	}
+
+	/**
+	 * @param svg
+	 *            SVG output
+	 * @param box
+	 *            requirement source box
+	 */
+	private static void renderBox(final StringBuilder svg, final GraphLayout.Box box)
+	{
+		final double x = box.getX();
+		final double y = box.getY();
+		svg.append("<g data-entity=\"").append(ATTRIBUTE_ESCAPER.escape(box.getAlias())).append("\">\n");
+		svg.append("<rect x=\"")
+				.append(format(x))
+				.append("\" y=\"")
+				.append(format(y))
+				.append("\" width=\"")
+				.append(format(box.getWidth()))
+				.append("\" height=\"")
+				.append(format(box.getHeight()))
+				.append("\" fill=\"#F1F1F1\" stroke=\"#181818\" stroke-width=\"0.5\"/>\n");
+		svg.append("<text x=\"")
+				.append(format(x + box.getWidth() / 2))
+				.append("\" y=\"")
+				.append(format(y + GraphLayout.HEADER_HEIGHT - 7))
+				.append("\" text-anchor=\"middle\" font-weight=\"bold\">")
+				.append(TEXT_ESCAPER.escape(box.getSource().getName()));
+		appendTitle(svg, box.getSource().getConfiguration().getDescription());
+		svg.append("</text>\n");
+		svg.append("<line x1=\"")
+				.append(format(x))
+				.append("\" y1=\"")
+				.append(format(y + GraphLayout.HEADER_HEIGHT))
+				.append("\" x2=\"")
+				.append(format(x + box.getWidth()))
+				.append("\" y2=\"")
+				.append(format(y + GraphLayout.HEADER_HEIGHT))
+				.append("\" stroke=\"#181818\" stroke-width=\"0.5\"/>\n");
+
+		final List<String> rows = box.getRows();
+		final List<RequirementImpl> requirements = box.getRequirements();
+		for (int row = 0; row < rows.size(); row++)
+		{
+			final RequirementImpl req = (row < requirements.size() ? requirements.get(row) : null);
+			svg.append("<text x=\"")
+					.append(format(x + GraphLayout.PADDING))
+					.append("\" y=\"")
+					.append(format(box.getRowY(row) + GraphLayout.ROW_HEIGHT - 5))
+					.append('"');
+			if (req != null)
+			{
+				svg.append(coverageStyle(CoverageState.of(req)));
+			}
+			svg.append('>').append(TEXT_ESCAPER.escape(rows.get(row)));
+			if (req != null)
+			{
+				appendTitle(svg, req.getText());
+			}
+			svg.append("</text>\n");
+		}
+		svg.append("</g>\n");
+	}
+
+	/**
+	 * Render an edge as a poly-curve with horizontal tangents at each way point, labelled at its middle.
+	 * 
+	 * @param svg
+	 *            SVG output
+	 * @param edge
+	 *            link edge
+	 */
+	private static void renderEdge(final StringBuilder svg, final GraphLayout.Edge edge)
+	{
+		svg.append("<g data-link=\"")
+				.append(ATTRIBUTE_ESCAPER.escape(edge.getKey()))
+				.append("\"><path marker-end=\"url(#arrow)\" d=\"M")
+				.append(format(edge.getX(0)))
+				.append(',')
+				.append(format(edge.getY(0)));
+		for (int p = 1; p < edge.getPointCount(); p++)
+		{
+			final double middle = (edge.getX(p - 1) + edge.getX(p)) / 2;
+			svg.append(" C")
+					.append(format(middle))
+					.append(',')
+					.append(format(edge.getY(p - 1)))
+					.append(' ')
+					.append(format(middle))
+					.append(',')
+					.append(format(edge.getY(p)))
+					.append(' ')
+					.append(format(edge.getX(p)))
+					.append(',')
+					.append(format(edge.getY(p)));
+		}
+		svg.append("\"/>");
+		if (edge.getLabel() != null)
+		{
+			final int middle = edge.getPointCount() / 2;
+			svg.append("<text x=\"")
+					.append(format((edge.getX(middle - 1) + edge.getX(middle)) / 2))
+					.append("\" y=\"")
+					.append(format((edge.getY(middle - 1) + edge.getY(middle)) / 2 - 3))
+					.append("\" text-anchor=\"middle\" fill=\"#181818\" stroke=\"none\">")
+					.append(TEXT_ESCAPER.escape(edge.getLabel()))
+					.append("</text>");
+		}
+		svg.append("</g>\n");
+	}
+
+	/**
+	 * @param state
+	 *            requirement coverage state
+	 * @return SVG text style attribute (with a leading space) colouring uncovered and partially covered
+	 *         requirements, empty for covered ones
+	 */
+	static String coverageStyle(final CoverageState state)
+	{
+		final String style;
+		if (state == CoverageState.UNCOVERED)
+		{
+			style = " style=\"fill: red;\"";
+		}
+		else if (state == CoverageState.PARTIAL)
+		{
+			style = " style=\"fill: coral;\"";
+		}
+		else
+		{
+			style = "";
+		}
+		return style;
+	}
+
+	/**
+	 * Append a tool-tip to the current SVG element.
+	 * 
+	 * @param svg
+	 *            SVG output
+	 * @param title
+	 *            tool-tip text, nothing is appended if null or empty
+	 */
+	static void appendTitle(final StringBuilder svg, final String title)
+	{
+		if (!Strings.isNullOrEmpty(title))
+		{
+			svg.append("<title>").append(TEXT_ESCAPER.escape(title)).append("</title>");
+		}
+	}
+
+	/**
+	 * @param value
+	 *            coordinate
+	 * @return coordinate rounded to one decimal
+	 */
+	private static String format(final double value)
+	{
+		final long tenths = Math.round(value * 10);
+		final long abs = Math.abs(tenths);
+		return (tenths < 0 ? "-" : "") + (abs / 10) + '.' + (abs % 10);
+	}
+}
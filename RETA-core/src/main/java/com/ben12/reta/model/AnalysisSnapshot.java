@@ -0,0 +1,1017 @@
+// Package : com.ben12.reta.model
+// File : AnalysisSnapshot.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * Binary snapshot of an analysis result, written next to the analysis configuration file, so that the configuration
+ * can be reopened with its last analysis result without parsing the sources again.<br>
+ * The snapshot is read in place through a memory mapping: fixed size records, integer lists and a string table. The
+ * requirement contents are not read when the snapshot is restored: the restored requirements read them back from the
+ * mapping on access, so only the accessed pages are loaded.
+ * <p>
+ * File layout (big endian):
+ * <ul>
+ * <li>header ({@link #HEADER_SIZE} bytes): magic <code>RETASNAP</code>, format {@link #VERSION}, configuration file
+ * hash, creation time, counts and section positions,</li>
+ * <li>contents: UTF-8 requirement contents, none of them crossing a {@link #CONTENT_CHUNK} boundary, so that they are
+ * mapped by chunks,</li>
+ * <li>requirements: {@link #REQUIREMENT_SIZE} bytes per requirement, by source in analysis order,</li>
+ * <li>references: {@link #REFERENCE_SIZE} bytes per unresolved reference,</li>
+ * <li>sources: {@link #SOURCE_SIZE} bytes per source,</li>
+ * <li>pool: integer lists (attributes, links, coverage counts) referred by the records with their start and size,</li>
+ * <li>strings: string offsets, then UTF-8 strings; records refer to strings by index, each string is stored once.</li>
+ * </ul>
+ * In the links, a requirement is referred by its index, and an unresolved reference by the complement of its index.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public final class AnalysisSnapshot implements ContentStore
+{
+	/** Snapshot file extension, appended to the configuration file name. */
+	public static final String		EXTENSION				= ".snapshot";
+
+	/** Snapshot format version, to change with any layout change. */
+	public static final int			VERSION					= 1;
+
+	/** Snapshot file magic number. */
+	private static final byte[]		MAGIC					= "RETASNAP".getBytes(StandardCharsets.US_ASCII);
+
+	/** Header size. */
+	private static final int		HEADER_SIZE				= 128;
+
+	/** Contents mapping chunk size. */
+	private static final long		CONTENT_CHUNK			= 1L << 30;
+
+	/** Requirement record: source index, id, version and text string indexes. */
+	private static final int		REQUIREMENT_SOURCE		= 0;
+
+	/** Requirement record: content hash. */
+	private static final int		REQUIREMENT_HASH		= 16;
+
+	/** Requirement record: content offset and length. */
+	private static final int		REQUIREMENT_CONTENT		= 24;
+
+	/** Requirement record: attributes (name and value string index pairs) start and size in pool. */
+	private static final int		REQUIREMENT_ATTRIBUTES	= 36;
+
+	/** Requirement record: references start and size in pool. */
+	private static final int		REQUIREMENT_REFERENCES	= 44;
+
+	/** Requirement record: referring requirements start and size in pool. */
+	private static final int		REQUIREMENT_REFERRED_BY	= 52;
+
+	/** Requirement record: {@link CoverageState} ordinal. */
+	private static final int		REQUIREMENT_COVERAGE	= 60;
+
+	/** Requirement record size. */
+	private static final int		REQUIREMENT_SIZE		= 64;
+
+	/** Reference record: normalisation source index (-1 for none), id, version and text string indexes. */
+	private static final int		REFERENCE_NORMALIZATION	= 0;
+
+	/** Reference record: attributes start and size in pool. */
+	private static final int		REFERENCE_ATTRIBUTES	= 16;
+
+	/** Reference record: {@link UnknownReferenceKind} ordinal (-1 for none). */
+	private static final int		REFERENCE_KIND			= 24;
+
+	/** Reference record: candidate requirements start and size in pool. */
+	private static final int		REFERENCE_CANDIDATES	= 28;
+
+	/** Reference record size. */
+	private static final int		REFERENCE_SIZE			= 36;
+
+	/** Source record: name string index, first requirement index and requirement count. */
+	private static final int		SOURCE_NAME				= 0;
+
+	/** Source record: requirement attribute names start and size in pool. */
+	private static final int		SOURCE_ATTRIBUTES		= 12;
+
+	/** Source record: reference attribute names start and size in pool. */
+	private static final int		SOURCE_REFERENCE_ATTRIBUTES	= 20;
+
+	/** Source record: covering sources (source index and covered requirement count pairs) start and size in pool. */
+	private static final int		SOURCE_COVERS_BY		= 28;
+
+	/** Source record: transitively covering sources start and size in pool. */
+	private static final int		SOURCE_TRANSITIVE		= 36;
+
+	/** Source record size. */
+	private static final int		SOURCE_SIZE				= 44;
+
+	/** Hash of the configuration file analysed. */
+	private final long				configurationHash;
+
+	/** Snapshot creation time in milliseconds. */
+	private final long				creationTime;
+
+	/** Source count. */
+	private final int				sourceCount;
+
+	/** Requirement count. */
+	private final int				requirementCount;
+
+	/** Unresolved reference count. */
+	private final int				referenceCount;
+
+	/** Mapped records, pool and strings. */
+	private final ByteBuffer		structure;
+
+	/** References section position in {@link #structure}. */
+	private final int				referencesPosition;
+
+	/** Sources section position in {@link #structure}. */
+	private final int				sourcesPosition;
+
+	/** Pool section position in {@link #structure}. */
+	private final int				poolPosition;
+
+	/** String offsets position in {@link #structure}, followed by the strings. */
+	private final int				stringsPosition;
+
+	/** Decoded strings, by string index. */
+	private final String[]			strings;
+
+	/** Mapped content chunks. */
+	private final MappedByteBuffer[]	contents;
+
+	/**
+	 * @param header
+	 *            snapshot header
+	 * @param theStructure
+	 *            mapped records, pool and strings
+	 * @param theContents
+	 *            mapped content chunks
+	 */
+	private AnalysisSnapshot(final ByteBuffer header, final ByteBuffer theStructure,
+			final MappedByteBuffer[] theContents)
+	{
+		configurationHash = header.getLong(16);
+		creationTime = header.getLong(24);
+		sourceCount = header.getInt(32);
+		requirementCount = header.getInt(36);
+		referenceCount = header.getInt(40);
+		strings = new String[header.getInt(48)];
+		referencesPosition = header.getInt(72);
+		sourcesPosition = header.getInt(76);
+		poolPosition = header.getInt(80);
+		stringsPosition = header.getInt(84);
+		structure = theStructure;
+		contents = theContents;
+	}
+
+	/**
+	 * @param config
+	 *            analysis configuration file, may be null
+	 * @return the snapshot file of the analysis, null if the analysis is not saved
+	 */
+	public static File forConfiguration(final File config)
+	{
+		File file = null;
+		if (config != null)
+		{
+			file = new File(config.getAbsoluteFile().getParentFile(), config.getName() + EXTENSION);
+		}
+		return file;
+	}
+
+	/**
+	 * @param config
+	 *            analysis configuration file
+	 * @return hash of the configuration file content
+	 * @throws IOException
+	 *             I/O exception
+	 */
+	public static long configurationHash(final File config) throws IOException
+	{
+		return Hashing.murmur3_128().hashBytes(Files.readAllBytes(config.toPath())).asLong();
+	}
+
+	/**
+	 * Map a snapshot file.
+	 * 
+	 * @param file
+	 *            snapshot file
+	 * @return the mapped snapshot
+	 * @throws IOException
+	 *             I/O exception, or not a snapshot file of the current format version
+	 */
+	public static AnalysisSnapshot open(final Path file) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining() && channel.read(header, header.position()) >= 0)
+			{
+				// read the whole header
+			}
+			final byte[] magic = new byte[MAGIC.length];
+			header.get(0, magic);
+			if (header.hasRemaining() || !Arrays.equals(magic, MAGIC))
+			{
+				throw new IOException("Not an analysis snapshot: " + file);
+			}
+			if (header.getInt(8) != VERSION)
+			{
+				throw new IOException("Unsupported analysis snapshot version " + header.getInt(8) + ": " + file);
+			}
+
+			final long contentSize = header.getLong(56);
+			final long structureSize = header.getLong(64);
+			if (structureSize > Integer.MAX_VALUE || channel.size() != HEADER_SIZE + contentSize + structureSize)
+			{
+				throw new IOException("Corrupted analysis snapshot: " + file);
+			}
+
+			// Mapping loads nothing: pages are read by the system when accessed, and remain valid once closed
+			final ByteBuffer structure = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + contentSize,
+					structureSize);
+			final MappedByteBuffer[] contents = new MappedByteBuffer[(int) ((contentSize + CONTENT_CHUNK - 1)
+					/ CONTENT_CHUNK)];
+			for (int i = 0; i < contents.length; i++)
+			{
+				final long start = i * CONTENT_CHUNK;
+				contents[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + start,
+						Math.min(CONTENT_CHUNK, contentSize - start));
+			}
+			return new AnalysisSnapshot(header, structure, contents);
+		}
+	}
+
+	/**
+	 * Write the snapshot of analysed sources. The file is written in place: it must not be a mapped snapshot file,
+	 * which is replaced by a written temporary file instead (see
+	 * {@link com.ben12.reta.util.RETAAnalysis#saveSnapshot()}).
+	 * 
+	 * @param sources
+	 *            analysed requirement sources
+	 * @param configurationHash
+	 *            hash of the configuration file analysed (see {@link #configurationHash(File)})
+	 * @param file
+	 *            snapshot file
+	 * @throws IOException
+	 *             I/O exception
+	 */
+	public static void write(final List<InputRequirementSource> sources, final long configurationHash,
+			final Path file) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+		{
+			new SnapshotWriter(sources).write(channel, configurationHash);
+		}
+	}
+
+	/**
+	 * Invalidate a snapshot file so that it is never opened again. Only its header is overwritten, which is not mapped:
+	 * the file may still be mapped by restored requirements, and it cannot be replaced then on some systems.
+	 * 
+	 * @param file
+	 *            snapshot file
+	 * @throws IOException
+	 *             I/O exception
+	 */
+	public static void invalidate(final Path file) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE))
+		{
+			channel.write(ByteBuffer.allocate(MAGIC.length), 0);
+		}
+	}
+
+	/**
+	 * @return hash of the configuration file analysed (see {@link #configurationHash(File)})
+	 */
+	public long getConfigurationHash()
+	{
+		return configurationHash;
+	}
+
+	/**
+	 * @return snapshot creation time in milliseconds
+	 */
+	public long getCreationTime()
+	{
+		return creationTime;
+	}
+
+	/**
+	 * @return source count
+	 */
+	public int getSourceCount()
+	{
+		return sourceCount;
+	}
+
+	/**
+	 * @param source
+	 *            source index
+	 * @return source name
+	 */
+	public String getSourceName(final int source)
+	{
+		return string(structure.getInt(sourcesPosition + (source * SOURCE_SIZE) + SOURCE_NAME));
+	}
+
+	/**
+	 * @return requirement count
+	 */
+	public int getRequirementCount()
+	{
+		return requirementCount;
+	}
+
+	/**
+	 * @param requirement
+	 *            requirement index
+	 * @return source index of the requirement
+	 */
+	public int getRequirementSource(final int requirement)
+	{
+		return requirementInt(requirement, REQUIREMENT_SOURCE);
+	}
+
+	/**
+	 * @param requirement
+	 *            requirement index
+	 * @return requirement identifier
+	 */
+	public String getRequirementId(final int requirement)
+	{
+		return string(requirementInt(requirement, REQUIREMENT_SOURCE + 4));
+	}
+
+	/**
+	 * @param requirement
+	 *            requirement index
+	 * @return requirement version
+	 */
+	public String getRequirementVersion(final int requirement)
+	{
+		return string(requirementInt(requirement, REQUIREMENT_SOURCE + 8));
+	}
+
+	/**
+	 * @param requirement
+	 *            requirement index
+	 * @return requirement text
+	 */
+	public String getRequirementText(final int requirement)
+	{
+		return string(requirementInt(requirement, REQUIREMENT_SOURCE + 12));
+	}
+
+	/**
+	 * @param requirement
+	 *            requirement index
+	 * @return requirement content hash (see {@link RequirementImpl#getContentHash()})
+	 */
+	public long getRequirementContentHash(final int requirement)
+	{
+		return structure.getLong((requirement * REQUIREMENT_SIZE) + REQUIREMENT_HASH);
+	}
+
+	/**
+	 * @param requirement
+	 *            requirement index
+	 * @return requirement coverage state
+	 */
+	public CoverageState getRequirementCoverage(final int requirement)
+	{
+		return CoverageState.values()[requirementInt(requirement, REQUIREMENT_COVERAGE)];
+	}
+
+	/**
+	 * @param requirement
+	 *            requirement index
+	 * @param action
+	 *            called with the index of each unresolved reference of the requirement
+	 */
+	public void forEachUnknownReference(final int requirement, final IntConsumer action)
+	{
+		forEachPooled((requirement * REQUIREMENT_SIZE) + REQUIREMENT_REFERENCES, 1, i -> {
+			final int link = pool(i);
+			if (link < 0)
+			{
+				action.accept(~link);
+			}
+		});
+	}
+
+	/**
+	 * @param reference
+	 *            unresolved reference index
+	 * @return reference identifier
+	 */
+	public String getReferenceId(final int reference)
+	{
+		return string(structure.getInt(referencesPosition + (reference * REFERENCE_SIZE) + REFERENCE_NORMALIZATION + 4));
+	}
+
+	/**
+	 * @param reference
+	 *            unresolved reference index
+	 * @return reference version
+	 */
+	public String getReferenceVersion(final int reference)
+	{
+		return string(structure.getInt(referencesPosition + (reference * REFERENCE_SIZE) + REFERENCE_NORMALIZATION + 8));
+	}
+
+	/**
+	 * @param source
+	 *            source index
+	 * @return coverage rate of the source by the names of the sources covering it
+	 */
+	public Map<String, Double> getSourceCoversBy(final int source)
+	{
+		final int base = sourcesPosition + (source * SOURCE_SIZE);
+		final int size = structure.getInt(base + SOURCE_NAME + 8);
+		final Map<String, Double> coversBy = new LinkedHashMap<>();
+		forEachPooled(base + SOURCE_COVERS_BY, 2,
+				i -> coversBy.put(getSourceName(pool(i)), (double) pool(i + 1) / size));
+		return coversBy;
+	}
+
+	@Override
+	public String read(final long offset, final int length)
+	{
+		final byte[] bytes = new byte[length];
+		contents[(int) (offset / CONTENT_CHUNK)].get((int) (offset % CONTENT_CHUNK), bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Restore the analysis result in the configured requirement sources; requirement contents are read from this
+	 * snapshot when accessed.
+	 * 
+	 * @param sources
+	 *            configured requirement sources, in analysis order
+	 * @return true if restored, false if the sources are not the ones of the snapshot
+	 */
+	public boolean restore(final List<InputRequirementSource> sources)
+	{
+		boolean restorable = (sources.size() == sourceCount);
+		for (int s = 0; restorable && s < sourceCount; s++)
+		{
+			restorable = Objects.equals(sources.get(s).getName(), getSourceName(s));
+		}
+
+		if (restorable)
+		{
+			for (int s = 0; s < sourceCount; s++)
+			{
+				final InputRequirementSource source = sources.get(s);
+				final int base = sourcesPosition + (s * SOURCE_SIZE);
+				source.clear();
+				forEachPooled(base + SOURCE_ATTRIBUTES, 1, i -> source.addRequirementAttribute(string(pool(i))));
+				forEachPooled(base + SOURCE_REFERENCE_ATTRIBUTES, 1,
+						i -> source.addReferenceAttribute(string(pool(i))));
+			}
+
+			final RequirementImpl[] requirements = new RequirementImpl[requirementCount];
+			for (int r = 0; r < requirementCount; r++)
+			{
+				final int base = r * REQUIREMENT_SIZE;
+				final InputRequirementSource source = sources.get(structure.getInt(base + REQUIREMENT_SOURCE));
+				final RequirementImpl req = new RequirementImpl(source);
+				restoreFields(req, base + REQUIREMENT_SOURCE + 4, base + REQUIREMENT_ATTRIBUTES);
+				req.setContentHash(structure.getLong(base + REQUIREMENT_HASH));
+				final int length = structure.getInt(base + REQUIREMENT_CONTENT + 8);
+				if (length > 0)
+				{
+					req.setContent(this, structure.getLong(base + REQUIREMENT_CONTENT), length);
+				}
+				source.restoreRequirement(req);
+				requirements[r] = req;
+			}
+
+			final RequirementImpl[] references = new RequirementImpl[referenceCount];
+			for (int u = 0; u < referenceCount; u++)
+			{
+				final int base = referencesPosition + (u * REFERENCE_SIZE);
+				final int normalizationSource = structure.getInt(base + REFERENCE_NORMALIZATION);
+				final RequirementImpl ref = new RequirementImpl(normalizationSource < 0 ? IdNormalization.NONE
+						: sources.get(normalizationSource).getIdNormalization());
+				restoreFields(ref, base + REFERENCE_NORMALIZATION + 4, base + REFERENCE_ATTRIBUTES);
+				final int kind = structure.getInt(base + REFERENCE_KIND);
+				if (kind >= 0)
+				{
+					final List<RequirementImpl> candidates = new ArrayList<>();
+					forEachPooled(base + REFERENCE_CANDIDATES, 1, i -> candidates.add(requirements[pool(i)]));
+					ref.setUnknownReference(UnknownReferenceKind.values()[kind], candidates);
+				}
+				references[u] = ref;
+			}
+
+			for (int r = 0; r < requirementCount; r++)
+			{
+				final int base = r * REQUIREMENT_SIZE;
+				final RequirementImpl req = requirements[r];
+				forEachPooled(base + REQUIREMENT_REFERENCES, 1, i -> {
+					final int link = pool(i);
+					req.addReference(link >= 0 ? requirements[link] : references[~link]);
+				});
+				forEachPooled(base + REQUIREMENT_REFERRED_BY, 1, i -> req.addReferredBy(requirements[pool(i)]));
+			}
+
+			for (int s = 0; s < sourceCount; s++)
+			{
+				final InputRequirementSource source = sources.get(s);
+				final int size = source.getRequirements().size();
+				forEachPooled(sourcesPosition + (s * SOURCE_SIZE) + SOURCE_COVERS_BY, 2, i -> source.getCoversBy()
+						.put(sources.get(pool(i)), (double) pool(i + 1) / size));
+			}
+		}
+		return restorable;
+	}
+
+	/**
+	 * @param req
+	 *            restored requirement or reference
+	 * @param fields
+	 *            position of the id, version and text string indexes
+	 * @param attributes
+	 *            position of the attributes start and size
+	 */
+	private void restoreFields(final RequirementImpl req, final int fields, final int attributes)
+	{
+		req.setId(string(structure.getInt(fields)));
+		req.setVersion(string(structure.getInt(fields + 4)));
+		req.setText(string(structure.getInt(fields + 8)));
+		forEachPooled(attributes, 2, i -> req.putAttribute(string(pool(i)), string(pool(i + 1))));
+	}
+
+	/**
+	 * @param requirement
+	 *            requirement index
+	 * @param field
+	 *            field position in the requirement record
+	 * @return the field value
+	 */
+	private int requirementInt(final int requirement, final int field)
+	{
+		return structure.getInt((requirement * REQUIREMENT_SIZE) + field);
+	}
+
+	/**
+	 * @param index
+	 *            pool index
+	 * @return pooled integer
+	 */
+	private int pool(final int index)
+	{
+		return structure.getInt(poolPosition + (index * Integer.BYTES));
+	}
+
+	/**
+	 * @param list
+	 *            position of a pooled list start and size
+	 * @param step
+	 *            integers per list element
+	 * @param action
+	 *            called with the pool index of each list element
+	 */
+	private void forEachPooled(final int list, final int step, final IntConsumer action)
+	{
+		final int start = structure.getInt(list);
+		final int end = start + structure.getInt(list + 4);
+		for (int i = start; i < end; i += step)
+		{
+			action.accept(i);
+		}
+	}
+
+	/**
+	 * @param index
+	 *            string index
+	 * @return the string, decoded once
+	 */
+	private String string(final int index)
+	{
+		String value = strings[index];
+		if (value == null)
+		{
+			final int offsets = stringsPosition + (index * Integer.BYTES);
+			final int start = structure.getInt(offsets);
+			final byte[] bytes = new byte[structure.getInt(offsets + Integer.BYTES) - start];
+			structure.get(stringsPosition + ((strings.length + 1) * Integer.BYTES) + start, bytes);
+			value = new String(bytes, StandardCharsets.UTF_8);
+			strings[index] = value;
+		}
+		return value;
+	}
+
+	/**
+	 * Snapshot file writer.
+	 * 
+	 * @author Benot Moreau (ben.12)
+	 */
+	private static final class SnapshotWriter
+	{
+		/** Analysed requirement sources. */
+		private final List<InputRequirementSource>			sources;
+
+		/** Requirements, by source. */
+		private final List<RequirementImpl>					requirements		= new ArrayList<>();
+
+		/** Requirement indexes. */
+		private final Map<RequirementImpl, Integer>			requirementIndexes	= new IdentityHashMap<>();
+
+		/** Source index of each requirement. */
+		private final int[]									requirementSources;
+
+		/** Unresolved references, with the index of the source of their first referring requirement. */
+		private final Map<RequirementImpl, int[]>			references			= new IdentityHashMap<>();
+
+		/** Unresolved references, by index. */
+		private final List<RequirementImpl>					referenceList		= new ArrayList<>();
+
+		/** String indexes. */
+		private final Map<String, Integer>					strings				= new LinkedHashMap<>();
+
+		/** Pooled integers. */
+		private int[]										pool				= new int[1024];
+
+		/** Pooled integer count. */
+		private int											poolSize			= 0;
+
+		/**
+		 * @param theSources
+		 *            analysed requirement sources
+		 */
+		SnapshotWriter(final List<InputRequirementSource> theSources)
+		{
+			sources = theSources;
+			requirementSources = new int[sources.stream().mapToInt(s -> s.getRequirements().size()).sum()];
+			for (int s = 0; s < sources.size(); s++)
+			{
+				for (final RequirementImpl req : sources.get(s).getRequirements())
+				{
+					requirementSources[requirements.size()] = s;
+					requirementIndexes.put(req, requirements.size());
+					requirements.add(req);
+				}
+			}
+		}
+
+		/**
+		 * @param channel
+		 *            snapshot file channel
+		 * @param configurationHash
+		 *            hash of the configuration file analysed
+		 * @throws IOException
+		 *             I/O exception
+		 */
+		void write(final FileChannel channel, final long configurationHash) throws IOException
+		{
+			channel.position(HEADER_SIZE);
+			final DataOutputStream output = new DataOutputStream(
+					new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+
+			// Contents
+			final long[] contentOffsets = new long[requirements.size()];
+			final int[] contentLengths = new int[requirements.size()];
+			long contentSize = 0;
+			for (int r = 0; r < requirements.size(); r++)
+			{
+				final byte[] content = requirements.get(r).getContent().getBytes(StandardCharsets.UTF_8);
+				if (content.length > CONTENT_CHUNK)
+				{
+					throw new IOException("Requirement content too large: " + requirements.get(r).getId());
+				}
+				if ((contentSize % CONTENT_CHUNK) + content.length > CONTENT_CHUNK)
+				{
+					// Pad to the next chunk
+					final byte[] padding = new byte[1 << 16];
+					final long end = contentSize + CONTENT_CHUNK - (contentSize % CONTENT_CHUNK);
+					while (contentSize < end)
+					{
+						final int length = (int) Math.min(padding.length, end - contentSize);
+						output.write(padding, 0, length);
+						contentSize += length;
+					}
+				}
+				output.write(content);
+				contentOffsets[r] = contentSize;
+				contentLengths[r] = content.length;
+				contentSize += content.length;
+			}
+
+			// Requirements
+			final ByteBuffer requirementRecord = ByteBuffer.allocate(REQUIREMENT_SIZE);
+			for (int r = 0; r < requirements.size(); r++)
+			{
+				final RequirementImpl req = requirements.get(r);
+				final int source = requirementSources[r];
+				requirementRecord.clear();
+				requirementRecord.putInt(source);
+				putFields(requirementRecord, req);
+				requirementRecord.putLong(req.getContentHash());
+				requirementRecord.putLong(contentOffsets[r]);
+				requirementRecord.putInt(contentLengths[r]);
+				putAttributes(requirementRecord, req);
+				final int referencesStart = poolSize;
+				for (final RequirementImpl ref : req.getReferences())
+				{
+					add(link(ref, source));
+				}
+				putList(requirementRecord, referencesStart);
+				final int referredByStart = poolSize;
+				for (final RequirementImpl ref : req.getReferredByRequirement())
+				{
+					final Integer index = requirementIndexes.get(ref);
+					if (index != null)
+					{
+						add(index);
+					}
+				}
+				putList(requirementRecord, referredByStart);
+				requirementRecord.putInt(CoverageState.of(req).ordinal());
+				output.write(requirementRecord.array());
+			}
+			long position = (long) requirements.size() * REQUIREMENT_SIZE;
+
+			// Unresolved references
+			final long referencesPosition = position;
+			final ByteBuffer referenceRecord = ByteBuffer.allocate(REFERENCE_SIZE);
+			for (final RequirementImpl ref : referenceList)
+			{
+				referenceRecord.clear();
+				referenceRecord.putInt(references.get(ref)[0]);
+				putFields(referenceRecord, ref);
+				putAttributes(referenceRecord, ref);
+				referenceRecord.putInt(ref.getUnknownKind() == null ? -1 : ref.getUnknownKind().ordinal());
+				final int candidatesStart = poolSize;
+				for (final RequirementImpl candidate : ref.getCandidates())
+				{
+					final Integer index = requirementIndexes.get(candidate);
+					if (index != null)
+					{
+						add(index);
+					}
+				}
+				putList(referenceRecord, candidatesStart);
+				output.write(referenceRecord.array());
+			}
+			position += (long) referenceList.size() * REFERENCE_SIZE;
+
+			// Sources
+			final long sourcesPosition = position;
+			final ByteBuffer sourceRecord = ByteBuffer.allocate(SOURCE_SIZE);
+			int firstRequirement = 0;
+			for (final InputRequirementSource source : sources)
+			{
+				final int size = source.getRequirements().size();
+				sourceRecord.clear();
+				sourceRecord.putInt(string(source.getName()));
+				sourceRecord.putInt(firstRequirement);
+				sourceRecord.putInt(size);
+				putStrings(sourceRecord, source.getRequirementAttributes());
+				putStrings(sourceRecord, source.getReferenceAttributes());
+				putCounts(sourceRecord, source.getCoversBy(), size);
+				putCounts(sourceRecord, source.getTransitiveCoversBy(), size);
+				output.write(sourceRecord.array());
+				firstRequirement += size;
+			}
+			position += (long) sources.size() * SOURCE_SIZE;
+
+			// Pool
+			final long poolPosition = position;
+			for (int i = 0; i < poolSize; i++)
+			{
+				output.writeInt(pool[i]);
+			}
+			position += (long) poolSize * Integer.BYTES;
+
+			// Strings
+			final long stringsPosition = position;
+			final List<byte[]> encoded = new ArrayList<>(strings.size());
+			long offset = 0;
+			output.writeInt(0);
+			for (final String value : strings.keySet())
+			{
+				final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+				encoded.add(bytes);
+				offset += bytes.length;
+				if (offset > Integer.MAX_VALUE)
+				{
+					throw new IOException("Too many strings for an analysis snapshot");
+				}
+				output.writeInt((int) offset);
+			}
+			for (final byte[] bytes : encoded)
+			{
+				output.write(bytes);
+			}
+			position += ((strings.size() + 1L) * Integer.BYTES) + offset;
+			output.flush();
+
+			if (position > Integer.MAX_VALUE)
+			{
+				throw new IOException("Too many requirements for an analysis snapshot");
+			}
+
+			final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.put(MAGIC);
+			header.putInt(VERSION);
+			header.putInt(0);
+			header.putLong(configurationHash);
+			header.putLong(System.currentTimeMillis());
+			header.putInt(sources.size());
+			header.putInt(requirements.size());
+			header.putInt(referenceList.size());
+			header.putInt(poolSize);
+			header.putInt(strings.size());
+			header.putInt(0);
+			header.putLong(contentSize);
+			header.putLong(position);
+			header.putInt((int) referencesPosition);
+			header.putInt((int) sourcesPosition);
+			header.putInt((int) poolPosition);
+			header.putInt((int) stringsPosition);
+			header.clear();
+			while (header.hasRemaining())
+			{
+				channel.write(header, header.position());
+			}
+		}
+
+		/**
+		 * @param ref
+		 *            a requirement reference
+		 * @param source
+		 *            source index of the referring requirement
+		 * @return the requirement index, or the complement of the unresolved reference index
+		 */
+		private int link(final RequirementImpl ref, final int source)
+		{
+			final Integer index = requirementIndexes.get(ref);
+			final int link;
+			if (index != null)
+			{
+				link = index;
+			}
+			else
+			{
+				final int[] reference = references.computeIfAbsent(ref, r -> {
+					referenceList.add(r);
+					return new int[] { source, referenceList.size() - 1 };
+				});
+				link = ~reference[1];
+			}
+			return link;
+		}
+
+		/**
+		 * Put the id, version and text string indexes of a requirement or reference.
+		 * 
+		 * @param record
+		 *            record buffer
+		 * @param req
+		 *            requirement or reference
+		 */
+		private void putFields(final ByteBuffer record, final RequirementImpl req)
+		{
+			record.putInt(string(req.getId()));
+			record.putInt(string(req.getVersion()));
+			record.putInt(string(req.getText()));
+		}
+
+		/**
+		 * Put the pooled attributes of a requirement or reference.
+		 * 
+		 * @param record
+		 *            record buffer
+		 * @param req
+		 *            requirement or reference
+		 */
+		private void putAttributes(final ByteBuffer record, final RequirementImpl req)
+		{
+			final int start = poolSize;
+			for (final Map.Entry<String, String> attribute : req.getAttributes().entrySet())
+			{
+				add(string(attribute.getKey()));
+				add(string(attribute.getValue()));
+			}
+			putList(record, start);
+		}
+
+		/**
+		 * Put the pooled string indexes of names.
+		 * 
+		 * @param record
+		 *            record buffer
+		 * @param names
+		 *            names
+		 */
+		private void putStrings(final ByteBuffer record, final Iterable<String> names)
+		{
+			final int start = poolSize;
+			for (final String name : names)
+			{
+				add(string(name));
+			}
+			putList(record, start);
+		}
+
+		/**
+		 * Put the pooled source indexes and covered requirement counts of coverage rates.
+		 * 
+		 * @param record
+		 *            record buffer
+		 * @param rates
+		 *            coverage rates by source
+		 * @param size
+		 *            requirement count of the covered source
+		 */
+		private void putCounts(final ByteBuffer record, final Map<InputRequirementSource, Double> rates,
+				final int size)
+		{
+			final int start = poolSize;
+			for (final Map.Entry<InputRequirementSource, Double> rate : rates.entrySet())
+			{
+				add(sources.indexOf(rate.getKey()));
+				add((int) Math.round(rate.getValue() * size));
+			}
+			putList(record, start);
+		}
+
+		/**
+		 * Put a pooled list start and size, the list ending with the pool.
+		 * 
+		 * @param record
+		 *            record buffer
+		 * @param start
+		 *            list start in pool
+		 */
+		private void putList(final ByteBuffer record, final int start)
+		{
+			record.putInt(start);
+			record.putInt(poolSize - start);
+		}
+
+		/**
+		 * @param value
+		 *            integer to pool
+		 */
+		private void add(final int value)
+		{
+			if (poolSize == pool.length)
+			{
+				pool = Arrays.copyOf(pool, pool.length * 2);
+			}
+			pool[poolSize++] = value;
+		}
+
+		/**
+		 * @param value
+		 *            a string
+		 * @return the string index
+		 */
+		private int string(final String value)
+		{
+			return strings.computeIfAbsent(value, v -> strings.size());
+		}
+	}
+}
@@ -0,0 +1,38 @@
+// Package : com.ben12.reta.model
+// File : ContentStore.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.model;
+
+/**
+ * Store of requirement contents kept out of the heap: a requirement only keeps the offset and the length of its
+ * content in the store, and the content is read back on each access (see {@link RequirementImpl#getContent()}).
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public interface ContentStore
+{
+	/**
+	 * @param offset
+	 *            content offset in the store
+	 * @param length
+	 *            content length in the store, in bytes
+	 * @return the content
+	 */
+	String read(long offset, int length);
+}
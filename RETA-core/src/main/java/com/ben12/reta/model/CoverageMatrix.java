@@ -0,0 +1,269 @@
+// Package : com.ben12.reta.model
+// File : CoverageMatrix.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Coverage of every analysed requirement (rows, grouped by source in {@link TraceGraph} order) by every covering
+ * source (columns).<br>
+ * Rows are laid out as virtual rows: one header row per source followed by one row per requirement. Prefix sums of
+ * each cell state are kept per column, so the coverage of any row range is computed in constant time.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public final class CoverageMatrix
+{
+	/** Cell state: the column source does not cover the row requirement source. */
+	public static final int						NOT_APPLICABLE	= 0;
+
+	/** Cell state: the requirement is not covered by the column source. */
+	public static final int						UNCOVERED		= 1;
+
+	/** Cell state: the requirement is only transitively covered by the column source. */
+	public static final int						TRANSITIVE		= 2;
+
+	/** Cell state: the requirement is directly referred by a requirement of the column source. */
+	public static final int						DIRECT			= 3;
+
+	/** Analysed traceability graph. */
+	private final TraceGraph					graph;
+
+	/** Covering sources, one per column. */
+	private final List<InputRequirementSource>	columns;
+
+	/** Sources having requirements, one per row group. */
+	private final List<InputRequirementSource>	groups;
+
+	/** First requirement index of each group, followed by the requirement count. */
+	private final int[]							groupStart;
+
+	/** Virtual row of each group header. */
+	private final int[]							groupRow;
+
+	/** Per column, count of applicable cells among the first requirements (n + 1 entries). */
+	private final int[][]						applicable;
+
+	/** Per column, count of directly or transitively covered cells among the first requirements. */
+	private final int[][]						covered;
+
+	/** Per column, count of directly covered cells among the first requirements. */
+	private final int[][]						direct;
+
+	/**
+	 * @param theGraph
+	 *            analysed traceability graph
+	 */
+	public CoverageMatrix(final TraceGraph theGraph)
+	{
+		graph = theGraph;
+		final List<InputRequirementSource> sources = graph.getSources();
+
+		final List<InputRequirementSource> coveringSources = new ArrayList<>();
+		final List<InputRequirementSource> groupSources = new ArrayList<>();
+		for (final InputRequirementSource source : sources)
+		{
+			if (sources.stream().anyMatch(s -> s.getTransitiveCoversBy().containsKey(source)))
+			{
+				coveringSources.add(source);
+			}
+			if (!source.getRequirements().isEmpty())
+			{
+				groupSources.add(source);
+			}
+		}
+		columns = Collections.unmodifiableList(coveringSources);
+		groups = Collections.unmodifiableList(groupSources);
+
+		groupStart = new int[groups.size() + 1];
+		groupRow = new int[groups.size()];
+		for (int g = 0; g < groups.size(); g++)
+		{
+			groupStart[g + 1] = groupStart[g] + groups.get(g).getRequirements().size();
+			groupRow[g] = groupStart[g] + g;
+		}
+
+		final int count = graph.size();
+		applicable = new int[columns.size()][count + 1];
+		covered = new int[columns.size()][count + 1];
+		direct = new int[columns.size()][count + 1];
+		for (int i = 0; i < count; i++)
+		{
+			final RequirementImpl req = graph.getRequirement(i);
+			final InputRequirementSource source = req.getSource();
+			final List<InputRequirementSource> referredBy = req.getReferredBySource();
+			for (int c = 0; c < columns.size(); c++)
+			{
+				final InputRequirementSource cover = columns.get(c);
+				final boolean isApplicable = source.getTransitiveCoversBy().containsKey(cover)
+						|| source.getCoversBy().containsKey(cover);
+				final boolean isDirect = isApplicable && referredBy.contains(cover);
+				final boolean isCovered = isDirect || (isApplicable && graph.isTransitivelyCoveredBy(req, cover));
+				applicable[c][i + 1] = applicable[c][i] + (isApplicable ? 1 : 0);
+				covered[c][i + 1] = covered[c][i] + (isCovered ? 1 : 0);
+				direct[c][i + 1] = direct[c][i] + (isDirect ? 1 : 0);
+			}
+		}
+	}
+
+	/**
+	 * @return covering sources, one per column
+	 */
+	public List<InputRequirementSource> getColumns()
+	{
+		return columns;
+	}
+
+	/**
+	 * @return requirement sources, one per row group
+	 */
+	public List<InputRequirementSource> getGroups()
+	{
+		return groups;
+	}
+
+	/**
+	 * @return virtual row count: one header row per group and one row per requirement
+	 */
+	public int getRowCount()
+	{
+		return graph.size() + groups.size();
+	}
+
+	/**
+	 * @param group
+	 *            group index
+	 * @return virtual row of the group header
+	 */
+	public int getGroupRow(final int group)
+	{
+		return groupRow[group];
+	}
+
+	/**
+	 * Binary search of the group containing a virtual row.
+	 * 
+	 * @param row
+	 *            virtual row
+	 * @return group index of the row, -1 if none
+	 */
+	public int groupOf(final int row)
+	{
+		final int found = Arrays.binarySearch(groupRow, row);
+		return (found >= 0 ? found : -found - 2);
+	}
+
+	/**
+	 * @param row
+	 *            virtual row
+	 * @return requirement index of the row, -1 for group header rows and rows out of the matrix
+	 */
+	public int requirementOf(final int row)
+	{
+		final int group = groupOf(row);
+		int index = -1;
+		if (group >= 0 && row > groupRow[group] && row - group - 1 < groupStart[group + 1])
+		{
+			index = row - group - 1;
+		}
+		return index;
+	}
+
+	/**
+	 * @param row
+	 *            virtual row
+	 * @return count of requirements in the virtual rows before <code>row</code>
+	 */
+	public int requirementsBefore(final int row)
+	{
+		final int group = groupOf(row - 1);
+		return Math.max(0, Math.min(graph.size(), row - group - 1));
+	}
+
+	/**
+	 * @param index
+	 *            requirement index
+	 * @return the requirement
+	 */
+	public RequirementImpl getRequirement(final int index)
+	{
+		return graph.getRequirement(index);
+	}
+
+	/**
+	 * @param index
+	 *            requirement index
+	 * @param column
+	 *            column index
+	 * @return cell state: {@link #NOT_APPLICABLE}, {@link #UNCOVERED}, {@link #TRANSITIVE} or {@link #DIRECT}
+	 */
+	public int getState(final int index, final int column)
+	{
+		final int state;
+		if (direct[column][index + 1] > direct[column][index])
+		{
+			state = DIRECT;
+		}
+		else if (covered[column][index + 1] > covered[column][index])
+		{
+			state = TRANSITIVE;
+		}
+		else if (applicable[column][index + 1] > applicable[column][index])
+		{
+			state = UNCOVERED;
+		}
+		else
+		{
+			state = NOT_APPLICABLE;
+		}
+		return state;
+	}
+
+	/**
+	 * @param from
+	 *            first requirement index
+	 * @param to
+	 *            requirement index after the last one
+	 * @param column
+	 *            column index
+	 * @return count of applicable cells in the requirement range
+	 */
+	public int getApplicableCount(final int from, final int to, final int column)
+	{
+		return applicable[column][to] - applicable[column][from];
+	}
+
+	/**
+	 * @param from
+	 *            first requirement index
+	 * @param to
+	 *            requirement index after the last one
+	 * @param column
+	 *            column index
+	 * @return count of directly or transitively covered cells in the requirement range
+	 */
+	public int getCoveredCount(final int from, final int to, final int column)
+	{
+		return covered[column][to] - covered[column][from];
+	}
+}
@@ -0,0 +1,62 @@
+// Package : com.ben12.reta.model
+// File : CoverageState.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.model;
+
+/**
+ * Coverage state of a requirement by the sources covering its source.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public enum CoverageState
+{
+	/** The requirement is referred by every source covering its source, or its source is not covered. */
+	COVERED,
+
+	/** The requirement is referred by some of the sources covering its source only. */
+	PARTIAL,
+
+	/** The requirement is not referred although its source is covered. */
+	UNCOVERED;
+
+	/**
+	 * @param req
+	 *            analysed requirement
+	 * @return coverage state of the requirement
+	 */
+	public static CoverageState of(final RequirementImpl req)
+	{
+		final int coveringSources = req.getSource().getCoversBy().size();
+		final int referringSources = req.getReferredBySource().size();
+		final CoverageState state;
+		if (referringSources == 0 && coveringSources > 0)
+		{
+			state = UNCOVERED;
+		}
+		else if (referringSources > 0 && referringSources < coveringSources)
+		{
+			state = PARTIAL;
+		}
+		else
+		{
+			state = COVERED;
+		}
+		return state;
+	}
+}
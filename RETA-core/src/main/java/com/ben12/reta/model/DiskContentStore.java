@@ -0,0 +1,146 @@
+// Package : com.ben12.reta.model
+// File : DiskContentStore.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only temporary file of the requirement contents, written while the sources are parsed, so that large analyses
+ * do not keep every requirement content in the heap.<br>
+ * The file is mapped by {@link #CHUNK} bytes, no content crossing a chunk boundary: contents are written and read back
+ * through the mapping, only the accessed pages are loaded. The file is deleted when the store is closed; mapped chunks
+ * remain readable until they are garbage collected, so requirements of a previous analysis may still be displayed.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public final class DiskContentStore implements ContentStore, Closeable
+{
+	/** Class logger. */
+	private static final Logger			LOGGER	= Logger.getLogger(DiskContentStore.class.getName());
+
+	/** Mapping chunk size. */
+	private static final long			CHUNK	= 1L << 26;
+
+	/** Store file. */
+	private final Path					file;
+
+	/** Store file channel. */
+	private final FileChannel			channel;
+
+	/** Mapped chunks, replaced when a chunk is added. */
+	private volatile MappedByteBuffer[]	chunks	= new MappedByteBuffer[0];
+
+	/** Written size, chunk padding included. */
+	private long						size	= 0;
+
+	/**
+	 * @param theFile
+	 *            store file
+	 * @param theChannel
+	 *            store file channel
+	 */
+	private DiskContentStore(final Path theFile, final FileChannel theChannel)
+	{
+		file = theFile;
+		channel = theChannel;
+	}
+
+	/**
+	 * @return a new store, in a temporary file
+	 * @throws IOException
+	 *             I/O exception
+	 */
+	public static DiskContentStore create() throws IOException
+	{
+		final Path file = Files.createTempFile("reta-content-", ".tmp");
+		file.toFile().deleteOnExit();
+		return new DiskContentStore(file,
+				FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE));
+	}
+
+	/**
+	 * Move the content of a requirement in this store. The content is kept in the heap if it is empty, larger than a
+	 * chunk or if it cannot be written.
+	 * 
+	 * @param requirement
+	 *            requirement whose content is stored
+	 */
+	synchronized void store(final RequirementImpl requirement)
+	{
+		final byte[] bytes = requirement.getContent().getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > 0 && bytes.length <= CHUNK && channel.isOpen())
+		{
+			try
+			{
+				if ((size % CHUNK) + bytes.length > CHUNK)
+				{
+					size += CHUNK - (size % CHUNK);
+				}
+				final int chunk = (int) (size / CHUNK);
+				if (chunk == chunks.length)
+				{
+					final MappedByteBuffer[] newChunks = Arrays.copyOf(chunks, chunk + 1);
+					newChunks[chunk] = channel.map(FileChannel.MapMode.READ_WRITE, chunk * CHUNK, CHUNK);
+					chunks = newChunks;
+				}
+				chunks[chunk].put((int) (size % CHUNK), bytes);
+				requirement.setContent(this, size, bytes.length);
+				size += bytes.length;
+			}
+			catch (final IOException e)
+			{
+				LOGGER.log(Level.WARNING, "Requirement content kept in memory: " + requirement.getId(), e);
+			}
+		}
+	}
+
+	@Override
+	public String read(final long offset, final int length)
+	{
+		final byte[] bytes = new byte[length];
+		chunks[(int) (offset / CHUNK)].get((int) (offset % CHUNK), bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public synchronized void close() throws IOException
+	{
+		channel.close();
+		try
+		{
+			Files.deleteIfExists(file);
+		}
+		catch (final IOException e)
+		{
+			// Still mapped on some systems: deleted on exit
+			LOGGER.log(Level.FINE, "Content store deleted on exit: " + file, e);
+		}
+	}
+}
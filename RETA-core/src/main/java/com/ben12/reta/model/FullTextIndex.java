@@ -0,0 +1,545 @@
+// Package : com.ben12.reta.model
+// File : FullTextIndex.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * In memory positional inverted index of the text and content of the requirements of a source, filled while the
+ * requirements are added.<br>
+ * Words are sequences of letters and digits, compared case insensitively. They are kept in an open addressing hash
+ * table, so indexing allocates nothing for already known words. Each word keeps the requirements containing it and its
+ * positions in each one, so phrases are matched without reading the requirement contents again.
+ * <p>
+ * Query syntax (see {@link #search(String)}):
+ * <ul>
+ * <li><code>watchdog timer</code>: requirements containing both words,</li>
+ * <li><code>"watchdog timer"</code>: requirements containing the phrase,</li>
+ * <li><code>watchdog OR timer</code>: requirements containing one of the words,</li>
+ * <li><code>watchdog -timer</code> or <code>watchdog NOT timer</code>: requirements containing watchdog but not
+ * timer,</li>
+ * <li><code>(a OR b) c</code>: parentheses group sub-queries.</li>
+ * </ul>
+ * Adding requirements and searching are not thread safe.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public final class FullTextIndex
+{
+	/** Position gap between the requirement text and content, so phrases do not span both. */
+	private static final int				FIELD_GAP	= 2;
+
+	/** Indexed requirements, by document number. */
+	private final List<RequirementImpl>		documents	= new ArrayList<>();
+
+	/** Initial word table capacity, a power of two. */
+	private static final int				CAPACITY	= 1024;
+
+	/** Lower case words, in an open addressing hash table. */
+	private String[]						words		= new String[CAPACITY];
+
+	/** Postings of each word of {@link #words}. */
+	private Postings[]						postings	= new Postings[CAPACITY];
+
+	/** Word count. */
+	private int								wordCount	= 0;
+
+	/**
+	 * Index the text and content of a requirement.
+	 * 
+	 * @param requirement
+	 *            added requirement
+	 */
+	public void add(final RequirementImpl requirement)
+	{
+		final int document = documents.size();
+		documents.add(requirement);
+		final int next = index(requirement.getText(), document, 0);
+		index(requirement.getContent(), document, next + FIELD_GAP);
+	}
+
+	/**
+	 * Remove all the indexed requirements.
+	 */
+	public void clear()
+	{
+		documents.clear();
+		words = new String[CAPACITY];
+		postings = new Postings[CAPACITY];
+		wordCount = 0;
+	}
+
+	/**
+	 * @return indexed requirement count
+	 */
+	public int size()
+	{
+		return documents.size();
+	}
+
+	/**
+	 * @param document
+	 *            document number
+	 * @return the indexed requirement
+	 */
+	public RequirementImpl getDocument(final int document)
+	{
+		return documents.get(document);
+	}
+
+	/**
+	 * @param query
+	 *            full text query (see {@link FullTextIndex})
+	 * @return document numbers of the matching requirements
+	 */
+	public BitSet search(final String query)
+	{
+		return new QueryParser(tokenize(query)).parse();
+	}
+
+	/**
+	 * @param text
+	 *            indexed text
+	 * @param document
+	 *            document number
+	 * @param start
+	 *            position of the first word
+	 * @return position after the last word
+	 */
+	private int index(final String text, final int document, final int start)
+	{
+		int position = start;
+		int wordStart = -1;
+		for (int i = 0; i <= text.length(); i++)
+		{
+			final boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+			if (wordChar && wordStart < 0)
+			{
+				wordStart = i;
+			}
+			else if (!wordChar && wordStart >= 0)
+			{
+				find(text, wordStart, i, true).add(document, position++);
+				wordStart = -1;
+			}
+		}
+		return position;
+	}
+
+	/**
+	 * Find the postings of a word, without allocation when the word is already indexed.
+	 * 
+	 * @param text
+	 *            text containing the word
+	 * @param start
+	 *            word start in the text
+	 * @param end
+	 *            word end in the text
+	 * @param create
+	 *            true to add the word if it is not indexed
+	 * @return postings of the word, null if not indexed and not created
+	 */
+	private Postings find(final String text, final int start, final int end, final boolean create)
+	{
+		int hash = 0;
+		for (int i = start; i < end; i++)
+		{
+			hash = 31 * hash + Character.toLowerCase(text.charAt(i));
+		}
+		final int mask = words.length - 1;
+		int slot = slot(hash);
+		while (words[slot] != null && !matches(words[slot], text, start, end))
+		{
+			slot = (slot + 1) & mask;
+		}
+
+		Postings found = postings[slot];
+		if (found == null && create)
+		{
+			final char[] word = new char[end - start];
+			for (int i = start; i < end; i++)
+			{
+				word[i - start] = Character.toLowerCase(text.charAt(i));
+			}
+			found = new Postings();
+			words[slot] = new String(word);
+			postings[slot] = found;
+			if (++wordCount * 2 > words.length)
+			{
+				rehash();
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Fibonacci hashing: word hash codes are poorly distributed (numbers, common prefixes) for linear probing.
+	 * 
+	 * @param hash
+	 *            lower case word hash code
+	 * @return first probed slot of the word table
+	 */
+	private int slot(final int hash)
+	{
+		return (hash * 0x9E3779B9) >>> (Integer.numberOfLeadingZeros(words.length) + 1);
+	}
+
+	/**
+	 * @param word
+	 *            lower case indexed word
+	 * @param text
+	 *            text containing the searched word
+	 * @param start
+	 *            searched word start in the text
+	 * @param end
+	 *            searched word end in the text
+	 * @return true if the searched word is the indexed word, case insensitively
+	 */
+	private static boolean matches(final String word, final String text, final int start, final int end)
+	{
+		boolean match = (word.length() == end - start);
+		for (int i = 0; match && i < word.length(); i++)
+		{
+			match = (word.charAt(i) == Character.toLowerCase(text.charAt(start + i)));
+		}
+		return match;
+	}
+
+	/**
+	 * Double the word table capacity.
+	 */
+	private void rehash()
+	{
+		final String[] oldWords = words;
+		final Postings[] oldPostings = postings;
+		words = new String[oldWords.length * 2];
+		postings = new Postings[oldWords.length * 2];
+		final int mask = words.length - 1;
+		for (int w = 0; w < oldWords.length; w++)
+		{
+			if (oldWords[w] != null)
+			{
+				int slot = slot(oldWords[w].hashCode());
+				while (words[slot] != null)
+				{
+					slot = (slot + 1) & mask;
+				}
+				words[slot] = oldWords[w];
+				postings[slot] = oldPostings[w];
+			}
+		}
+	}
+
+	/**
+	 * Split a query in tokens: words, quoted phrases, parentheses and negation marks.
+	 * 
+	 * @param query
+	 *            full text query
+	 * @return query tokens; phrases keep their opening quote
+	 */
+	private static List<String> tokenize(final String query)
+	{
+		final List<String> tokens = new ArrayList<>();
+		int i = 0;
+		while (i < query.length())
+		{
+			final char c = query.charAt(i);
+			if (c == '"')
+			{
+				final int end = query.indexOf('"', i + 1);
+				final int stop = (end < 0 ? query.length() : end);
+				tokens.add(query.substring(i, stop));
+				i = stop + 1;
+			}
+			else if (c == '(' || c == ')'
+					|| (c == '-' && (i == 0 || !Character.isLetterOrDigit(query.charAt(i - 1)))))
+			{
+				tokens.add(String.valueOf(c));
+				i++;
+			}
+			else if (Character.isLetterOrDigit(c))
+			{
+				int end = i;
+				while (end < query.length() && Character.isLetterOrDigit(query.charAt(end)))
+				{
+					end++;
+				}
+				tokens.add(query.substring(i, end));
+				i = end;
+			}
+			else
+			{
+				i++;
+			}
+		}
+		return tokens;
+	}
+
+	/**
+	 * @param word
+	 *            word
+	 * @return documents containing the word
+	 */
+	private BitSet searchWord(final String word)
+	{
+		final BitSet found = new BitSet(documents.size());
+		final Postings wordPostings = find(word, 0, word.length(), false);
+		if (wordPostings != null)
+		{
+			for (int d = 0; d < wordPostings.documentCount; d++)
+			{
+				found.set(wordPostings.documents[d]);
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * @param phrase
+	 *            phrase text
+	 * @return documents containing the words of the phrase at consecutive positions
+	 */
+	private BitSet searchPhrase(final String phrase)
+	{
+		final List<Postings> words = new ArrayList<>();
+		boolean missing = false;
+		int wordStart = -1;
+		for (int i = 0; i <= phrase.length(); i++)
+		{
+			final boolean wordChar = i < phrase.length() && Character.isLetterOrDigit(phrase.charAt(i));
+			if (wordChar && wordStart < 0)
+			{
+				wordStart = i;
+			}
+			else if (!wordChar && wordStart >= 0)
+			{
+				final Postings wordPostings = find(phrase, wordStart, i, false);
+				missing |= (wordPostings == null);
+				words.add(wordPostings);
+				wordStart = -1;
+			}
+		}
+
+		final BitSet found = new BitSet(documents.size());
+		if (!missing && !words.isEmpty())
+		{
+			final Postings first = words.get(0);
+			for (int d = 0; d < first.documentCount; d++)
+			{
+				final int document = first.documents[d];
+				boolean match = false;
+				for (int p = first.starts[d]; !match && p < first.end(d); p++)
+				{
+					match = true;
+					for (int w = 1; match && w < words.size(); w++)
+					{
+						match = words.get(w).contains(document, first.positions[p] + w);
+					}
+				}
+				found.set(document, match);
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Recursive descent query parser evaluating the query while parsing.
+	 */
+	private final class QueryParser
+	{
+		/** Query tokens. */
+		private final List<String>	tokens;
+
+		/** Current token. */
+		private int					current	= 0;
+
+		/**
+		 * @param theTokens
+		 *            query tokens
+		 */
+		QueryParser(final List<String> theTokens)
+		{
+			tokens = theTokens;
+		}
+
+		/**
+		 * @return documents matching the whole query; none if the query is empty
+		 */
+		BitSet parse()
+		{
+			final BitSet found = new BitSet(documents.size());
+			while (current < tokens.size())
+			{
+				found.or(parseOr());
+				// Ignore unbalanced closing parentheses
+				current++;
+			}
+			return found;
+		}
+
+		/**
+		 * @return documents matching <code>and-query (OR and-query)*</code>
+		 */
+		private BitSet parseOr()
+		{
+			final BitSet found = parseAnd();
+			while (current < tokens.size() && "OR".equals(tokens.get(current)))
+			{
+				current++;
+				found.or(parseAnd());
+			}
+			return found;
+		}
+
+		/**
+		 * @return documents matching <code>unary-query ([AND] unary-query)*</code>
+		 */
+		private BitSet parseAnd()
+		{
+			BitSet found = null;
+			while (current < tokens.size() && !"OR".equals(tokens.get(current)) && !")".equals(tokens.get(current)))
+			{
+				if ("AND".equals(tokens.get(current)))
+				{
+					current++;
+				}
+				else
+				{
+					final BitSet unary = parseUnary();
+					if (found == null)
+					{
+						found = unary;
+					}
+					else
+					{
+						found.and(unary);
+					}
+				}
+			}
+			return (found == null ? new BitSet(documents.size()) : found);
+		}
+
+		/**
+		 * @return documents matching <code>(NOT|-) unary-query | ( or-query ) | "phrase" | word</code>
+		 */
+		private BitSet parseUnary()
+		{
+			final String token = tokens.get(current++);
+			final BitSet found;
+			if ("NOT".equals(token) || "-".equals(token))
+			{
+				found = (current < tokens.size() ? parseUnary() : new BitSet(documents.size()));
+				found.flip(0, documents.size());
+			}
+			else if ("(".equals(token))
+			{
+				found = parseOr();
+				if (current < tokens.size())
+				{
+					// Skip the closing parenthesis
+					current++;
+				}
+			}
+			else if (token.startsWith("\""))
+			{
+				found = searchPhrase(token.substring(1));
+			}
+			else
+			{
+				found = searchWord(token);
+			}
+			return found;
+		}
+	}
+
+	/**
+	 * Positional postings of a word: the documents containing the word, in ascending order, and the positions of the
+	 * word in each document.
+	 */
+	private static final class Postings
+	{
+		/** Documents containing the word. */
+		private int[]	documents	= new int[1];
+
+		/** First entry of each document in {@link #positions}. */
+		private int[]	starts		= new int[1];
+
+		/** Word positions. */
+		private int[]	positions	= new int[2];
+
+		/** Document count. */
+		private int		documentCount;
+
+		/** Position count. */
+		private int		positionCount;
+
+		/**
+		 * @param document
+		 *            document number, greater than or equal to the last added one
+		 * @param position
+		 *            word position in the document, greater than the last added one in the same document
+		 */
+		void add(final int document, final int position)
+		{
+			if (documentCount == 0 || documents[documentCount - 1] != document)
+			{
+				if (documentCount == documents.length)
+				{
+					documents = Arrays.copyOf(documents, documentCount * 2);
+					starts = Arrays.copyOf(starts, documentCount * 2);
+				}
+				documents[documentCount] = document;
+				starts[documentCount] = positionCount;
+				documentCount++;
+			}
+			if (positionCount == positions.length)
+			{
+				positions = Arrays.copyOf(positions, positionCount * 2);
+			}
+			positions[positionCount++] = position;
+		}
+
+		/**
+		 * @param d
+		 *            document entry
+		 * @return position entry after the last position of the document entry
+		 */
+		int end(final int d)
+		{
+			return (d + 1 < documentCount ? starts[d + 1] : positionCount);
+		}
+
+		/**
+		 * @param document
+		 *            document number
+		 * @param position
+		 *            word position
+		 * @return true if the word is at the position in the document
+		 */
+		boolean contains(final int document, final int position)
+		{
+			final int d = Arrays.binarySearch(documents, 0, documentCount, document);
+			return d >= 0 && Arrays.binarySearch(positions, starts[d], end(d), position) >= 0;
+		}
+	}
+}
@@ -20,19 +20,30 @@
 package com.ben12.reta.model;
 
 import java.util.Map;
+import java.util.function.Supplier;
+
+import com.ben12.reta.graph.GraphLayout;
 
 /**
+ * Rendered traceability graph, either at requirement level or at source level (summary).
+ * 
  * @author Benot Moreau (ben.12)
  */
 public class GraphData
 {
-	private final String								html;
+	private final Supplier<String>						html;
+
+	private final GraphLayout							layout;
 
 	private final Map<String, InputRequirementSource>	sourceEntities;
 
 	private final Map<String, Link>						links;
 
+	private final Map<String, SourceLink>				sourceLinks;
+
 	/**
+	 * Requirement level graph.
+	 * 
 	 * @param pHtml
 	 *            SVG source
 	 * @param pSourceEntities
@@ -42,10 +53,57 @@ public class GraphData
 	 */
 	public GraphData(final String pHtml, final Map<String, InputRequirementSource> pSourceEntities,
 			final Map<String, Link> pLinks)
+	{
+		this(pHtml, pSourceEntities, pLinks, null);
+	}
+
+	/**
+	 * @param pHtml
+	 *            SVG source
+	 * @param pSourceEntities
+	 *            requirement source alias
+	 * @param pLinks
+	 *            links identifiers
+	 * @param pSourceLinks
+	 *            source links identifiers, null for a requirement level graph
+	 */
+	public GraphData(final String pHtml, final Map<String, InputRequirementSource> pSourceEntities,
+			final Map<String, Link> pLinks, final Map<String, SourceLink> pSourceLinks)
+	{
+		this(() -> pHtml, null, pSourceEntities, pLinks, pSourceLinks);
+	}
+
+	/**
+	 * Laid out graph, drawn without rendering its SVG source until {@link #getHtml()} is called.
+	 * 
+	 * @param pHtml
+	 *            SVG source supplier
+	 * @param pLayout
+	 *            laid out graph
+	 * @param pSourceEntities
+	 *            requirement source alias
+	 * @param pLinks
+	 *            links identifiers
+	 * @param pSourceLinks
+	 *            source links identifiers, null for a requirement level graph
+	 */
+	public GraphData(final Supplier<String> pHtml, final GraphLayout pLayout,
+			final Map<String, InputRequirementSource> pSourceEntities, final Map<String, Link> pLinks,
+			final Map<String, SourceLink> pSourceLinks)
 	{
 		this.html = pHtml;
+		this.layout = pLayout;
 		this.sourceEntities = pSourceEntities;
 		this.links = pLinks;
+		this.sourceLinks = pSourceLinks;
+	}
+
+	/**
+	 * @return true if this graph shows one node per requirement source instead of one row per requirement
+	 */
+	public boolean isSummary()
+	{
+		return sourceLinks != null;
 	}
 
 	/**
@@ -53,7 +111,15 @@ public class GraphData
 	 */
 	public String getHtml()
 	{
-		return html;
+		return html.get();
+	}
+
+	/**
+	 * @return the laid out graph, null if the graph is only available as SVG source
+	 */
+	public GraphLayout getLayout()
+	{
+		return layout;
 	}
 
 	/**
@@ -72,6 +138,88 @@ public class GraphData
 		return links;
 	}
 
+	/**
+	 * @return the source links identifiers, null for a requirement level graph
+	 */
+	public Map<String, SourceLink> getSourceLinks()
+	{
+		return sourceLinks;
+	}
+
+	/**
+	 * Aggregated links between a covering source and a covered source.
+	 */
+	public static class SourceLink
+	{
+		private final String					line;
+
+		private final InputRequirementSource	source;
+
+		private final InputRequirementSource	cover;
+
+		private final int						count;
+
+		/**
+		 * @param pLine
+		 *            link identifier
+		 * @param pSource
+		 *            covering source
+		 * @param pCover
+		 *            covered source
+		 * @param pCount
+		 *            requirement link count
+		 */
+		public SourceLink(final String pLine, final InputRequirementSource pSource, final InputRequirementSource pCover,
+				final int pCount)
+		{
+			this.line = pLine;
+			this.source = pSource;
+			this.cover = pCover;
+			this.count = pCount;
+		}
+
+		/**
+		 * @return the link identifier
+		 */
+		public String getLine()
+		{
+			return line;
+		}
+
+		/**
+		 * @return the covering source
+		 */
+		public InputRequirementSource getSource()
+		{
+			return source;
+		}
+
+		/**
+		 * @return the covered source
+		 */
+		public InputRequirementSource getCover()
+		{
+			return cover;
+		}
+
+		/**
+		 * @return the requirement link count
+		 */
+		public int getCount()
+		{
+			return count;
+		}
+
+		/**
+		 * @return the coverage rate of the covered source by the covering source
+		 */
+		public double getCoverage()
+		{
+			final Double coverage = cover.getCoversBy().get(source);
+			return (coverage == null || coverage.isNaN() ? 0.0 : coverage);
+		}
+	}
+
 	public static class Link
 	{
 		private final String					line;
@@ -0,0 +1,271 @@
+// Package : com.ben12.reta.model
+// File : IdNormalization.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.model;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.google.common.base.Splitter;
+
+/**
+ * Requirement identifier normalisation of a source, and natural ordering comparison keys.<br>
+ * A comparison key is a byte array where each digit run is encoded by its significant digit count followed by its
+ * digits, so that unsigned lexicographic comparison of keys orders <code>REQ_2</code> before <code>REQ_10</code>.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public final class IdNormalization
+{
+	/** Case folding option name. */
+	public static final String			CASE		= "case";
+
+	/** Leading zeros removal option name. */
+	public static final String			ZEROS		= "zeros";
+
+	/** Separator unification option name. */
+	public static final String			SEPARATORS	= "separators";
+
+	/** No normalisation. */
+	public static final IdNormalization	NONE		= new IdNormalization(false, false, false);
+
+	/** Separators unified to '_'. */
+	private static final String			SEPARATOR_CHARS	= "_-./: ";
+
+	/** Digit run marker in comparison keys, sorts as any digit character. */
+	private static final int			DIGITS		= '0';
+
+	/** Id and version separator in comparison keys, sorts before any character. */
+	private static final int			END			= 0;
+
+	/** Marker of a digit or zero count encoded on four more bytes in comparison keys. */
+	private static final int			LONG_COUNT	= 0xFF;
+
+	/** Fold identifiers case. */
+	private final boolean				caseFolding;
+
+	/** Ignore digit runs leading zeros. */
+	private final boolean				zeroPadding;
+
+	/** Unify separators. */
+	private final boolean				separators;
+
+	/**
+	 * @param theCaseFolding
+	 *            fold identifiers case
+	 * @param theZeroPadding
+	 *            ignore digit runs leading zeros
+	 * @param theSeparators
+	 *            unify separators
+	 */
+	public IdNormalization(final boolean theCaseFolding, final boolean theZeroPadding, final boolean theSeparators)
+	{
+		caseFolding = theCaseFolding;
+		zeroPadding = theZeroPadding;
+		separators = theSeparators;
+	}
+
+	/**
+	 * @param options
+	 *            comma separated options ({@link #CASE}, {@link #ZEROS}, {@link #SEPARATORS}), may be null
+	 * @return the normalisation
+	 */
+	public static IdNormalization parse(final String options)
+	{
+		final List<String> list = Splitter.on(',')
+				.trimResults()
+				.omitEmptyStrings()
+				.splitToList(options == null ? "" : options.toLowerCase(Locale.ROOT));
+		final IdNormalization normalization = new IdNormalization(list.contains(CASE), list.contains(ZEROS),
+				list.contains(SEPARATORS));
+		return (normalization.isNone() ? NONE : normalization);
+	}
+
+	/**
+	 * @return true if identifiers are kept as is
+	 */
+	public boolean isNone()
+	{
+		return !caseFolding && !zeroPadding && !separators;
+	}
+
+	/**
+	 * @param id
+	 *            requirement identifier
+	 * @return normalised identifier
+	 */
+	public String normalize(final String id)
+	{
+		String normalized = id;
+		if (!isNone())
+		{
+			final String source = (caseFolding ? id.toUpperCase(Locale.ROOT) : id);
+			final StringBuilder builder = new StringBuilder(source.length());
+			for (int i = 0; i < source.length(); i++)
+			{
+				final char c = source.charAt(i);
+				if (separators && SEPARATOR_CHARS.indexOf(c) >= 0)
+				{
+					builder.append('_');
+				}
+				else if (zeroPadding && c == '0' && (i == 0 || !isDigit(source.charAt(i - 1)))
+						&& i + 1 < source.length() && isDigit(source.charAt(i + 1)))
+				{
+					// skip leading zeros of the digit run, keeping its last digit
+					while (i + 1 < source.length() && source.charAt(i) == '0' && isDigit(source.charAt(i + 1)))
+					{
+						i++;
+					}
+					builder.append(source.charAt(i));
+				}
+				else
+				{
+					builder.append(c);
+				}
+			}
+			normalized = builder.toString();
+		}
+		return normalized;
+	}
+
+	/**
+	 * @param normalizedId
+	 *            normalised requirement identifier (see {@link #normalize(String)})
+	 * @param version
+	 *            requirement version
+	 * @return comparison key of the requirement identifier and version
+	 */
+	public static byte[] key(final String normalizedId, final String version)
+	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream(normalizedId.length() + version.length() + 8);
+		encode(normalizedId, out);
+		out.write(END);
+		encode(version, out);
+		return out.toByteArray();
+	}
+
+	/**
+	 * @param value
+	 *            value to encode
+	 * @param out
+	 *            comparison key output
+	 */
+	private static void encode(final String value, final ByteArrayOutputStream out)
+	{
+		final int length = value.length();
+		int start = 0;
+		int i = 0;
+		while (i < length)
+		{
+			if (isDigit(value.charAt(i)))
+			{
+				final byte[] text = value.substring(start, i).getBytes(StandardCharsets.UTF_8);
+				out.write(text, 0, text.length);
+
+				int zeros = 0;
+				while (i < length && value.charAt(i) == '0')
+				{
+					zeros++;
+					i++;
+				}
+				final int first = i;
+				while (i < length && isDigit(value.charAt(i)))
+				{
+					i++;
+				}
+				out.write(DIGITS);
+				encodeCount(i - first, out);
+				for (int d = first; d < i; d++)
+				{
+					out.write(value.charAt(d));
+				}
+				encodeCount(zeros, out);
+				start = i;
+			}
+			else
+			{
+				i++;
+			}
+		}
+		final byte[] text = value.substring(start).getBytes(StandardCharsets.UTF_8);
+		out.write(text, 0, text.length);
+	}
+
+	/**
+	 * Encode a count keeping the unsigned byte order: one byte below {@link #LONG_COUNT}, else {@link #LONG_COUNT}
+	 * followed by the count on four bytes, big endian.
+	 * 
+	 * @param count
+	 *            digit or zero count
+	 * @param out
+	 *            comparison key output
+	 */
+	private static void encodeCount(final int count, final ByteArrayOutputStream out)
+	{
+		if (count < LONG_COUNT)
+		{
+			out.write(count);
+		}
+		else
+		{
+			out.write(LONG_COUNT);
+			out.write(count >>> 24);
+			out.write(count >>> 16);
+			out.write(count >>> 8);
+			out.write(count);
+		}
+	}
+
+	/**
+	 * @param c
+	 *            character
+	 * @return true if <code>c</code> is an ASCII digit
+	 */
+	private static boolean isDigit(final char c)
+	{
+		return c >= '0' && c <= '9';
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		final List<String> options = new ArrayList<>(3);
+		if (caseFolding)
+		{
+			options.add(CASE);
+		}
+		if (zeroPadding)
+		{
+			options.add(ZEROS);
+		}
+		if (separators)
+		{
+			options.add(SEPARATORS);
+		}
+		return String.join(",", options);
+	}
+}
@@ -22,6 +22,7 @@ package com.ben12.reta.model;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -46,7 +47,7 @@ import com.ben12.reta.plugin.SourceProviderPlugin;
 /**
  * @author Benot Moreau (ben.12)
  */
-public class InputRequirementSource implements RequirementSourceManager
+public final class InputRequirementSource implements RequirementSourceManager
 {
 	/** {@link #name} property name. */
 	public static final String							NAME					= "name";
@@ -54,11 +55,22 @@ public class InputRequirementSource implements RequirementSourceManager
 	/** {@link #covers} property name. */
 	public static final String							COVERS					= "covers";
 
+	/** {@link #idNormalization} property name. */
+	public static final String							ID_NORMALIZATION		= "idNormalization";
+
 	/** Source document name. */
 	@NotEmpty
 	@Pattern(regexp = "[^,]*")
 	private final StringProperty						name					= new SimpleStringProperty(this, NAME);
 
+	/** Requirement identifier normalisation options (see {@link IdNormalization#parse(String)}). */
+	@Pattern(regexp = "(?i)(\\s*(case|zeros|separators)\\s*(,|$))*")
+	private final StringProperty						idNormalization			= new SimpleStringProperty(this,
+			ID_NORMALIZATION, "");
+
+	/** Requirement identifier normalisation parsed from {@link #idNormalization}. */
+	private IdNormalization								normalization			= IdNormalization.NONE;
+
 	/** Source provider plugin. */
 	private final SourceProviderPlugin					provider;
 
@@ -72,6 +84,12 @@ public class InputRequirementSource implements RequirementSourceManager
 	/** Coverage rate of this document by the other documents. */
 	private final Map<InputRequirementSource, Double>	coversBy				= new HashMap<>();
 
+	/** Direct or transitive coverage rate of this document by the other documents. */
+	private final Map<InputRequirementSource, Double>	transitiveCoversBy		= new LinkedHashMap<>();
+
+	/** Indexed traceability graph of the last analysis including this source. */
+	private TraceGraph									traceGraph				= null;
+
 	/** Plug-in source configuration. */
 	private final SourceConfiguration					configuration;
 
@@ -81,6 +99,15 @@ public class InputRequirementSource implements RequirementSourceManager
 	/** Reference attribute names added. */
 	private final Set<String>							referenceAttributes		= new LinkedHashSet<>();
 
+	/** Full text index of the requirements, filled while they are added if their contents are kept in memory. */
+	private final FullTextIndex							contentIndex			= new FullTextIndex();
+
+	/** False when requirements restored from a snapshot or stored on disk are not yet in {@link #contentIndex}. */
+	private boolean										contentIndexed			= true;
+
+	/** Store of the parsed requirement contents, null to keep them in memory. */
+	private DiskContentStore							contentStore			= null;
+
 	/**
 	 * @param theName
 	 *            document source name
@@ -95,6 +122,7 @@ public class InputRequirementSource implements RequirementSourceManager
 		name.set(theName);
 		provider = theProvider;
 		configuration = theConfiguration;
+		idNormalization.addListener((obs, oldValue, newValue) -> normalization = IdNormalization.parse(newValue));
 	}
 
 	/**
@@ -104,7 +132,11 @@ public class InputRequirementSource implements RequirementSourceManager
 	{
 		requirements.clear();
 		coversBy.clear();
+		transitiveCoversBy.clear();
+		traceGraph = null;
 		requirementAttributes.clear();
+		contentIndex.clear();
+		contentIndexed = true;
 	}
 
 	/**
@@ -115,6 +147,22 @@ public class InputRequirementSource implements RequirementSourceManager
 		return name;
 	}
 
+	/**
+	 * @return requirement identifier normalisation options property (see {@link IdNormalization#parse(String)})
+	 */
+	public StringProperty idNormalizationProperty()
+	{
+		return idNormalization;
+	}
+
+	/**
+	 * @return requirement identifier normalisation of this source, applied to its requirements and references
+	 */
+	public IdNormalization getIdNormalization()
+	{
+		return normalization;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -182,6 +230,32 @@ public class InputRequirementSource implements RequirementSourceManager
 		return coversBy;
 	}
 
+	/**
+	 * @return direct or transitive coverage rate of this document by the other documents, computed by
+	 *         {@link TraceGraph}
+	 */
+	public Map<InputRequirementSource, Double> getTransitiveCoversBy()
+	{
+		return transitiveCoversBy;
+	}
+
+	/**
+	 * @return indexed traceability graph of the last analysis including this source, null if not analysed
+	 */
+	public TraceGraph getTraceGraph()
+	{
+		return traceGraph;
+	}
+
+	/**
+	 * @param newTraceGraph
+	 *            indexed traceability graph of the last analysis including this source
+	 */
+	void setTraceGraph(final TraceGraph newTraceGraph)
+	{
+		traceGraph = newTraceGraph;
+	}
+
 	/**
 	 * @return all requirement attributes set
 	 */
@@ -207,6 +281,50 @@ public class InputRequirementSource implements RequirementSourceManager
 		return referenceAttributes;
 	}
 
+	/**
+	 * @return true if the full text index is built, false if it lacks requirements restored from a snapshot or stored
+	 *         on disk: the first {@link #getContentIndex()} call reads all their contents then
+	 */
+	public boolean isContentIndexed()
+	{
+		return contentIndexed;
+	}
+
+	/**
+	 * @return full text index of the requirement texts and contents
+	 */
+	public FullTextIndex getContentIndex()
+	{
+		if (!contentIndexed)
+		{
+			// Restored or stored requirement contents are only read when searched
+			contentIndexed = true;
+			requirements.forEach(contentIndex::add);
+		}
+		return contentIndex;
+	}
+
+	/**
+	 * @param store
+	 *            store of the requirement contents parsed next, null to keep them in memory
+	 */
+	public void setContentStore(final DiskContentStore store)
+	{
+		contentStore = store;
+	}
+
+	/**
+	 * Add a requirement restored from an analysis snapshot; it is added to the full text index on the first search.
+	 * 
+	 * @param requirement
+	 *            restored requirement
+	 */
+	void restoreRequirement(final RequirementImpl requirement)
+	{
+		requirements.add(requirement);
+		contentIndexed = false;
+	}
+
 	/**
 	 * @param att
 	 *            reference attribute name to add
@@ -230,6 +348,7 @@ public class InputRequirementSource implements RequirementSourceManager
 		requirement.setId(id);
 		requirement.setVersion(version);
 		requirement.setContent(content);
+		requirement.computeContentHash();
 		for (final Map.Entry<String, String> att : attributes.entrySet())
 		{
 			requirement.putAttribute(att.getKey(), att.getValue());
@@ -240,7 +359,20 @@ public class InputRequirementSource implements RequirementSourceManager
 		{
 			requirementAttributes.add(SourceConfiguration.ATTRIBUTE_VERSION);
 		}
-		if (!requirements.add(requirement))
+		if (requirements.add(requirement))
+		{
+			if (contentStore != null)
+			{
+				contentStore.store(requirement);
+				// The word positions would take about the content size in memory: indexed when searched
+				contentIndexed = false;
+			}
+			else
+			{
+				contentIndex.add(requirement);
+			}
+		}
+		else
 		{
 			// already exists
 			requirement = null;
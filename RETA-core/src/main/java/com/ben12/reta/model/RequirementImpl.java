@@ -20,7 +20,10 @@
 
 package com.ben12.reta.model;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,8 +33,7 @@ import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 import com.google.common.base.Strings;
-import com.google.common.collect.ComparisonChain;
-import com.google.common.collect.Ordering;
+import com.google.common.hash.Hashing;
 
 import com.ben12.reta.api.Requirement;
 import com.ben12.reta.api.SourceConfiguration;
@@ -44,18 +46,42 @@ public class RequirementImpl implements Requirement, Comparable<RequirementImpl>
 	/** Requirement document source. */
 	private final InputRequirementSource	source;
 
+	/** Requirement identifier normalisation. */
+	private final IdNormalization			normalization;
+
 	/** Requirement identifying. */
 	private String							id;
 
+	/** Normalised requirement identifying (see {@link IdNormalization#normalize(String)}). */
+	private String							normalizedId	= "";
+
+	/** Comparison key of the normalised identifier and version (see {@link IdNormalization#key(String, String)}). */
+	private byte[]							key				= IdNormalization.key("", "");
+
+	/** First 8 bytes of {@link #key}, compared first. */
+	private long							keyPrefix		= 0;
+
+	/** Hash code of {@link #key}. */
+	private int								keyHash			= 0;
+
 	/** Requirement version. */
 	private String							version		= "";
 
 	/** Requirement human text. */
 	private String							text		= "";
 
-	/** Requirement content description. */
+	/** Requirement content description, when not kept in a {@link #contentStore}. */
 	private String							content		= "";
 
+	/** Store of the requirement content, null if the content is kept in {@link #content}. */
+	private ContentStore					contentStore	= null;
+
+	/** Requirement content offset in {@link #contentStore}. */
+	private long							contentOffset	= 0;
+
+	/** Requirement content length in {@link #contentStore}. */
+	private int								contentLength	= 0;
+
 	/** Requirement extra attributes name and value. */
 	private Map<String, String>				attributes	= null;
 
@@ -65,12 +91,29 @@ public class RequirementImpl implements Requirement, Comparable<RequirementImpl>
 	/** Set of requirements covering this requirement. */
 	private Set<RequirementImpl>			referredBy	= null;
 
+	/** Hash of the requirement text and content, computed when parsed. */
+	private long							contentHash	= 0;
+
+	/** Classification of this reference when not resolved by the analysis, null otherwise. */
+	private UnknownReferenceKind			unknownKind	= null;
+
+	/** Requirements having the same identifier than this unresolved reference. */
+	private List<RequirementImpl>			candidates	= null;
+
+	/** Requirement index in the analysed {@link TraceGraph}, -1 if not indexed. */
+	private int								index		= -1;
+
 	/**
 	 * Build an undefined source requirement. (ex: requirement reference unknown)
+	 * 
+	 * @param theNormalization
+	 *            identifier normalisation of the referencing source
 	 */
-	RequirementImpl()
+	RequirementImpl(final IdNormalization theNormalization)
 	{
 		source = null;
+		normalization = theNormalization;
+		computeKey();
 	}
 
 	/**
@@ -80,6 +123,8 @@ public class RequirementImpl implements Requirement, Comparable<RequirementImpl>
 	RequirementImpl(final InputRequirementSource reqSource)
 	{
 		source = reqSource;
+		normalization = reqSource.getIdNormalization();
+		computeKey();
 	}
 
 	/**
@@ -105,12 +150,22 @@ public class RequirementImpl implements Requirement, Comparable<RequirementImpl>
 	public void setId(final String newId)
 	{
 		id = Strings.nullToEmpty(newId);
+		normalizedId = normalization.normalize(id);
+		computeKey();
 		if (source != null && !id.isEmpty())
 		{
 			source.addRequirementAttribute(SourceConfiguration.ATTRIBUTE_ID);
 		}
 	}
 
+	/**
+	 * @return normalised requirement identifying, used to match references
+	 */
+	public String getNormalizedId()
+	{
+		return normalizedId;
+	}
+
 	/**
 	 * @return requirement version, may be null
 	 */
@@ -126,12 +181,28 @@ public class RequirementImpl implements Requirement, Comparable<RequirementImpl>
 	public void setVersion(final String newVersion)
 	{
 		version = Strings.nullToEmpty(newVersion);
+		computeKey();
 		if (source != null && !version.isEmpty())
 		{
 			source.addRequirementAttribute(SourceConfiguration.ATTRIBUTE_VERSION);
 		}
 	}
 
+	/**
+	 * Compute the comparison key of the identifier and version.
+	 */
+	private void computeKey()
+	{
+		key = IdNormalization.key(normalizedId, version);
+		long prefix = 0;
+		for (int i = 0; i < Long.BYTES; i++)
+		{
+			prefix = (prefix << 8) | (i < key.length ? key[i] & 0xFF : 0);
+		}
+		keyPrefix = prefix;
+		keyHash = Arrays.hashCode(key);
+	}
+
 	/**
 	 * @return requirement human text
 	 */
@@ -158,7 +229,12 @@ public class RequirementImpl implements Requirement, Comparable<RequirementImpl>
 	 */
 	public String getContent()
 	{
-		return content;
+		String value = content;
+		if (contentStore != null)
+		{
+			value = contentStore.read(contentOffset, contentLength);
+		}
+		return value;
 	}
 
 	/**
@@ -168,6 +244,64 @@ public class RequirementImpl implements Requirement, Comparable<RequirementImpl>
 	public void setContent(final String newContent)
 	{
 		content = Strings.nullToEmpty(newContent);
+		contentStore = null;
+	}
+
+	/**
+	 * Keep the requirement content in a content store, it is read back on each access.
+	 * 
+	 * @param store
+	 *            store of the requirement content
+	 * @param offset
+	 *            requirement content offset in the store
+	 * @param length
+	 *            requirement content length in the store
+	 */
+	void setContent(final ContentStore store, final long offset, final int length)
+	{
+		content = "";
+		contentStore = store;
+		contentOffset = offset;
+		contentLength = length;
+	}
+
+	/**
+	 * @return hash of the requirement text and content, computed when parsed
+	 */
+	public long getContentHash()
+	{
+		return contentHash;
+	}
+
+	/**
+	 * Compute the hash of the requirement text and content.
+	 */
+	void computeContentHash()
+	{
+		contentHash = Hashing.murmur3_128()
+				.newHasher()
+				.putString(text, StandardCharsets.UTF_8)
+				.putChar('\0')
+				.putString(getContent(), StandardCharsets.UTF_8)
+				.hash()
+				.asLong();
+	}
+
+	/**
+	 * @param newContentHash
+	 *            hash of the requirement text and content, computed by a previous parsing
+	 */
+	void setContentHash(final long newContentHash)
+	{
+		contentHash = newContentHash;
+	}
+
+	/**
+	 * @return requirement extra attributes name and value, identifier, version and text excluded
+	 */
+	Map<String, String> getAttributes()
+	{
+		return (attributes == null ? Map.of() : attributes);
 	}
 
 	/**
@@ -235,6 +369,23 @@ public class RequirementImpl implements Requirement, Comparable<RequirementImpl>
 		}
 	}
 
+	/**
+	 * @return requirement index in the analysed {@link TraceGraph}, -1 if not indexed
+	 */
+	public int getIndex()
+	{
+		return index;
+	}
+
+	/**
+	 * @param newIndex
+	 *            requirement index in the analysed {@link TraceGraph}
+	 */
+	void setIndex(final int newIndex)
+	{
+		index = newIndex;
+	}
+
 	/**
 	 * @param reference
 	 *            requirement reference
@@ -333,6 +484,45 @@ public class RequirementImpl implements Requirement, Comparable<RequirementImpl>
 						.collect(Collectors.toList()));
 	}
 
+	/**
+	 * @return classification of this reference when not resolved by the analysis, null otherwise
+	 */
+	public UnknownReferenceKind getUnknownKind()
+	{
+		return unknownKind;
+	}
+
+	/**
+	 * @return requirements having the same identifier than this unresolved reference, sorted by source and version
+	 */
+	public List<RequirementImpl> getCandidates()
+	{
+		return (candidates == null ? new ArrayList<>(0) : candidates);
+	}
+
+	/**
+	 * @param kind
+	 *            classification of this unresolved reference
+	 * @param newCandidates
+	 *            requirements having the same identifier than this unresolved reference, in any order
+	 */
+	public void setUnknownReference(final UnknownReferenceKind kind, final List<RequirementImpl> newCandidates)
+	{
+		unknownKind = kind;
+		candidates = new ArrayList<>(newCandidates);
+		candidates.sort(Comparator.comparing((final RequirementImpl r) -> r.getSource().getName())
+				.thenComparing(Comparator.naturalOrder()));
+	}
+
+	/**
+	 * @return sources directly or transitively covering this requirement
+	 */
+	public List<InputRequirementSource> getTransitiveCoverage()
+	{
+		return (source == null || source.getTraceGraph() == null ? new ArrayList<>(0)
+				: source.getTraceGraph().getTransitiveCoverage(this));
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -342,7 +532,8 @@ public class RequirementImpl implements Requirement, Comparable<RequirementImpl>
 	public boolean addReference(final String newSummary, final String newId, final String newVersion,
 			final Map<String, String> newAttributes)
 	{
-		final RequirementImpl requirement = new RequirementImpl();
+		final RequirementImpl requirement = new RequirementImpl(
+				source == null ? IdNormalization.NONE : source.getIdNormalization());
 		requirement.setText(newSummary);
 		requirement.setId(newId);
 		requirement.setVersion(newVersion);
@@ -376,10 +567,11 @@ public class RequirementImpl implements Requirement, Comparable<RequirementImpl>
 		}
 		else
 		{
-			comp = ComparisonChain.start()
-					.compare(id, other.id, Ordering.natural().nullsFirst())
-					.compare(version, other.version, Ordering.natural().nullsFirst())
-					.result();
+			comp = Long.compareUnsigned(keyPrefix, other.keyPrefix);
+			if (comp == 0)
+			{
+				comp = Arrays.compareUnsigned(key, other.key);
+			}
 		}
 		return comp;
 	}
@@ -400,8 +592,7 @@ public class RequirementImpl implements Requirement, Comparable<RequirementImpl>
 		else if (obj instanceof RequirementImpl)
 		{
 			final RequirementImpl other = (RequirementImpl) obj;
-			equals = Objects.equals(id, other.id);
-			equals = equals && Objects.equals(version, other.version);
+			equals = keyHash == other.keyHash && keyPrefix == other.keyPrefix && Arrays.equals(key, other.key);
 		}
 		return equals;
 	}
@@ -414,7 +605,7 @@ public class RequirementImpl implements Requirement, Comparable<RequirementImpl>
 	@Override
 	public int hashCode()
 	{
-		return Objects.hash(id, version);
+		return keyHash;
 	}
 
 	/*
@@ -458,10 +649,11 @@ public class RequirementImpl implements Requirement, Comparable<RequirementImpl>
 				builder.append("\n");
 			}
 		}
-		if (!content.isEmpty())
+		final String value = getContent();
+		if (!value.isEmpty())
 		{
 			builder.append("\tContent:");
-			builder.append(content);
+			builder.append(value);
 		}
 
 		return builder.toString();
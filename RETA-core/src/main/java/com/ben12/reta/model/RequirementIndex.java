@@ -0,0 +1,102 @@
+// Package : com.ben12.reta.model
+// File : RequirementIndex.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Global index of the parsed requirements of all sources.<br>
+ * A reference is resolved with a single hash probe on its identifier and version, whatever the number of sources.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public final class RequirementIndex
+{
+	/** Requirements by identifier and version (see {@link RequirementImpl#equals(Object)}). */
+	private final Map<RequirementImpl, List<RequirementImpl>>	byIdVersion	= new HashMap<>();
+
+	/** Requirements by identifier, whatever their version. */
+	private final Map<String, List<RequirementImpl>>			byId		= new HashMap<>();
+
+	/** Requirements whose identifier is owned by several sources, by identifier. */
+	private final Map<String, List<RequirementImpl>>			duplicates	= new TreeMap<>();
+
+	/**
+	 * Build the index of the requirements of <code>sources</code>.
+	 * 
+	 * @param sources
+	 *            parsed requirement sources
+	 */
+	public RequirementIndex(final Collection<InputRequirementSource> sources)
+	{
+		for (final InputRequirementSource source : sources)
+		{
+			for (final RequirementImpl req : source.getRequirements())
+			{
+				byIdVersion.computeIfAbsent(req, k -> new ArrayList<>(1)).add(req);
+				byId.computeIfAbsent(req.getNormalizedId(), k -> new ArrayList<>(1)).add(req);
+			}
+		}
+
+		byId.forEach((id, reqs) -> {
+			final InputRequirementSource first = reqs.get(0).getSource();
+			if (reqs.stream().anyMatch(r -> r.getSource() != first))
+			{
+				duplicates.put(id, Collections.unmodifiableList(reqs));
+			}
+		});
+	}
+
+	/**
+	 * @param reference
+	 *            requirement reference
+	 * @return requirements having the identifier and version of <code>reference</code>, in all sources
+	 */
+	public List<RequirementImpl> get(final RequirementImpl reference)
+	{
+		final List<RequirementImpl> found = byIdVersion.get(reference);
+		return (found == null ? List.of() : Collections.unmodifiableList(found));
+	}
+
+	/**
+	 * @param id
+	 *            normalised requirement identifier (see {@link RequirementImpl#getNormalizedId()})
+	 * @return requirements having the normalised identifier, in all sources and versions
+	 */
+	public List<RequirementImpl> getById(final String id)
+	{
+		final List<RequirementImpl> found = byId.get(id);
+		return (found == null ? List.of() : Collections.unmodifiableList(found));
+	}
+
+	/**
+	 * @return requirements whose identifier is owned by several sources, by identifier
+	 */
+	public Map<String, List<RequirementImpl>> getDuplicates()
+	{
+		return Collections.unmodifiableMap(duplicates);
+	}
+}
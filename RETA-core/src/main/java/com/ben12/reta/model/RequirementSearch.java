@@ -0,0 +1,511 @@
+// Package : com.ben12.reta.model
+// File : RequirementSearch.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+import com.google.common.base.Splitter;
+
+import com.ben12.reta.api.SourceConfiguration;
+
+/**
+ * Search indexes of the analysed requirements, built once per analysis.<br>
+ * Requirement identifiers are indexed in a suffix array for prefix and substring searches, attribute values in sorted
+ * maps, and coverage states in an array. Search results are sets of requirement indexes in the {@link TraceGraph}.
+ * <p>
+ * Query syntax: terms separated by spaces, all of them must match (case insensitive):
+ * <ul>
+ * <li><code>abc</code>: identifier containing <code>abc</code>,</li>
+ * <li><code>abc*</code>: identifier starting with <code>abc</code>,</li>
+ * <li><code>name=value</code>: attribute <code>name</code> equal to <code>value</code>,</li>
+ * <li><code>name=value*</code>: attribute <code>name</code> starting with <code>value</code>.</li>
+ * </ul>
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public final class RequirementSearch
+{
+	/** Wild card ending prefix terms. */
+	private static final char								WILDCARD		= '*';
+
+	/** Separator of attribute name and value in attribute terms. */
+	private static final char								ATTRIBUTE_SEP	= '=';
+
+	/** Range size sorted by insertion. */
+	private static final int								INSERTION_SORT	= 16;
+
+	/** Query term splitter. */
+	private static final Splitter							TERMS			= Splitter.on(' ')
+			.trimResults()
+			.omitEmptyStrings();
+
+	/** Analysed traceability graph. */
+	private final TraceGraph								graph;
+
+	/** Lower case identifiers, each one followed by a <code>'\0'</code>. */
+	private final char[]									text;
+
+	/** Requirement index of each {@link #text} character. */
+	private final int[]										owners;
+
+	/** Suffix array: identifier suffix positions in {@link #text}, sorted. */
+	private final int[]										suffixes;
+
+	/** Sorted requirement indexes by lower case attribute value, by lower case attribute name. */
+	private final Map<String, NavigableMap<String, int[]>>	attributes		= new HashMap<>();
+
+	/** Coverage state ordinal of each requirement. */
+	private final byte[]									states;
+
+	/** First requirement index of each source. */
+	private final Map<InputRequirementSource, Integer>		sourceStarts	= new IdentityHashMap<>();
+
+	/**
+	 * @param theGraph
+	 *            analysed traceability graph
+	 */
+	public RequirementSearch(final TraceGraph theGraph)
+	{
+		graph = theGraph;
+		final int count = graph.size();
+
+		int length = 0;
+		for (int i = 0; i < count; i++)
+		{
+			length += graph.getRequirement(i).getId().length() + 1;
+		}
+		text = new char[length];
+		owners = new int[length];
+		states = new byte[count];
+
+		final Map<String, Map<String, List<Integer>>> values = new HashMap<>();
+		int position = 0;
+		for (int i = 0; i < count; i++)
+		{
+			final RequirementImpl req = graph.getRequirement(i);
+			sourceStarts.putIfAbsent(req.getSource(), i);
+			states[i] = (byte) CoverageState.of(req).ordinal();
+
+			final String id = req.getId().toLowerCase(Locale.ROOT);
+			id.getChars(0, id.length(), text, position);
+			for (int c = 0; c <= id.length(); c++)
+			{
+				owners[position++] = i;
+			}
+
+			for (final String name : req.getSource().getRequirementAttributes())
+			{
+				final String value = req.getAttribute(name);
+				if (!SourceConfiguration.ATTRIBUTE_TEXT.equals(name) && !SourceConfiguration.ATTRIBUTE_ID.equals(name)
+						&& value != null && !value.isEmpty())
+				{
+					values.computeIfAbsent(name.toLowerCase(Locale.ROOT), n -> new HashMap<>())
+							.computeIfAbsent(value.toLowerCase(Locale.ROOT), v -> new ArrayList<>())
+							.add(i);
+				}
+			}
+		}
+
+		values.forEach((name, byValue) -> {
+			final NavigableMap<String, int[]> sorted = new TreeMap<>();
+			byValue.forEach((value, reqs) -> sorted.put(value, reqs.stream().mapToInt(Integer::intValue).toArray()));
+			attributes.put(name, sorted);
+		});
+
+		// Bucket the suffixes by first character, then sort the buckets in parallel
+		final int[] bucketStarts = new int[Character.MAX_VALUE + 2];
+		for (final char c : text)
+		{
+			if (c != 0)
+			{
+				bucketStarts[c + 1]++;
+			}
+		}
+		for (int c = 0; c <= Character.MAX_VALUE; c++)
+		{
+			bucketStarts[c + 1] += bucketStarts[c];
+		}
+		suffixes = new int[bucketStarts[Character.MAX_VALUE + 1]];
+		final int[] fill = bucketStarts.clone();
+		for (int p = 0; p < length; p++)
+		{
+			if (text[p] != 0)
+			{
+				suffixes[fill[text[p]]++] = p;
+			}
+		}
+		IntStream.rangeClosed(1, Character.MAX_VALUE)
+				.filter(c -> bucketStarts[c + 1] - bucketStarts[c] > 1)
+				.parallel()
+				.forEach(c -> sort(bucketStarts[c], bucketStarts[c + 1], 1));
+	}
+
+	/**
+	 * @param query
+	 *            search query (see {@link RequirementSearch}), may be null
+	 * @param state
+	 *            searched coverage state, null for any state
+	 * @return indexes of the found requirements, null if neither query nor state is given
+	 */
+	public BitSet search(final String query, final CoverageState state)
+	{
+		BitSet result = null;
+		for (final String term : TERMS.split(query == null ? "" : query.toLowerCase(Locale.ROOT)))
+		{
+			final int sep = term.indexOf(ATTRIBUTE_SEP);
+			final BitSet found;
+			if (sep > 0)
+			{
+				found = searchAttribute(term.substring(0, sep), term.substring(sep + 1));
+			}
+			else if (term.length() > 1 && term.charAt(term.length() - 1) == WILDCARD)
+			{
+				found = searchId(term.substring(0, term.length() - 1), true);
+			}
+			else
+			{
+				found = searchId(term, false);
+			}
+
+			if (result == null)
+			{
+				result = found;
+			}
+			else
+			{
+				result.and(found);
+			}
+		}
+
+		return filter(result, state);
+	}
+
+	/**
+	 * Full text search in the requirement texts and contents.
+	 * 
+	 * @param query
+	 *            full text query (see {@link FullTextIndex}), may be null
+	 * @param state
+	 *            searched coverage state, null for any state
+	 * @return indexes of the found requirements, null if neither query nor state is given
+	 */
+	public BitSet searchContent(final String query, final CoverageState state)
+	{
+		BitSet result = null;
+		if (query != null && !query.isBlank())
+		{
+			result = new BitSet(states.length);
+			for (final InputRequirementSource source : graph.getSources())
+			{
+				final FullTextIndex index = source.getContentIndex();
+				final BitSet found = index.search(query);
+				for (int d = found.nextSetBit(0); d >= 0; d = found.nextSetBit(d + 1))
+				{
+					final RequirementImpl req = index.getDocument(d);
+					if (graph.contains(req))
+					{
+						result.set(req.getIndex());
+					}
+				}
+			}
+		}
+		return filter(result, state);
+	}
+
+	/**
+	 * @param found
+	 *            found requirement indexes, null for all requirements
+	 * @param state
+	 *            searched coverage state, null for any state
+	 * @return found requirement indexes having the coverage state, null if both are null
+	 */
+	private BitSet filter(final BitSet found, final CoverageState state)
+	{
+		BitSet result = found;
+		if (state != null)
+		{
+			final byte ordinal = (byte) state.ordinal();
+			if (result == null)
+			{
+				result = new BitSet(states.length);
+				for (int i = 0; i < states.length; i++)
+				{
+					if (states[i] == ordinal)
+					{
+						result.set(i);
+					}
+				}
+			}
+			else
+			{
+				for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1))
+				{
+					if (states[i] != ordinal)
+					{
+						result.clear(i);
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param result
+	 *            search result (see {@link #search(String, CoverageState)})
+	 * @param source
+	 *            requirement source
+	 * @return count of found requirements of the source
+	 */
+	public int count(final BitSet result, final InputRequirementSource source)
+	{
+		int count = 0;
+		final Integer start = sourceStarts.get(source);
+		if (start != null)
+		{
+			final int end = start + source.getRequirements().size();
+			for (int i = result.nextSetBit(start); i >= 0 && i < end; i = result.nextSetBit(i + 1))
+			{
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @param term
+	 *            lower case identifier part
+	 * @param prefix
+	 *            true if the identifier must start with <code>term</code>
+	 * @return indexes of the requirements whose identifier contains, or starts with, <code>term</code>
+	 */
+	private BitSet searchId(final String term, final boolean prefix)
+	{
+		final BitSet found = new BitSet(states.length);
+		final int to = bound(term, true);
+		for (int i = bound(term, false); i < to; i++)
+		{
+			final int p = suffixes[i];
+			if (!prefix || p == 0 || text[p - 1] == 0)
+			{
+				found.set(owners[p]);
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * @param name
+	 *            lower case attribute name
+	 * @param value
+	 *            lower case attribute value, ending with a wild card for a prefix search
+	 * @return indexes of the requirements having the attribute value
+	 */
+	private BitSet searchAttribute(final String name, final String value)
+	{
+		final BitSet found = new BitSet(states.length);
+		final NavigableMap<String, int[]> byValue = attributes.get(name);
+		if (byValue != null)
+		{
+			final Map<String, int[]> matching;
+			if (!value.isEmpty() && value.charAt(value.length() - 1) == WILDCARD)
+			{
+				final String start = value.substring(0, value.length() - 1);
+				matching = byValue.subMap(start, true, start + Character.MAX_VALUE, false);
+			}
+			else
+			{
+				final int[] reqs = byValue.get(value);
+				matching = (reqs == null ? Map.of() : Map.of(value, reqs));
+			}
+			matching.values().forEach(reqs -> {
+				for (final int i : reqs)
+				{
+					found.set(i);
+				}
+			});
+		}
+		return found;
+	}
+
+	/**
+	 * Binary search in the suffix array.
+	 * 
+	 * @param term
+	 *            searched suffix start
+	 * @param upper
+	 *            true for the upper bound, false for the lower bound
+	 * @return first suffix array position whose suffix is greater than, or starts with if <code>upper</code> is false,
+	 *         <code>term</code>
+	 */
+	private int bound(final String term, final boolean upper)
+	{
+		int low = 0;
+		int high = suffixes.length;
+		while (low < high)
+		{
+			final int mid = (low + high) >>> 1;
+			final int cmp = compareStart(suffixes[mid], term);
+			if (cmp < 0 || (upper && cmp == 0))
+			{
+				low = mid + 1;
+			}
+			else
+			{
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @param position
+	 *            suffix position in {@link #text}
+	 * @param term
+	 *            searched suffix start
+	 * @return negative if the suffix is less than <code>term</code>, 0 if it starts with <code>term</code>, positive
+	 *         otherwise
+	 */
+	private int compareStart(final int position, final String term)
+	{
+		int cmp = 0;
+		for (int k = 0; cmp == 0 && k < term.length(); k++)
+		{
+			cmp = text[position + k] - term.charAt(k);
+		}
+		return cmp;
+	}
+
+	/**
+	 * Multi-key quick sort of a suffix array range, whose suffixes share their first <code>depth</code> characters.
+	 * 
+	 * @param from
+	 *            first suffix array position
+	 * @param to
+	 *            suffix array position after the last one
+	 * @param depth
+	 *            count of common first characters
+	 */
+	private void sort(final int from, final int to, final int depth)
+	{
+		int lo = from;
+		int hi = to;
+		int d = depth;
+		boolean sorted = false;
+		while (!sorted && hi - lo > 1)
+		{
+			if (hi - lo < INSERTION_SORT)
+			{
+				insertionSort(lo, hi, d);
+				sorted = true;
+			}
+			else
+			{
+				final char pivot = text[suffixes[lo + ((hi - lo) >>> 1)] + d];
+				int lt = lo;
+				int gt = hi - 1;
+				int i = lo;
+				while (i <= gt)
+				{
+					final char c = text[suffixes[i] + d];
+					if (c < pivot)
+					{
+						swap(lt++, i++);
+					}
+					else if (c > pivot)
+					{
+						swap(i, gt--);
+					}
+					else
+					{
+						i++;
+					}
+				}
+				sort(lo, lt, d);
+				sort(gt + 1, hi, d);
+				// Suffixes equal up to the identifier end are equal
+				sorted = (pivot == 0);
+				lo = lt;
+				hi = gt + 1;
+				d++;
+			}
+		}
+	}
+
+	/**
+	 * @param from
+	 *            first suffix array position
+	 * @param to
+	 *            suffix array position after the last one
+	 * @param depth
+	 *            count of common first characters
+	 */
+	private void insertionSort(final int from, final int to, final int depth)
+	{
+		for (int i = from + 1; i < to; i++)
+		{
+			for (int j = i; j > from && compareSuffixes(suffixes[j - 1], suffixes[j], depth) > 0; j--)
+			{
+				swap(j - 1, j);
+			}
+		}
+	}
+
+	/**
+	 * @param a
+	 *            first suffix position
+	 * @param b
+	 *            second suffix position
+	 * @param depth
+	 *            count of common first characters
+	 * @return comparison of the suffixes up to their identifier end
+	 */
+	private int compareSuffixes(final int a, final int b, final int depth)
+	{
+		int d = depth;
+		while (text[a + d] == text[b + d] && text[a + d] != 0)
+		{
+			d++;
+		}
+		return text[a + d] - text[b + d];
+	}
+
+	/**
+	 * @param i
+	 *            first suffix array position
+	 * @param j
+	 *            second suffix array position
+	 */
+	private void swap(final int i, final int j)
+	{
+		final int tmp = suffixes[i];
+		suffixes[i] = suffixes[j];
+		suffixes[j] = tmp;
+	}
+}
@@ -0,0 +1,397 @@
+// Package : com.ben12.reta.model
+// File : TraceGraph.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.logging.Logger;
+
+/**
+ * Indexed view of the analysed traceability graph.<br>
+ * Requirements are numbered following the topological order of the "covers" relation between sources, and the
+ * transitive closure of the "referred by" relation is kept as one bit set of covering sources per requirement.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public final class TraceGraph
+{
+	/** {@link TraceGraph} logger. */
+	private static final Logger					LOGGER	= Logger.getLogger(TraceGraph.class.getName());
+
+	/** Sources in topological order (covering sources first). */
+	private final List<InputRequirementSource>	sources;
+
+	/** Source index by source. */
+	private final Map<InputRequirementSource, Integer>	sourceIndexes;
+
+	/** Requirements by index. */
+	private final RequirementImpl[]				requirements;
+
+	/** Source index of each requirement. */
+	private final int[]							requirementSources;
+
+	/** First requirement index of each source, followed by the requirement count. */
+	private final int[]							sourceStarts;
+
+	/** First "referred by" edge of each requirement in {@link #referredBy} (CSR layout). */
+	private final int[]							referredByStart;
+
+	/** "Referred by" edges target requirement indexes. */
+	private final int[]							referredBy;
+
+	/** Long words per requirement in {@link #closure}. */
+	private final int							words;
+
+	/** Transitive covering sources bit set matrix, {@link #words} longs per requirement. */
+	private final long[]						closure;
+
+	/**
+	 * Build the graph and compute the transitive closure of the analysed sources.
+	 * 
+	 * @param allSources
+	 *            analysed requirement sources
+	 */
+	public TraceGraph(final List<InputRequirementSource> allSources)
+	{
+		sources = topologicalOrder(allSources);
+		sourceIndexes = new HashMap<>();
+		for (int i = 0; i < sources.size(); i++)
+		{
+			sourceIndexes.put(sources.get(i), i);
+		}
+
+		final int count = sources.stream().mapToInt(s -> s.getRequirements().size()).sum();
+		requirements = new RequirementImpl[count];
+		requirementSources = new int[count];
+		sourceStarts = new int[sources.size() + 1];
+		int index = 0;
+		for (int s = 0; s < sources.size(); s++)
+		{
+			sourceStarts[s] = index;
+			for (final RequirementImpl req : sources.get(s).getRequirements())
+			{
+				req.setIndex(index);
+				requirements[index] = req;
+				requirementSources[index] = s;
+				index++;
+			}
+		}
+		sourceStarts[sources.size()] = count;
+
+		referredByStart = new int[count + 1];
+		final var edges = new ArrayList<int[]>(count);
+		int edgeCount = 0;
+		for (int i = 0; i < count; i++)
+		{
+			final int[] targets = requirements[i].getReferredByRequirement()
+					.stream()
+					.filter(r -> r.getSource() != null && r.getIndex() >= 0 && requirements[r.getIndex()] == r)
+					.mapToInt(RequirementImpl::getIndex)
+					.toArray();
+			edges.add(targets);
+			referredByStart[i] = edgeCount;
+			edgeCount += targets.length;
+		}
+		referredByStart[count] = edgeCount;
+		referredBy = new int[edgeCount];
+		for (int i = 0; i < count; i++)
+		{
+			System.arraycopy(edges.get(i), 0, referredBy, referredByStart[i], edges.get(i).length);
+		}
+
+		words = Math.max(1, (sources.size() + 63) >>> 6);
+		closure = new long[count * words];
+		computeClosure();
+		computeCoverageRates();
+	}
+
+	/**
+	 * Sort sources so that every source comes before the sources it covers.<br>
+	 * Sources involved in a "covers" cycle are appended at the end in their original order.
+	 * 
+	 * @param allSources
+	 *            sources to sort
+	 * @return sorted sources
+	 */
+	private static List<InputRequirementSource> topologicalOrder(final List<InputRequirementSource> allSources)
+	{
+		final Map<InputRequirementSource, Integer> inDegree = new LinkedHashMap<>();
+		allSources.forEach(s -> inDegree.put(s, 0));
+		for (final InputRequirementSource source : allSources)
+		{
+			for (final InputRequirementSource cover : source.getCovers())
+			{
+				inDegree.computeIfPresent(cover, (k, v) -> v + 1);
+			}
+		}
+
+		final List<InputRequirementSource> order = new ArrayList<>(allSources.size());
+		final ArrayDeque<InputRequirementSource> ready = new ArrayDeque<>();
+		inDegree.forEach((s, d) -> {
+			if (d == 0)
+			{
+				ready.add(s);
+			}
+		});
+		while (!ready.isEmpty())
+		{
+			final InputRequirementSource source = ready.poll();
+			order.add(source);
+			for (final InputRequirementSource cover : source.getCovers())
+			{
+				if (Integer.valueOf(0).equals(inDegree.computeIfPresent(cover, (k, v) -> v - 1)))
+				{
+					ready.add(cover);
+				}
+			}
+		}
+
+		if (order.size() < allSources.size())
+		{
+			allSources.stream().filter(s -> !order.contains(s)).forEach(s -> {
+				LOGGER.warning(s.getName() + " is part of a covers cycle");
+				order.add(s);
+			});
+		}
+		return order;
+	}
+
+	/**
+	 * Compute the covering sources bit set of every requirement.<br>
+	 * In topological order, all requirements referring a requirement are already complete when it is reached, so a
+	 * single pass over the edges is enough. Requirements in cycles are iterated until stable.
+	 */
+	private void computeClosure()
+	{
+		final boolean cyclic = hasCycle();
+		boolean changed;
+		do
+		{
+			changed = false;
+			for (int r = 0; r < requirements.length; r++)
+			{
+				final int base = r * words;
+				for (int e = referredByStart[r]; e < referredByStart[r + 1]; e++)
+				{
+					final int q = referredBy[e];
+					final int qBase = q * words;
+					final int s = requirementSources[q];
+					final long bit = closure[base + (s >>> 6)] | (1L << s);
+					changed |= bit != closure[base + (s >>> 6)];
+					closure[base + (s >>> 6)] = bit;
+					for (int w = 0; w < words; w++)
+					{
+						final long merged = closure[base + w] | closure[qBase + w];
+						changed |= merged != closure[base + w];
+						closure[base + w] = merged;
+					}
+				}
+			}
+		}
+		while (cyclic && changed);
+	}
+
+	/**
+	 * @return true if a "covers" cycle exists between sources
+	 */
+	private boolean hasCycle()
+	{
+		for (int s = 0; s < sources.size(); s++)
+		{
+			for (final InputRequirementSource cover : sources.get(s).getCovers())
+			{
+				final Integer c = sourceIndexes.get(cover);
+				if (c != null && c <= s)
+				{
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Compute {@link InputRequirementSource#getTransitiveCoversBy()} of every source.
+	 */
+	private void computeCoverageRates()
+	{
+		int r = 0;
+		for (final InputRequirementSource source : sources)
+		{
+			final int size = source.getRequirements().size();
+			final int[] counts = new int[sources.size()];
+			for (int i = 0; i < size; i++, r++)
+			{
+				final int base = r * words;
+				for (int s = 0; s < sources.size(); s++)
+				{
+					if ((closure[base + (s >>> 6)] & (1L << s)) != 0)
+					{
+						counts[s]++;
+					}
+				}
+			}
+
+			source.setTraceGraph(this);
+			final Map<InputRequirementSource, Double> rates = source.getTransitiveCoversBy();
+			rates.clear();
+			for (int s = 0; s < sources.size(); s++)
+			{
+				if (counts[s] > 0 || source.getCoversBy().containsKey(sources.get(s)))
+				{
+					rates.put(sources.get(s), (double) counts[s] / size);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return sources in topological order (covering sources first)
+	 */
+	public List<InputRequirementSource> getSources()
+	{
+		return Collections.unmodifiableList(sources);
+	}
+
+	/**
+	 * @return indexed requirement count
+	 */
+	public int size()
+	{
+		return requirements.length;
+	}
+
+	/**
+	 * @param index
+	 *            requirement index
+	 * @return the requirement
+	 */
+	public RequirementImpl getRequirement(final int index)
+	{
+		return requirements[index];
+	}
+
+	/**
+	 * @param source
+	 *            requirement source
+	 * @return requirements of the source indexed by this graph, in source order; empty if the source is not analysed
+	 */
+	public List<RequirementImpl> getRequirements(final InputRequirementSource source)
+	{
+		final Integer s = sourceIndexes.get(source);
+		return (s == null ? List.of()
+				: Collections.unmodifiableList(Arrays.asList(requirements).subList(sourceStarts[s], sourceStarts[s + 1])));
+	}
+
+	/**
+	 * @param req
+	 *            requirement
+	 * @return true if the requirement is indexed by this graph
+	 */
+	public boolean contains(final RequirementImpl req)
+	{
+		final int index = req.getIndex();
+		return index >= 0 && index < requirements.length && requirements[index] == req;
+	}
+
+	/**
+	 * @return "referred by" link count
+	 */
+	public int getLinkCount()
+	{
+		return referredBy.length;
+	}
+
+	/**
+	 * @param index
+	 *            requirement index
+	 * @return indexes of the requirements directly referring the requirement
+	 */
+	public int[] getReferredBy(final int index)
+	{
+		return Arrays.copyOfRange(referredBy, referredByStart[index], referredByStart[index + 1]);
+	}
+
+	/**
+	 * @param index
+	 *            requirement index
+	 * @param action
+	 *            action called with the index of each requirement directly referring the requirement
+	 */
+	public void forEachReferredBy(final int index, final IntConsumer action)
+	{
+		for (int e = referredByStart[index]; e < referredByStart[index + 1]; e++)
+		{
+			action.accept(referredBy[e]);
+		}
+	}
+
+	/**
+	 * @param index
+	 *            requirement index
+	 * @return source index of the requirement in {@link #getSources()}
+	 */
+	public int getSourceIndex(final int index)
+	{
+		return requirementSources[index];
+	}
+
+	/**
+	 * @param req
+	 *            requirement
+	 * @param coverSource
+	 *            covering source
+	 * @return true if the requirement is directly or transitively covered by <code>coverSource</code>
+	 */
+	public boolean isTransitivelyCoveredBy(final RequirementImpl req, final InputRequirementSource coverSource)
+	{
+		final Integer s = sourceIndexes.get(coverSource);
+		return s != null && contains(req) && (closure[req.getIndex() * words + (s >>> 6)] & (1L << s)) != 0;
+	}
+
+	/**
+	 * @param req
+	 *            requirement
+	 * @return sources directly or transitively covering the requirement, in topological order
+	 */
+	public List<InputRequirementSource> getTransitiveCoverage(final RequirementImpl req)
+	{
+		final List<InputRequirementSource> result = new ArrayList<>();
+		if (contains(req))
+		{
+			final int base = req.getIndex() * words;
+			for (int s = 0; s < sources.size(); s++)
+			{
+				if ((closure[base + (s >>> 6)] & (1L << s)) != 0)
+				{
+					result.add(sources.get(s));
+				}
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,37 @@
+// Package : com.ben12.reta.model
+// File : UnknownReferenceKind.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.model;
+
+/**
+ * Classification of a requirement reference not resolved by the analysis.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public enum UnknownReferenceKind
+{
+	/** The requirement identifier exists in a covered source, but not with the referenced version. */
+	VERSION_MISMATCH,
+
+	/** The requirement identifier exists only in sources not covered by the referencing source. */
+	NOT_COVERED_SOURCE,
+
+	/** The requirement identifier does not exist in any source. */
+	UNKNOWN;
+}
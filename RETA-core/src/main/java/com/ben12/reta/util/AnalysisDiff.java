@@ -0,0 +1,463 @@
+// Package : com.ben12.reta.util
+// File : AnalysisDiff.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import com.google.common.hash.Hashing;
+
+import com.ben12.reta.model.AnalysisSnapshot;
+import com.ben12.reta.model.CoverageState;
+import com.ben12.reta.model.InputRequirementSource;
+import com.ben12.reta.model.RequirementImpl;
+
+/**
+ * Run-to-run comparison of an analysis result with a baseline {@link AnalysisSnapshot}: requirements added, removed or
+ * whose content changed, requirements no longer covered, new unknown references and coverage rate deltas.
+ * <p>
+ * Requirements are matched by a 64 bits hash of their {@link ImpactAnalysis#contentKey(RequirementImpl)} and compared
+ * by their content hash ({@link RequirementImpl#getContentHash()}). Both hash sequences are sorted by a radix sort,
+ * then merged: the comparison is linear in the requirement count.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public final class AnalysisDiff
+{
+	/** Baseline analysis result. */
+	private final AnalysisSnapshot								baseline;
+
+	/** Requirements added since the baseline, in analysis order. */
+	private final List<RequirementImpl>							added				= new ArrayList<>();
+
+	/** Requirements whose content changed since the baseline, in analysis order. */
+	private final List<RequirementImpl>							changed				= new ArrayList<>();
+
+	/** Requirements uncovered, but not in the baseline, in analysis order. */
+	private final List<RequirementImpl>							uncovered			= new ArrayList<>();
+
+	/** New unknown references, by referring requirement. */
+	private final Map<RequirementImpl, List<RequirementImpl>>	unknownReferences	= new LinkedHashMap<>();
+
+	/** Coverage rate deltas. */
+	private final List<CoverageDelta>							coverageDeltas		= new ArrayList<>();
+
+	/** Baseline indexes of the requirements removed since the baseline. */
+	private final int[]											removed;
+
+	/**
+	 * @param theBaseline
+	 *            baseline analysis result
+	 * @param sources
+	 *            analysed requirement sources
+	 */
+	public AnalysisDiff(final AnalysisSnapshot theBaseline, final List<InputRequirementSource> sources)
+	{
+		baseline = theBaseline;
+		final List<RequirementImpl> requirements = new ArrayList<>();
+		sources.forEach(s -> requirements.addAll(s.getRequirements()));
+		removed = compareRequirements(requirements);
+		compareUnknownReferences(requirements);
+		compareCoverage(sources);
+	}
+
+	/**
+	 * @return baseline analysis result
+	 */
+	public AnalysisSnapshot getBaseline()
+	{
+		return baseline;
+	}
+
+	/**
+	 * @return requirements added since the baseline, in analysis order
+	 */
+	public List<RequirementImpl> getAdded()
+	{
+		return Collections.unmodifiableList(added);
+	}
+
+	/**
+	 * @return baseline indexes of the requirements removed since the baseline, in baseline order
+	 */
+	public int[] getRemoved()
+	{
+		return removed.clone();
+	}
+
+	/**
+	 * @return requirements whose content changed since the baseline, in analysis order
+	 */
+	public List<RequirementImpl> getChanged()
+	{
+		return Collections.unmodifiableList(changed);
+	}
+
+	/**
+	 * @return requirements {@link CoverageState#UNCOVERED} which were covered or partially covered in the baseline, in
+	 *         analysis order
+	 */
+	public List<RequirementImpl> getNewlyUncovered()
+	{
+		return Collections.unmodifiableList(uncovered);
+	}
+
+	/**
+	 * @return unknown references not in the baseline, by referring requirement
+	 */
+	public Map<RequirementImpl, List<RequirementImpl>> getNewUnknownReferences()
+	{
+		return Collections.unmodifiableMap(unknownReferences);
+	}
+
+	/**
+	 * @return coverage rate deltas of the sources, by source and covering source
+	 */
+	public List<CoverageDelta> getCoverageDeltas()
+	{
+		return Collections.unmodifiableList(coverageDeltas);
+	}
+
+	/**
+	 * @return true if a requirement is newly uncovered, if a new unknown reference appeared or if a coverage rate
+	 *         decreased
+	 */
+	public boolean isRegression()
+	{
+		return !uncovered.isEmpty() || !unknownReferences.isEmpty()
+				|| coverageDeltas.stream().anyMatch(CoverageDelta::isRegression);
+	}
+
+	/**
+	 * Merge the sorted requirement key hashes of the analysis and the baseline.
+	 * 
+	 * @param requirements
+	 *            analysed requirements
+	 * @return baseline indexes of the removed requirements
+	 */
+	private int[] compareRequirements(final List<RequirementImpl> requirements)
+	{
+		final long[] keys = new long[requirements.size()];
+		for (int i = 0; i < keys.length; i++)
+		{
+			keys[i] = hash(ImpactAnalysis.contentKey(requirements.get(i)));
+		}
+		final long[] baselineKeys = new long[baseline.getRequirementCount()];
+		for (int r = 0; r < baselineKeys.length; r++)
+		{
+			baselineKeys[r] = hash(baselineKey(r));
+		}
+
+		final int[] order = sortByKey(keys);
+		final int[] baselineOrder = sortByKey(baselineKeys);
+		final BitSet addedSet = new BitSet(keys.length);
+		final BitSet changedSet = new BitSet(keys.length);
+		final BitSet uncoveredSet = new BitSet(keys.length);
+		final BitSet removedSet = new BitSet(baselineKeys.length);
+		int i = 0;
+		int b = 0;
+		while (i < order.length || b < baselineOrder.length)
+		{
+			final int comp;
+			if (i == order.length)
+			{
+				comp = 1;
+			}
+			else if (b == baselineOrder.length)
+			{
+				comp = -1;
+			}
+			else
+			{
+				comp = Long.compareUnsigned(keys[order[i]], baselineKeys[baselineOrder[b]]);
+			}
+
+			if (comp < 0)
+			{
+				addedSet.set(order[i++]);
+			}
+			else if (comp > 0)
+			{
+				removedSet.set(baselineOrder[b++]);
+			}
+			else
+			{
+				final int index = order[i++];
+				final int r = baselineOrder[b++];
+				final RequirementImpl req = requirements.get(index);
+				if (req.getContentHash() != baseline.getRequirementContentHash(r))
+				{
+					changedSet.set(index);
+				}
+				if (CoverageState.of(req) == CoverageState.UNCOVERED
+						&& baseline.getRequirementCoverage(r) != CoverageState.UNCOVERED)
+				{
+					uncoveredSet.set(index);
+				}
+			}
+		}
+
+		addedSet.stream().forEach(index -> added.add(requirements.get(index)));
+		changedSet.stream().forEach(index -> changed.add(requirements.get(index)));
+		uncoveredSet.stream().forEach(index -> uncovered.add(requirements.get(index)));
+		return removedSet.stream().toArray();
+	}
+
+	/**
+	 * Merge the sorted (referring requirement, reference) key hashes of the unknown references of the analysis and the
+	 * baseline.
+	 * 
+	 * @param requirements
+	 *            analysed requirements
+	 */
+	private void compareUnknownReferences(final List<RequirementImpl> requirements)
+	{
+		final List<RequirementImpl> referring = new ArrayList<>();
+		final List<RequirementImpl> references = new ArrayList<>();
+		final LongStream.Builder keyBuilder = LongStream.builder();
+		for (final RequirementImpl req : requirements)
+		{
+			final String key = ImpactAnalysis.contentKey(req);
+			for (final RequirementImpl ref : req.getReferences())
+			{
+				if (ref.getSource() == null)
+				{
+					referring.add(req);
+					references.add(ref);
+					keyBuilder.add(hash(key + '\0' + ref.getId() + '\0' + ref.getVersion()));
+				}
+			}
+		}
+		final LongStream.Builder baselineKeyBuilder = LongStream.builder();
+		for (int r = 0; r < baseline.getRequirementCount(); r++)
+		{
+			final String key = baselineKey(r);
+			baseline.forEachUnknownReference(r, u -> baselineKeyBuilder
+					.add(hash(key + '\0' + baseline.getReferenceId(u) + '\0' + baseline.getReferenceVersion(u))));
+		}
+
+		final long[] keys = keyBuilder.build().toArray();
+		final long[] baselineKeys = baselineKeyBuilder.build().toArray();
+		final int[] order = sortByKey(keys);
+		final int[] baselineOrder = sortByKey(baselineKeys);
+		final BitSet newSet = new BitSet(keys.length);
+		int b = 0;
+		for (final int index : order)
+		{
+			while (b < baselineOrder.length && Long.compareUnsigned(baselineKeys[baselineOrder[b]], keys[index]) < 0)
+			{
+				b++;
+			}
+			if (b == baselineOrder.length || baselineKeys[baselineOrder[b]] != keys[index])
+			{
+				newSet.set(index);
+			}
+		}
+
+		newSet.stream()
+				.forEach(index -> unknownReferences.computeIfAbsent(referring.get(index), r -> new ArrayList<>())
+						.add(references.get(index)));
+	}
+
+	/**
+	 * Compare the coverage rates of the sources with the baseline ones, matching the sources by name.
+	 * 
+	 * @param sources
+	 *            analysed requirement sources
+	 */
+	private void compareCoverage(final List<InputRequirementSource> sources)
+	{
+		final Map<String, Integer> baselineSources = new HashMap<>();
+		for (int s = 0; s < baseline.getSourceCount(); s++)
+		{
+			baselineSources.put(baseline.getSourceName(s), s);
+		}
+
+		for (final InputRequirementSource source : sources)
+		{
+			final Integer s = baselineSources.remove(source.getName());
+			final Map<String, Double> baselineRates = (s == null ? Map.of() : baseline.getSourceCoversBy(s));
+			final Map<String, Double> rates = new LinkedHashMap<>();
+			source.getCoversBy().forEach((covering, rate) -> rates.put(covering.getName(), rate));
+			rates.forEach((covering, rate) -> coverageDeltas.add(new CoverageDelta(source.getName(), covering,
+					baselineRates.getOrDefault(covering, Double.NaN), rate)));
+			baselineRates.forEach((covering, rate) -> {
+				if (!rates.containsKey(covering))
+				{
+					coverageDeltas.add(new CoverageDelta(source.getName(), covering, rate, Double.NaN));
+				}
+			});
+		}
+
+		for (int s = 0; s < baseline.getSourceCount(); s++)
+		{
+			final String name = baseline.getSourceName(s);
+			if (baselineSources.containsKey(name))
+			{
+				baseline.getSourceCoversBy(s)
+						.forEach((covering, rate) -> coverageDeltas
+								.add(new CoverageDelta(name, covering, rate, Double.NaN)));
+			}
+		}
+	}
+
+	/**
+	 * @param requirement
+	 *            baseline requirement index
+	 * @return key identifying the baseline requirement (see {@link ImpactAnalysis#contentKey(String, String, String)})
+	 */
+	private String baselineKey(final int requirement)
+	{
+		return ImpactAnalysis.contentKey(baseline.getSourceName(baseline.getRequirementSource(requirement)),
+				baseline.getRequirementId(requirement), baseline.getRequirementVersion(requirement));
+	}
+
+	/**
+	 * @param key
+	 *            requirement key
+	 * @return 64 bits hash of the key
+	 */
+	private static long hash(final String key)
+	{
+		return Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asLong();
+	}
+
+	/**
+	 * Least significant byte first radix sort, linear in the key count.
+	 * 
+	 * @param keys
+	 *            key hashes
+	 * @return key indexes, by unsigned key order
+	 */
+	static int[] sortByKey(final long[] keys)
+	{
+		int[] order = new int[keys.length];
+		Arrays.setAll(order, i -> i);
+		int[] buffer = new int[keys.length];
+		final int[] counts = new int[257];
+		for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE)
+		{
+			Arrays.fill(counts, 0);
+			for (final int index : order)
+			{
+				counts[(int) ((keys[index] >>> shift) & 0xFF) + 1]++;
+			}
+			for (int d = 0; d < 256; d++)
+			{
+				counts[d + 1] += counts[d];
+			}
+			for (final int index : order)
+			{
+				buffer[counts[(int) ((keys[index] >>> shift) & 0xFF)]++] = index;
+			}
+			final int[] sorted = buffer;
+			buffer = order;
+			order = sorted;
+		}
+		return order;
+	}
+
+	/**
+	 * Coverage rate delta of a source by a covering source.
+	 * 
+	 * @author Benot Moreau (ben.12)
+	 */
+	public static final class CoverageDelta
+	{
+		/** Covered source name. */
+		private final String	source;
+
+		/** Covering source name. */
+		private final String	coveringSource;
+
+		/** Baseline coverage rate, NaN if the source was not covered by the covering source. */
+		private final double	baselineRate;
+
+		/** Coverage rate, NaN if the source is no more covered by the covering source. */
+		private final double	rate;
+
+		/**
+		 * @param theSource
+		 *            covered source name
+		 * @param theCoveringSource
+		 *            covering source name
+		 * @param theBaselineRate
+		 *            baseline coverage rate, NaN if the source was not covered by the covering source
+		 * @param theRate
+		 *            coverage rate, NaN if the source is no more covered by the covering source
+		 */
+		CoverageDelta(final String theSource, final String theCoveringSource, final double theBaselineRate,
+				final double theRate)
+		{
+			source = theSource;
+			coveringSource = theCoveringSource;
+			baselineRate = theBaselineRate;
+			rate = theRate;
+		}
+
+		/**
+		 * @return covered source name
+		 */
+		public String getSource()
+		{
+			return source;
+		}
+
+		/**
+		 * @return covering source name
+		 */
+		public String getCoveringSource()
+		{
+			return coveringSource;
+		}
+
+		/**
+		 * @return baseline coverage rate, NaN if the source was not covered by the covering source
+		 */
+		public double getBaselineRate()
+		{
+			return baselineRate;
+		}
+
+		/**
+		 * @return coverage rate, NaN if the source is no more covered by the covering source
+		 */
+		public double getRate()
+		{
+			return rate;
+		}
+
+		/**
+		 * @return true if the coverage rate decreased, or if the coverage is lost (no more covering or removed source)
+		 */
+		public boolean isRegression()
+		{
+			return Double.isNaN(rate) ? !Double.isNaN(baselineRate) : rate < baselineRate;
+		}
+	}
+}
@@ -0,0 +1,211 @@
+// Package : com.ben12.reta.util
+// File : ImpactAnalysis.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.util;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.ben12.reta.model.InputRequirementSource;
+import com.ben12.reta.model.RequirementImpl;
+import com.ben12.reta.model.TraceGraph;
+
+/**
+ * Change impact analysis: find the requirements directly or transitively referring a set of changed requirements.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public final class ImpactAnalysis
+{
+	/** Analysed traceability graph. */
+	private final TraceGraph					graph;
+
+	/** Requirement indexes by normalised requirement identifier (see {@link RequirementImpl#getNormalizedId()}). */
+	private final Map<String, int[]>			idIndex	= new HashMap<>();
+
+	/** Analysed requirement sources, whose identifier normalisations apply to the searched identifiers. */
+	private final Set<InputRequirementSource>	sources	= new LinkedHashSet<>();
+
+	/**
+	 * @param theGraph
+	 *            analysed traceability graph
+	 */
+	public ImpactAnalysis(final TraceGraph theGraph)
+	{
+		graph = theGraph;
+		for (int i = 0; i < graph.size(); i++)
+		{
+			final int index = i;
+			final RequirementImpl req = graph.getRequirement(i);
+			sources.add(req.getSource());
+			idIndex.merge(req.getNormalizedId(), new int[] { index }, (a, b) -> {
+				final int[] merged = new int[a.length + 1];
+				System.arraycopy(a, 0, merged, 0, a.length);
+				merged[a.length] = index;
+				return merged;
+			});
+		}
+	}
+
+	/**
+	 * @param req
+	 *            requirement
+	 * @return key identifying the requirement between two analyses
+	 */
+	public static String contentKey(final RequirementImpl req)
+	{
+		return contentKey(req.getSource().getName(), req.getId(), req.getVersion());
+	}
+
+	/**
+	 * @param source
+	 *            requirement source name
+	 * @param id
+	 *            requirement identifier
+	 * @param version
+	 *            requirement version
+	 * @return key identifying the requirement between two analyses
+	 */
+	public static String contentKey(final String source, final String id, final String version)
+	{
+		return source + '\0' + id + '\0' + version;
+	}
+
+	/**
+	 * @param sources
+	 *            analysed requirement sources
+	 * @return content hash of each requirement by {@link #contentKey(RequirementImpl)}
+	 */
+	public static Map<String, Long> contentHashes(final Collection<InputRequirementSource> sources)
+	{
+		final Map<String, Long> hashes = new HashMap<>();
+		for (final InputRequirementSource source : sources)
+		{
+			for (final RequirementImpl req : source.getRequirements())
+			{
+				hashes.put(contentKey(req), req.getContentHash());
+			}
+		}
+		return hashes;
+	}
+
+	/**
+	 * @param ids
+	 *            requirement identifiers, normalised as the identifiers of each source (see
+	 *            {@link InputRequirementSource#getIdNormalization()})
+	 * @return requirements having one of the identifiers, whatever their source and version
+	 */
+	public List<RequirementImpl> findById(final Collection<String> ids)
+	{
+		final List<RequirementImpl> found = new ArrayList<>();
+		for (final String id : ids)
+		{
+			for (final InputRequirementSource source : sources)
+			{
+				final int[] indexes = idIndex.get(source.getIdNormalization().normalize(id));
+				if (indexes != null)
+				{
+					for (final int index : indexes)
+					{
+						final RequirementImpl req = graph.getRequirement(index);
+						if (req.getSource() == source)
+						{
+							found.add(req);
+						}
+					}
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * @param previousHashes
+	 *            content hashes of a previous analysis (see {@link #contentHashes(Collection)})
+	 * @return requirements added or whose content changed since the previous analysis
+	 */
+	public List<RequirementImpl> findChanged(final Map<String, Long> previousHashes)
+	{
+		final List<RequirementImpl> changed = new ArrayList<>();
+		for (int i = 0; i < graph.size(); i++)
+		{
+			final RequirementImpl req = graph.getRequirement(i);
+			final Long previous = previousHashes.get(contentKey(req));
+			if (previous == null || previous.longValue() != req.getContentHash())
+			{
+				changed.add(req);
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Breadth first traversal of the "referred by" relation from the changed requirements.
+	 * 
+	 * @param changed
+	 *            changed requirements
+	 * @return requirements directly or transitively referring a changed requirement, grouped by source in
+	 *         topological order
+	 */
+	public Map<InputRequirementSource, List<RequirementImpl>> impact(final Collection<RequirementImpl> changed)
+	{
+		final BitSet visited = new BitSet(graph.size());
+		final BitSet impacted = new BitSet(graph.size());
+		final int[] queue = new int[graph.size()];
+		int head = 0;
+		int tail = 0;
+		for (final RequirementImpl req : changed)
+		{
+			if (graph.contains(req) && !visited.get(req.getIndex()))
+			{
+				visited.set(req.getIndex());
+				queue[tail++] = req.getIndex();
+			}
+		}
+
+		while (head < tail)
+		{
+			final int[] next = { tail };
+			graph.forEachReferredBy(queue[head++], q -> {
+				impacted.set(q);
+				if (!visited.get(q))
+				{
+					visited.set(q);
+					queue[next[0]++] = q;
+				}
+			});
+			tail = next[0];
+		}
+
+		final Map<InputRequirementSource, List<RequirementImpl>> result = new LinkedHashMap<>();
+		for (int i = impacted.nextSetBit(0); i >= 0; i = impacted.nextSetBit(i + 1))
+		{
+			final RequirementImpl req = graph.getRequirement(i);
+			result.computeIfAbsent(req.getSource(), s -> new ArrayList<>()).add(req);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,73 @@
+// Package : com.ben12.reta.util
+// File : OutputFileLockedException.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The output file could not be replaced by the completely written temporary file, usually because it is opened in
+ * another application. The temporary file is kept: the replacement may be retried with
+ * {@link RETAAnalysis#replaceOutput(Path, File)} once the output file is closed, or the temporary file deleted.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public class OutputFileLockedException extends IOException
+{
+	private static final long		serialVersionUID	= 2837519034425816217L;
+
+	/** Written temporary file. */
+	private final transient Path	temporaryFile;
+
+	/** Output file to replace. */
+	private final File				outputFile;
+
+	/**
+	 * @param theTemporaryFile
+	 *            written temporary file
+	 * @param theOutputFile
+	 *            output file to replace
+	 * @param cause
+	 *            cause the cause
+	 */
+	public OutputFileLockedException(final Path theTemporaryFile, final File theOutputFile, final IOException cause)
+	{
+		super("Output file must be closed: " + theOutputFile, cause);
+		temporaryFile = theTemporaryFile;
+		outputFile = theOutputFile;
+	}
+
+	/**
+	 * @return the written temporary file
+	 */
+	public Path getTemporaryFile()
+	{
+		return temporaryFile;
+	}
+
+	/**
+	 * @return the output file to replace
+	 */
+	public File getOutputFile()
+	{
+		return outputFile;
+	}
+}
@@ -21,13 +21,20 @@
 package com.ben12.reta.util;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,7 +42,6 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.ServiceLoader;
 import java.util.Set;
-import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.logging.Level;
@@ -56,9 +62,17 @@ import com.google.common.base.Strings;
 import com.ben12.reta.api.RETAParseException;
 import com.ben12.reta.api.RETAParser;
 import com.ben12.reta.api.SourceConfiguration;
+import com.ben12.reta.export.AnalysisExporter;
 import com.ben12.reta.export.ExcelExporter;
+import com.ben12.reta.model.AnalysisSnapshot;
+import com.ben12.reta.model.DiskContentStore;
+import com.ben12.reta.model.IdNormalization;
 import com.ben12.reta.model.InputRequirementSource;
 import com.ben12.reta.model.RequirementImpl;
+import com.ben12.reta.model.RequirementIndex;
+import com.ben12.reta.model.RequirementSearch;
+import com.ben12.reta.model.TraceGraph;
+import com.ben12.reta.model.UnknownReferenceKind;
 import com.ben12.reta.plugin.SourceProviderPlugin;
 import com.ben12.reta.view.control.MessageDialog;
 
@@ -83,11 +97,32 @@ public final class RETAAnalysis
 	/** Available plug-ins. */
 	private final Map<String, SourceProviderPlugin>			plugins				= new HashMap<>();
 
+	/** Available exporters, in addition to the Excel export. */
+	private final List<AnalysisExporter>					exporters			= new ArrayList<>();
+
 	/** Configuration file opened. */
 	private File											config				= null;
 
-	// TODO maybe useful to see unknown references and mismatch versions
-	// private final Comparator<Requirement> reqCompId = (req1, req2) -> req1.getId().compareTo(req2.getId());
+	/** Global requirement index of the last analysis. */
+	private RequirementIndex								requirementIndex	= null;
+
+	/** Indexed traceability graph of the last analysis. */
+	private TraceGraph										traceGraph			= null;
+
+	/** Change impact analysis of the last analysis. */
+	private ImpactAnalysis									impactAnalysis		= null;
+
+	/** Requirement search indexes of the last analysis. */
+	private RequirementSearch								requirementSearch	= null;
+
+	/** Requirement content hashes of the analysis preceding the last one. */
+	private Map<String, Long>								previousHashes		= new HashMap<>();
+
+	/** Whether the parsed requirement contents are kept on disk rather than in memory. */
+	private boolean											contentOnDisk		= false;
+
+	/** Store of the requirement contents of the last parsing, null if kept in memory. */
+	private DiskContentStore								contentStore		= null;
 
 	/**
 	 * Constructor.
@@ -96,6 +131,7 @@ public final class RETAAnalysis
 	{
 		final ServiceLoader<SourceProviderPlugin> serviceLoader = ServiceLoader.load(SourceProviderPlugin.class);
 		serviceLoader.forEach(p -> plugins.put(p.getClass().getName(), p));
+		ServiceLoader.load(AnalysisExporter.class).forEach(exporters::add);
 	}
 
 	/**
@@ -118,6 +154,14 @@ public final class RETAAnalysis
 		return plugins.values();
 	}
 
+	/**
+	 * @return the exporter list, in addition to the Excel export
+	 */
+	public List<AnalysisExporter> getExporters()
+	{
+		return Collections.unmodifiableList(exporters);
+	}
+
 	/**
 	 * @param pluginClass
 	 *            plugin class implementation
@@ -173,9 +217,17 @@ public final class RETAAnalysis
 			System.setProperty("user.dir", config.getAbsoluteFile().getParent());
 		}
 
+		// No analysis of this configuration yet: neither results nor previous content hashes
+		requirementIndex = null;
+		traceGraph = null;
+		impactAnalysis = null;
+		requirementSearch = null;
+		previousHashes = new HashMap<>();
+
 		try
 		{
 			requirementSources.clear();
+			closeContentStore();
 
 			final Wini ini = new Wini();
 			ini.getConfig().setFileEncoding(Charset.forName("CP1252"));
@@ -183,6 +235,8 @@ public final class RETAAnalysis
 
 			final Map<InputRequirementSource, List<String>> coversMap = new LinkedHashMap<>();
 
+			contentOnDisk = "disk".equalsIgnoreCase(ini.get("GENERAL", "content.store"));
+
 			final String documentsStr = ini.get("GENERAL", "inputs");
 			if (!Strings.isNullOrEmpty(documentsStr))
 			{
@@ -219,6 +273,8 @@ public final class RETAAnalysis
 						final InputRequirementSource requirementSource = new InputRequirementSource(doc, plugin,
 								configuration);
 
+						requirementSource.idNormalizationProperty().set(section.get("id.normalization", ""));
+
 						final String coversStr = section.get("covers", "");
 						final List<String> covers = Splitter.on(',')
 								.trimResults()
@@ -297,6 +353,12 @@ public final class RETAAnalysis
 				requirementSource.getProvider()
 						.saveSourceConfiguration(requirementSource.getConfiguration(), sourceSection);
 
+				final IdNormalization normalization = requirementSource.getIdNormalization();
+				if (!normalization.isNone())
+				{
+					sourceSection.put("id.normalization", normalization.toString());
+				}
+
 				sourceSection.put("covers",
 						requirementSource.getCovers()
 								.stream()
@@ -305,6 +367,10 @@ public final class RETAAnalysis
 			}
 
 			generalSection.put("inputs", inputs.stream().collect(Collectors.joining(",")));
+			if (contentOnDisk)
+			{
+				generalSection.put("content.store", "disk");
+			}
 
 			ini.store(iniFile);
 			config = iniFile;
@@ -341,6 +407,29 @@ public final class RETAAnalysis
 		final RETAParseException[] ex = { null };
 		final AtomicInteger count = new AtomicInteger(0);
 
+		if (traceGraph != null)
+		{
+			previousHashes = ImpactAnalysis.contentHashes(requirementSources);
+		}
+		requirementIndex = null;
+		traceGraph = null;
+		impactAnalysis = null;
+		requirementSearch = null;
+
+		closeContentStore();
+		if (contentOnDisk)
+		{
+			try
+			{
+				contentStore = DiskContentStore.create();
+			}
+			catch (final IOException e)
+			{
+				LOGGER.log(Level.WARNING, "Requirement contents kept in memory", e);
+			}
+		}
+		requirementSources.forEach(s -> s.setContentStore(contentStore));
+
 		requirementSources.parallelStream().forEach(requirementSource -> {
 			try
 			{
@@ -393,26 +482,35 @@ public final class RETAAnalysis
 	 */
 	public void analyse(final Consumer<Double> progress)
 	{
+		LOGGER.info("Start requirement index");
+		requirementIndex = new RequirementIndex(requirementSources);
+		requirementIndex.getDuplicates()
+				.forEach((id, reqs) -> LOGGER.warning("Requirement " + id + " is defined in several sources: "
+						+ reqs.stream().map(r -> r.getSource().getName()).distinct().collect(Collectors.joining(", "))));
+		LOGGER.info("End requirement index");
+
 		final var counter = new AtomicInteger(0);
 		requirementSources.parallelStream().forEach(source -> {
 			LOGGER.info("Start analyse " + source.getName());
 
-			final List<InputRequirementSource> covers = source.getCovers();
-			final TreeSet<RequirementImpl> reqSource = source.getRequirements();
-			for (final InputRequirementSource coverSource : covers)
+			final Set<InputRequirementSource> covers = Collections.newSetFromMap(new IdentityHashMap<>());
+			covers.addAll(source.getCovers());
+			final Map<InputRequirementSource, Set<RequirementImpl>> coveredReqs = new IdentityHashMap<>();
+			covers.forEach(c -> coveredReqs.put(c, Collections.newSetFromMap(new IdentityHashMap<>())));
+
+			for (final RequirementImpl req : source.getRequirements())
 			{
-				final TreeSet<RequirementImpl> reqToCover = coverSource.getRequirements();
-				final TreeSet<RequirementImpl> reqNotCoverred = new TreeSet<>(reqToCover);
-				for (final RequirementImpl req : reqSource)
+				final List<RequirementImpl> realReqCovers = new ArrayList<>();
+				for (final RequirementImpl reqRef : req.getReferences())
 				{
-					final Set<RequirementImpl> realReqCovers = new TreeSet<>();
-					final Iterable<RequirementImpl> refs = req.getReferences();
-					for (final RequirementImpl reqRef : refs)
+					final List<RequirementImpl> owners = requirementIndex.get(reqRef);
+					boolean resolved = false;
+					for (final RequirementImpl found : owners)
 					{
-						final RequirementImpl found = reqToCover.ceiling(reqRef);
-						if (found != null && found.equals(reqRef))
+						if (covers.contains(found.getSource()))
 						{
-							reqNotCoverred.remove(found);
+							resolved = true;
+							coveredReqs.get(found.getSource()).add(found);
 							realReqCovers.add(found);
 							synchronized (RETAAnalysis.this)
 							{
@@ -420,15 +518,24 @@ public final class RETAAnalysis
 							}
 						}
 					}
-					for (final RequirementImpl realReqCover : realReqCovers)
+					if (!resolved)
 					{
-						synchronized (RETAAnalysis.this)
-						{
-							req.addReference(realReqCover);
-						}
+						classifyUnknownReference(covers, reqRef, owners);
 					}
 				}
-				final double coverage = (double) (reqToCover.size() - reqNotCoverred.size()) / reqToCover.size();
+				for (final RequirementImpl realReqCover : realReqCovers)
+				{
+					synchronized (RETAAnalysis.this)
+					{
+						req.addReference(realReqCover);
+					}
+				}
+			}
+
+			for (final InputRequirementSource coverSource : source.getCovers())
+			{
+				final double coverage = (double) coveredReqs.get(coverSource).size()
+						/ coverSource.getRequirements().size();
 				synchronized (RETAAnalysis.this)
 				{
 					coverSource.getCoversBy().put(source, coverage);
@@ -439,6 +546,224 @@ public final class RETAAnalysis
 
 			LOGGER.info("End analyse " + source.getName());
 		});
+
+		index();
+	}
+
+	/**
+	 * Build the traceability graph, with the transitive coverage, and the search indexes of the analysed sources.
+	 */
+	private void index()
+	{
+		LOGGER.info("Start transitive coverage analyse");
+		traceGraph = new TraceGraph(requirementSources);
+		impactAnalysis = new ImpactAnalysis(traceGraph);
+		LOGGER.info("End transitive coverage analyse");
+
+		LOGGER.info("Start search index");
+		requirementSearch = new RequirementSearch(traceGraph);
+		LOGGER.info("End search index");
+	}
+
+	/**
+	 * Save the result of the last analysis in the snapshot file of the configuration (see
+	 * {@link AnalysisSnapshot#forConfiguration(File)}), written in a temporary file replacing it once complete. If it
+	 * cannot be saved, the previous snapshot is invalidated: it is not the result of the current configuration.
+	 * 
+	 * @throws IOException
+	 *             I/O exception
+	 * @throws OutputFileLockedException
+	 *             the snapshot file could not be replaced, e.g. still mapped by restored requirements
+	 */
+	public void saveSnapshot() throws IOException
+	{
+		if (config != null && traceGraph != null)
+		{
+			LOGGER.info("Start write analysis snapshot");
+			final File file = AnalysisSnapshot.forConfiguration(config);
+			// Not Files.createTempFile: the snapshot file keeps the default permissions
+			final Path temporaryFile = file.toPath().resolveSibling("." + file.getName() + ".tmp");
+			try
+			{
+				AnalysisSnapshot.write(requirementSources, AnalysisSnapshot.configurationHash(config), temporaryFile);
+				replaceOutput(temporaryFile, file);
+			}
+			catch (final IOException | RuntimeException e)
+			{
+				Files.deleteIfExists(temporaryFile);
+				if (file.isFile())
+				{
+					try
+					{
+						AnalysisSnapshot.invalidate(file.toPath());
+					}
+					catch (final IOException invalidateException)
+					{
+						e.addSuppressed(invalidateException);
+					}
+				}
+				throw e;
+			}
+			LOGGER.info("End write analysis snapshot");
+		}
+	}
+
+	/**
+	 * Restore the result of the last analysis from the snapshot file of the configuration, if the configuration did not
+	 * change since. The requirement sources are not parsed again: the restored result may be outdated if they changed.
+	 * 
+	 * @return true if the analysis result is restored
+	 * @throws IOException
+	 *             I/O exception
+	 */
+	public boolean restoreSnapshot() throws IOException
+	{
+		boolean restored = false;
+		final File file = AnalysisSnapshot.forConfiguration(config);
+		if (file != null && file.isFile())
+		{
+			LOGGER.info("Start restore analysis snapshot");
+			final AnalysisSnapshot snapshot = AnalysisSnapshot.open(file.toPath());
+			if (snapshot.getConfigurationHash() == AnalysisSnapshot.configurationHash(config)
+					&& snapshot.restore(requirementSources))
+			{
+				requirementIndex = new RequirementIndex(requirementSources);
+				index();
+				restored = true;
+				LOGGER.info("Analysis restored from the snapshot of " + Instant.ofEpochMilli(snapshot.getCreationTime()));
+			}
+			LOGGER.info("End restore analysis snapshot");
+		}
+		return restored;
+	}
+
+	/**
+	 * Compare the result of the last analysis with a baseline analysis result.
+	 * 
+	 * @param baselineFile
+	 *            baseline analysis snapshot file (see {@link AnalysisSnapshot})
+	 * @return the comparison, null if no analysis has been done
+	 * @throws IOException
+	 *             I/O exception
+	 */
+	public AnalysisDiff compare(final File baselineFile) throws IOException
+	{
+		AnalysisDiff diff = null;
+		if (traceGraph != null)
+		{
+			LOGGER.info("Start baseline comparison");
+			diff = new AnalysisDiff(AnalysisSnapshot.open(baselineFile.toPath()), requirementSources);
+			LOGGER.info("End baseline comparison");
+		}
+		return diff;
+	}
+
+	/**
+	 * Close the store of the requirement contents of the last parsing, if any.
+	 */
+	private void closeContentStore()
+	{
+		if (contentStore != null)
+		{
+			try
+			{
+				contentStore.close();
+			}
+			catch (final IOException e)
+			{
+				LOGGER.log(Level.WARNING, "Closing requirement content store", e);
+			}
+			contentStore = null;
+		}
+	}
+
+	/**
+	 * @return change impact analysis of the last analysis, null if no analysis has been done
+	 */
+	public ImpactAnalysis getImpactAnalysis()
+	{
+		return impactAnalysis;
+	}
+
+	/**
+	 * @return requirement content hashes of the analysis preceding the last one (see
+	 *         {@link ImpactAnalysis#contentHashes(Collection)}), empty if the last one is the first of the configuration
+	 */
+	public Map<String, Long> getPreviousHashes()
+	{
+		return previousHashes;
+	}
+
+	/**
+	 * Classify a reference not resolved in the sources covered by the referencing source.
+	 * 
+	 * @param covers
+	 *            sources covered by the referencing source
+	 * @param reference
+	 *            unresolved reference
+	 * @param owners
+	 *            requirements having the identifier and version of the reference, all in not covered sources
+	 */
+	private void classifyUnknownReference(final Set<InputRequirementSource> covers, final RequirementImpl reference,
+			final List<RequirementImpl> owners)
+	{
+		if (!owners.isEmpty())
+		{
+			reference.setUnknownReference(UnknownReferenceKind.NOT_COVERED_SOURCE, owners);
+		}
+		else
+		{
+			final List<RequirementImpl> covered = new ArrayList<>();
+			final List<RequirementImpl> notCovered = new ArrayList<>();
+			for (final RequirementImpl other : requirementIndex.getById(reference.getNormalizedId()))
+			{
+				if (covers.contains(other.getSource()))
+				{
+					covered.add(other);
+				}
+				else
+				{
+					notCovered.add(other);
+				}
+			}
+
+			if (!covered.isEmpty())
+			{
+				reference.setUnknownReference(UnknownReferenceKind.VERSION_MISMATCH, covered);
+			}
+			else if (!notCovered.isEmpty())
+			{
+				reference.setUnknownReference(UnknownReferenceKind.NOT_COVERED_SOURCE, notCovered);
+			}
+			else
+			{
+				reference.setUnknownReference(UnknownReferenceKind.UNKNOWN, List.of());
+			}
+		}
+	}
+
+	/**
+	 * @return global requirement index of the last analysis, null if no analysis has been done
+	 */
+	public RequirementIndex getRequirementIndex()
+	{
+		return requirementIndex;
+	}
+
+	/**
+	 * @return indexed traceability graph of the last analysis, null if no analysis has been done
+	 */
+	public TraceGraph getTraceGraph()
+	{
+		return traceGraph;
+	}
+
+	/**
+	 * @return requirement search indexes of the last analysis, null if no analysis has been done
+	 */
+	public RequirementSearch getRequirementSearch()
+	{
+		return requirementSearch;
 	}
 
 	/**
@@ -452,41 +777,142 @@ public final class RETAAnalysis
 	 *             Invalid Excel format exception
 	 */
 	public void writeExcel(final File outputFile) throws IOException, InvalidFormatException
+	{
+		writeExcel(outputFile, p -> {
+		});
+	}
+
+	/**
+	 * Write Excel file result of requirement traceability analysis.
+	 * 
+	 * @param outputFile
+	 *            output file
+	 * @param progress
+	 *            progress consumer, from 0.0 to 1.0; it may throw a {@link java.util.concurrent.CancellationException}
+	 *            to abort the export
+	 * @throws IOException
+	 *             I/O exception
+	 * @throws OutputFileLockedException
+	 *             the output file could not be replaced by the written temporary file
+	 * @throws InvalidFormatException
+	 *             Invalid Excel format exception
+	 */
+	public void writeExcel(final File outputFile, final Consumer<Double> progress)
+			throws IOException, InvalidFormatException
 	{
 		LOGGER.info("Start write excel output");
 
-		final var exporter = new ExcelExporter();
-		final var wb = exporter.export(requirementSources);
-		writeExcel(wb, outputFile);
+		final var exporter = new ExcelExporter(true);
+		// Closing the streaming workbook deletes its rows temporary files, also when the export is cancelled
+		try (Workbook wb = exporter.getWorkbook())
+		{
+			exporter.export(requirementSources, p -> progress.accept(p * 0.80));
+			writeExcel(wb, outputFile);
+		}
+		progress.accept(1.0);
 
 		LOGGER.info("End write excel output");
 	}
 
 	/**
+	 * Write the result of requirement traceability analysis with an exporter.
+	 * 
+	 * @param exporter
+	 *            exporter of the output format
+	 * @param outputFile
+	 *            output file
+	 * @throws IOException
+	 *             I/O exception
+	 */
+	public void export(final AnalysisExporter exporter, final File outputFile) throws IOException
+	{
+		export(exporter, outputFile, p -> {
+		});
+	}
+
+	/**
+	 * Write the result of requirement traceability analysis with an exporter.
+	 * 
+	 * @param exporter
+	 *            exporter of the output format
+	 * @param outputFile
+	 *            output file
+	 * @param progress
+	 *            progress consumer, from 0.0 to 1.0; it may throw a {@link java.util.concurrent.CancellationException}
+	 *            to abort the export
+	 * @throws IOException
+	 *             I/O exception
+	 */
+	public void export(final AnalysisExporter exporter, final File outputFile, final Consumer<Double> progress)
+			throws IOException
+	{
+		LOGGER.info("Start write " + exporter.getFormatName() + " output");
+
+		exporter.export(requirementSources, outputFile, progress);
+
+		LOGGER.info("End write " + exporter.getFormatName() + " output");
+	}
+
+	/**
+	 * Write the workbook to a temporary file next to the output file, then replace the output file by the temporary
+	 * file: the output file is never left partially written.
+	 * 
 	 * @param workbook
 	 *            {@link Workbook} to write
 	 * @param outputFile
 	 *            output file path
 	 * @throws IOException
 	 *             I/O exception
+	 * @throws OutputFileLockedException
+	 *             the output file could not be replaced by the written temporary file
 	 */
 	public void writeExcel(final Workbook workbook, final File outputFile) throws IOException
 	{
-		try (FileOutputStream fos = new FileOutputStream(outputFile))
+		// Not Files.createTempFile: the output file keeps the default permissions
+		final Path temporaryFile = outputFile.getAbsoluteFile().toPath().resolveSibling(
+				"." + outputFile.getName() + ".tmp");
+		try (OutputStream os = Files.newOutputStream(temporaryFile))
+		{
+			workbook.write(os);
+		}
+		catch (final IOException | RuntimeException e)
 		{
-			workbook.write(fos);
+			Files.deleteIfExists(temporaryFile);
+			throw e;
 		}
-		catch (final FileNotFoundException e)
+		replaceOutput(temporaryFile, outputFile);
+	}
+
+	/**
+	 * Replace the output file by a written temporary file of the same directory, atomically if the file system
+	 * supports it.
+	 * 
+	 * @param temporaryFile
+	 *            written temporary file
+	 * @param outputFile
+	 *            output file to replace
+	 * @throws IOException
+	 *             I/O exception
+	 * @throws OutputFileLockedException
+	 *             the output file could not be replaced, the temporary file is kept
+	 */
+	public static void replaceOutput(final Path temporaryFile, final File outputFile) throws IOException
+	{
+		try
 		{
-			if (MessageDialog.showQuestionMessage(null, "Excel output file must be closed."))
+			try
 			{
-				writeExcel(workbook, outputFile);
+				Files.move(temporaryFile, outputFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
 			}
-			else
+			catch (final AtomicMoveNotSupportedException e)
 			{
-				throw e;
+				Files.move(temporaryFile, outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
 			}
 		}
+		catch (final FileSystemException e)
+		{
+			throw new OutputFileLockedException(temporaryFile, outputFile, e);
+		}
 	}
 
 	@Override
@@ -20,70 +20,100 @@
 package com.ben12.reta.view;
 
 import java.awt.Desktop;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.ResourceBundle;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javafx.beans.binding.Bindings;
 import javafx.beans.binding.IntegerBinding;
 import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
 import javafx.beans.property.ReadOnlyBooleanProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
 import javafx.concurrent.Task;
-import javafx.concurrent.Worker;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.control.Accordion;
 import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Dialog;
 import javafx.scene.control.Label;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.SplitPane;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.control.TitledPane;
-import javafx.scene.layout.GridPane;
+import javafx.scene.control.ToggleButton;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeView;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
 import javafx.scene.web.WebView;
 import javafx.stage.FileChooser;
 import javafx.stage.FileChooser.ExtensionFilter;
 import javafx.util.Callback;
 import javafx.util.Pair;
+import javafx.util.StringConverter;
 
-import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
-import org.w3c.dom.Element;
-
-import com.google.common.base.Objects;
-
-import net.sourceforge.plantuml.FileFormat;
-import net.sourceforge.plantuml.FileFormatOption;
-import net.sourceforge.plantuml.SourceStringReader;
+import com.google.common.base.Splitter;
 
 import com.ben12.reta.beans.property.buffering.BufferingManager;
 import com.ben12.reta.beans.property.buffering.ObservableListBuffering;
+import com.ben12.reta.export.AnalysisExporter;
+import com.ben12.reta.graph.GraphBuilder;
+import com.ben12.reta.graph.GraphCache;
+import com.ben12.reta.model.AnalysisSnapshot;
+import com.ben12.reta.model.CoverageMatrix;
+import com.ben12.reta.model.CoverageState;
 import com.ben12.reta.model.GraphData;
-import com.ben12.reta.model.GraphData.Link;
 import com.ben12.reta.model.InputRequirementSource;
 import com.ben12.reta.model.RequirementImpl;
+import com.ben12.reta.model.UnknownReferenceKind;
 import com.ben12.reta.plugin.SourceProviderPlugin;
-import com.ben12.reta.util.DOMUtils;
+import com.ben12.reta.util.AnalysisDiff;
+import com.ben12.reta.util.OutputFileLockedException;
 import com.ben12.reta.util.RETAAnalysis;
+import com.ben12.reta.view.control.CoverageMatrixView;
+import com.ben12.reta.view.control.GraphCanvas;
 import com.ben12.reta.view.control.MessageDialog;
 import com.ben12.reta.view.validation.ValidationDecorator;
 
@@ -134,6 +164,30 @@ public class MainConfigurationController implements Initializable
 	/** Graph data. */
 	private GraphData														graph;
 
+	/** Source level summary graph data, null if the whole graph is shown at requirement level. */
+	private GraphData														summaryGraph;
+
+	/** Running graph generation, null if none. */
+	private Task<GraphData>													graphTask			= null;
+
+	/** Running analysis snapshot restoration, null if none. */
+	private Task<Boolean>													restoreTask			= null;
+
+	/** Thread of the last analysis snapshot restoration, null if none. */
+	private Thread															restoreThread		= null;
+
+	/** Running full text index build of the restored requirements, null if none. */
+	private Task<Void>														contentIndexTask	= null;
+
+	/** Threads preparing the shown results in background, they read the analysed requirement sources. */
+	private final List<Thread>												resultThreads		= new ArrayList<>();
+
+	/** Running result tab model preparations. */
+	private final List<Task<?>>												tabTasks			= new ArrayList<>();
+
+	/** Indexes of the requirements found by the search, null if no search criteria. */
+	private final ObjectProperty<BitSet>									searchResult		= new SimpleObjectProperty<>();
+
 	/** Root pane. */
 	@FXML
 	private Parent															root;
@@ -158,6 +212,14 @@ public class MainConfigurationController implements Initializable
 	@FXML
 	private Button															export;
 
+	/** Change impact analysis button. */
+	@FXML
+	private Button															impact;
+
+	/** Baseline comparison button. */
+	@FXML
+	private Button															diff;
+
 	/** Delete selected requirement source button. */
 	@FXML
 	private Button															delete;
@@ -182,6 +244,30 @@ public class MainConfigurationController implements Initializable
 	@FXML
 	private WebView															webview;
 
+	/** Laid out graph result. */
+	@FXML
+	private GraphCanvas														graphCanvas;
+
+	/** Requirement search query field. */
+	@FXML
+	private TextField														searchField;
+
+	/** Full text search toggle: the query is searched in the requirement texts and contents. */
+	@FXML
+	private ToggleButton													fullTextSearch;
+
+	/** Searched coverage state, null for any state. */
+	@FXML
+	private ChoiceBox<CoverageState>										coverageFilter;
+
+	/** Back to the graph summary button. */
+	@FXML
+	private Button															graphSummary;
+
+	/** Shown graph level. */
+	@FXML
+	private Label															graphLevel;
+
 	/**
 	 * Constructor.
 	 */
@@ -287,61 +373,56 @@ public class MainConfigurationController implements Initializable
 			cancel.disableProperty().bind(Bindings.not(bufferingManager.bufferingProperty()));
 			run.disableProperty().bind(Bindings.not(bufferingManager.validProperty()));
 			export.setDisable(true);
+			impact.setDisable(true);
+			diff.setDisable(true);
 
-			webview.getEngine().getLoadWorker().stateProperty().subscribe(state -> {
-				if (state == Worker.State.SUCCEEDED)
+			graphCanvas.setOnSourceClicked(source -> {
+				if (graph != null && graph.isSummary())
 				{
-					this.customizePlantuml();
+					final List<InputRequirementSource> shown = new ArrayList<>();
+					shown.add(source);
+					shown.addAll(source.getCovers());
+					shown.addAll(source.getCoversBy().keySet());
+					expandGraph(shown, MessageFormat.format(labels.getString("graph.level.source"), source.getName()));
 				}
 			});
-		}
-		catch (final Exception e)
-		{
-			Logger.getLogger(getClass().getName()).log(Level.SEVERE, "", e);
-		}
-	}
-
-	private void customizePlantuml()
-	{
-		final var document = webview.getEngine().getDocument();
-		final var groups = DOMUtils.getElementsByTagNameAndAttribute(document, "g", "data-entity");
-		for (final var g : groups)
-		{
-			final var sourceAlias = g.getAttribute("data-entity");
-			final var source = graph.getSourceEntities().get(sourceAlias);
-			final var texts = DOMUtils.getElementsByTagName(g, "text");
-
-			if (!texts.isEmpty() && Objects.equal(source.getName(), texts.getFirst().getTextContent()))
+			coverageFilter.getItems().add(null);
+			coverageFilter.getItems().addAll(CoverageState.values());
+			coverageFilter.setConverter(new StringConverter<CoverageState>()
 			{
-				final var textEl = texts.get(0);
-				final var title = document.createElementNS(textEl.getNamespaceURI(), "title");
-				title.setTextContent(source.getConfiguration().getDescription());
-				textEl.appendChild(title);
-			}
+				@Override
+				public String toString(final CoverageState state)
+				{
+					return labels.getString("search.state." + (state == null ? "all" : state.name().toLowerCase(Locale.ROOT)));
+				}
 
-			for (final Element textEl : texts.subList(1, texts.size()))
-			{
-				final var reqId = textEl.getTextContent();
-				final var req = source.getRequirements()
-						.stream()
-						.filter(r -> Objects.equal(r.getId(), reqId))
-						.findFirst();
-				if (req.isPresent())
+				@Override
+				public CoverageState fromString(final String string)
 				{
-					final var title = document.createElementNS(textEl.getNamespaceURI(), "title");
-					title.setTextContent(req.get().getText());
-					textEl.appendChild(title);
-					if (req.get().getReferredBySource().isEmpty() && !source.getCoversBy().isEmpty())
-					{
-						textEl.setAttribute("style", "fill: red;");
-					}
-					else if (!req.get().getReferredBySource().isEmpty()
-							&& req.get().getReferredBySource().size() < source.getCoversBy().size())
-					{
-						textEl.setAttribute("style", "fill: coral;");
-					}
+					return Stream.of(CoverageState.values())
+							.filter(state -> toString(state).equals(string))
+							.findFirst()
+							.orElse(null);
 				}
-			}
+			});
+			coverageFilter.setValue(null);
+			searchField.textProperty().subscribe(this::updateSearch);
+			coverageFilter.valueProperty().subscribe(this::updateSearch);
+			fullTextSearch.selectedProperty().subscribe(this::updateSearch);
+
+			graphCanvas.setOnEdgeClicked(edge -> {
+				final var link = (graph != null && graph.isSummary() ? graph.getSourceLinks().get(edge.getKey()) : null);
+				if (link != null)
+				{
+					expandGraph(List.of(link.getSource(), link.getCover()),
+							MessageFormat.format(labels.getString("graph.level.pair"), link.getSource().getName(),
+									link.getCover().getName()));
+				}
+			});
+		}
+		catch (final Exception e)
+		{
+			Logger.getLogger(getClass().getName()).log(Level.SEVERE, "", e);
 		}
 	}
 
@@ -556,8 +637,12 @@ public class MainConfigurationController implements Initializable
 	{
 		if (this.save(event) && bufferingManager.isValid())
 		{
+			final var previousThreads = List.copyOf(resultThreads);
 			final var task = new Task<Void>()
 			{
+				/** True when the analysis is complete. */
+				private boolean analysed = false;
+
 				private void updateProgress(final double p)
 				{
 					updateProgress(p, 1.0);
@@ -569,17 +654,16 @@ public class MainConfigurationController implements Initializable
 					try
 					{
 						updateProgress(0.00);
+						awaitThreads(previousThreads);
 
 						updateMessage(labels.getString("progress.reading"));
-						RETAAnalysis.getInstance().parse(p -> updateProgress(p * 0.50));
-						updateProgress(0.50);
+						RETAAnalysis.getInstance().parse(p -> updateProgress(p * 0.80));
+						updateProgress(0.80);
 
 						updateMessage(labels.getString("progress.analysing"));
-						RETAAnalysis.getInstance().analyse(p -> updateProgress(0.5 + (p * 0.10)));
-						updateProgress(0.60);
-
-						updateMessage(labels.getString("progress.graph"));
-						graph = buildGraph();
+						RETAAnalysis.getInstance().analyse(p -> updateProgress(0.8 + (p * 0.20)));
+						analysed = true;
+						saveSnapshot();
 						updateProgress(1.0);
 
 						updateMessage(labels.getString("progress.complete"));
@@ -597,20 +681,36 @@ public class MainConfigurationController implements Initializable
 					return null;
 				}
 
+				/**
+				 * Save the analysis result snapshot; the analysis result remains valid if it fails.
+				 */
+				private void saveSnapshot()
+				{
+					try
+					{
+						RETAAnalysis.getInstance().saveSnapshot();
+					}
+					catch (final IOException e)
+					{
+						LOGGER.log(Level.WARNING, "Cannot save the analysis snapshot", e);
+					}
+				}
+
 				@Override
 				protected void succeeded()
 				{
-					webview.getEngine().loadContent(graph.getHtml());
-					buildTabs();
-					export.setDisable(false);
+					if (analysed)
+					{
+						showResults();
+					}
 				}
 
 				@Override
 				protected void failed()
 				{
-					if (graph != null)
+					if (analysed)
 					{
-						webview.getEngine().loadContent(graph.getHtml());
+						buildGraph();
 						buildTabs();
 					}
 				}
@@ -618,298 +718,1140 @@ public class MainConfigurationController implements Initializable
 
 			MessageDialog.showProgressBar(root.getScene().getWindow(), labels.getString("progress.title"), task);
 
-			graph = null;
-			webview.getEngine().loadContent("");
-			resultTabs.getTabs().remove(1, resultTabs.getTabs().size());
-			export.setDisable(true);
+			clearResults();
 
 			new Thread(task).start();
 		}
 	}
 
-	private GraphData buildGraph()
+	/**
+	 * Clear the shown analysis results.
+	 */
+	private void clearResults()
 	{
-		final Map<String, InputRequirementSource> sourceEntities = new HashMap<>();
-		final Map<String, Link> links = new HashMap<>();
-		final var graphLines = new ArrayList<String>();
+		cancelRestoreTask();
+		contentIndexTask = null;
+		cancelGraphTask();
+		cancelTabTasks();
+		showGraph(null, "");
+		summaryGraph = null;
+		resultTabs.getTabs().remove(1, resultTabs.getTabs().size());
+		export.setDisable(true);
+		impact.setDisable(true);
+		diff.setDisable(true);
+	}
 
-		graphLines.add("@startuml");
-		graphLines.add("skinparam classAttributeIconSize 0");
+	/**
+	 * Show the results of the last analysis.
+	 */
+	private void showResults()
+	{
+		// The graph is generated while the result tabs are built, export does not wait for it
+		buildGraph();
+		buildTabs();
+		export.setDisable(false);
+		impact.setDisable(RETAAnalysis.getInstance().getImpactAnalysis() == null);
+		diff.setDisable(false);
+	}
 
-		final var analysis = RETAAnalysis.getInstance();
+	/**
+	 * Restore in background the last analysis result of the opened configuration, without parsing the sources.
+	 */
+	private void restoreSnapshot()
+	{
+		final var previousThreads = List.copyOf(resultThreads);
+		restoreTask = new Task<Boolean>()
+		{
+			@Override
+			protected Boolean call() throws Exception
+			{
+				awaitThreads(previousThreads);
+				return RETAAnalysis.getInstance().restoreSnapshot();
+			}
 
-		final var index = new AtomicInteger(0);
-		final var allSources = analysis.requirementSourcesProperty();
-		final var isources = allSources.stream()
-				.collect(Collectors.toMap(s -> s, s -> index.getAndIncrement(), (a, b) -> a));
+			@Override
+			protected void succeeded()
+			{
+				// Not shown if an analysis or another configuration has cleared the results meanwhile
+				if (restoreTask == this)
+				{
+					restoreTask = null;
+					if (getValue())
+					{
+						showResults();
+					}
+				}
+			}
 
-		for (final var source : allSources)
+			@Override
+			protected void failed()
+			{
+				if (restoreTask == this)
+				{
+					restoreTask = null;
+				}
+				LOGGER.log(Level.WARNING, "Cannot restore the analysis snapshot", getException());
+			}
+		};
+		restoreThread = startResultThread(restoreTask);
+	}
+
+	/**
+	 * Wait for the end of the last analysis snapshot restoration, which writes the requirement sources that a new
+	 * configuration clears; the restoration only maps the snapshot file, it does not read the requirement contents.
+	 */
+	private void awaitRestoreThread()
+	{
+		if (restoreThread != null)
 		{
-			final var i = isources.get(source);
-			graphLines.add("object \"**" + source.getName() + "**\" as S" + i + " {");
-			final var reqs = source.getRequirements();
-			for (final var req : reqs)
+			try
+			{
+				restoreThread.join();
+			}
+			catch (final InterruptedException e)
 			{
-				graphLines.add("{field} " + req.getId().replace("\\", "<U+200C>\\<U+200C>"));
+				Thread.currentThread().interrupt();
 			}
-			graphLines.add("}");
+			restoreThread = null;
+		}
+	}
 
-			sourceEntities.put("S" + i, source);
+	/**
+	 * Cancel the running analysis snapshot restoration, if any: its result will not be shown. A new analysis waits for
+	 * its end before clearing the requirement sources.
+	 */
+	private void cancelRestoreTask()
+	{
+		if (restoreTask != null)
+		{
+			restoreTask.cancel();
+			restoreTask = null;
 		}
+	}
 
-		for (final var source : allSources)
+	/**
+	 * Generate the graph of the analysis in background and show it.
+	 */
+	private void buildGraph()
+	{
+		final var traceGraph = RETAAnalysis.getInstance().getTraceGraph();
+		final var cache = GraphCache.forConfiguration(RETAAnalysis.getInstance().getConfig());
+		startGraphTask(new Task<GraphData>()
 		{
-			final var i = isources.get(source);
-			final var reqs = source.getRequirements();
-			for (final var req : reqs)
+			@Override
+			protected GraphData call() throws Exception
 			{
-				final var reqId = req.getId().replace("\\", "<U+200C>\\<U+200C>");
-				final var refs = req.getReferences();
-				for (final var ref : refs)
-				{
-					final var refSource = ref.getSource();
-					if (refSource != null)
-					{
-						final var refSo = isources.get(refSource);
-						final var refId = ref.getId().replace("\\", "<U+200C>\\<U+200C>");
-						graphLines.add("\"S" + refSo + "::" + refId + "\" <--- \"S" + i + "::" + reqId + "\"");
-					}
+				return new GraphBuilder(traceGraph, labels, cache).build();
+			}
 
-					final String dataSourceLine = "" + graphLines.size();
-					links.put(dataSourceLine, new Link(dataSourceLine, source, req, refSource, ref));
-				}
+			@Override
+			protected void succeeded()
+			{
+				graphTask = null;
+				summaryGraph = (getValue().isSummary() ? getValue() : null);
+				showGraph(getValue(), labels.getString(summaryGraph == null ? "graph.level.all" : "graph.level.summary"));
+			}
+
+			@Override
+			protected void failed()
+			{
+				graphTask = null;
+				LOGGER.log(Level.SEVERE, "Error during Graph generation", getException());
+				graphLevel.setText("");
 			}
+		});
+	}
+
+	/**
+	 * Cancel the running graph generation, if any, and start a new one.
+	 * 
+	 * @param task
+	 *            graph generation task
+	 */
+	private void startGraphTask(final Task<GraphData> task)
+	{
+		cancelGraphTask();
+		graphTask = task;
+		graphLevel.setText(labels.getString("graph.loading"));
+		startResultThread(task);
+	}
+
+	/**
+	 * Start a result preparation in background. A new analysis waits for it before clearing the requirement sources.
+	 * 
+	 * @param task
+	 *            result preparation task
+	 * @return the started thread
+	 */
+	private Thread startResultThread(final Task<?> task)
+	{
+		resultThreads.removeIf(t -> !t.isAlive());
+		final var thread = new Thread(task);
+		thread.setDaemon(true);
+		resultThreads.add(thread);
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * Wait for the end of result preparations, cancelled ones still read the requirement sources until they end.
+	 * 
+	 * @param threads
+	 *            result preparation threads
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 */
+	private static void awaitThreads(final List<Thread> threads) throws InterruptedException
+	{
+		for (final var thread : threads)
+		{
+			thread.join();
 		}
+	}
 
-		graphLines.add("@enduml");
+	/**
+	 * Cancel the running graph generation, if any: its result will not be shown.
+	 */
+	private void cancelGraphTask()
+	{
+		if (graphTask != null)
+		{
+			graphTask.cancel();
+			graphTask = null;
+		}
+	}
 
-		final var puGraph = String.join("\n", graphLines);
-		final var reader = new SourceStringReader(puGraph);
-		final var output = new ByteArrayOutputStream();
-		try
+	/**
+	 * @param graphData
+	 *            graph to show, may be null
+	 * @param level
+	 *            translated description of the shown graph level
+	 */
+	private void showGraph(final GraphData graphData, final String level)
+	{
+		graph = graphData;
+		graphLevel.setText(level);
+		graphSummary.setDisable(summaryGraph == null || graphData == summaryGraph);
+		if (graphData != null && graphData.getLayout() != null)
 		{
-			reader.outputImage(output, new FileFormatOption(FileFormat.SVG));
+			// Large graphs are drawn on a canvas, the SVG DOM would be too heavy for the web view
+			webview.getEngine().loadContent("");
+			webview.setVisible(false);
+			graphCanvas.setLayout(graphData.getLayout());
+			graphCanvas.setVisible(true);
 		}
-		catch (final IOException e)
+		else
 		{
-			LOGGER.log(Level.SEVERE, "Error during Graph generation", e);
+			graphCanvas.setLayout(null);
+			graphCanvas.setVisible(false);
+			webview.setVisible(true);
+			webview.getEngine().loadContent(graphData == null ? "" : graphData.getHtml());
 		}
+	}
 
-		final var svg = new String(output.toByteArray(), StandardCharsets.UTF_8);
-		final var html = """
-				    <head>
-					  <style>
-					    body {
-					      display: flex;
-					      justify-content: center;
-					      align-items: center;
-					      padding: 4px;
-					      min-width: fit-content;
-					      min-height: fit-content;
-						}
-					  </style>
-				    </head>
-				    <body>
-				""" + svg + """
-				    </body>
-				""";
-		return new GraphData(html, sourceEntities, links);
+	/**
+	 * Lay out the requirement level graph of some sources in background and show it.
+	 * 
+	 * @param sources
+	 *            sources to show
+	 * @param level
+	 *            translated description of the shown graph level
+	 */
+	private void expandGraph(final Collection<InputRequirementSource> sources, final String level)
+	{
+		final var traceGraph = RETAAnalysis.getInstance().getTraceGraph();
+		final var cache = GraphCache.forConfiguration(RETAAnalysis.getInstance().getConfig());
+		startGraphTask(new Task<GraphData>()
+		{
+			@Override
+			protected GraphData call() throws Exception
+			{
+				return new GraphBuilder(traceGraph, labels, cache).buildDetail(sources);
+			}
+
+			@Override
+			protected void succeeded()
+			{
+				graphTask = null;
+				showGraph(getValue(), level);
+			}
+
+			@Override
+			protected void failed()
+			{
+				graphTask = null;
+				LOGGER.log(Level.SEVERE, "Error during Graph generation", getException());
+				graphLevel.setText(labels.getString("graph.level.summary"));
+			}
+		});
+	}
+
+	/**
+	 * Action event to go back to the source level summary graph.
+	 * 
+	 * @param event
+	 *            the {@link ActionEvent}
+	 */
+	@FXML
+	protected void showGraphSummary(final ActionEvent event)
+	{
+		if (summaryGraph != null)
+		{
+			cancelGraphTask();
+			showGraph(summaryGraph, labels.getString("graph.level.summary"));
+		}
 	}
 
+	/**
+	 * Add the result tabs of the analysis. Tab contents are prepared in background when the tab is first selected.
+	 */
 	private void buildTabs()
 	{
 		final var analysis = RETAAnalysis.getInstance();
-		final var allSources = analysis.requirementSourcesProperty();
+		final var allSources = List.copyOf(analysis.requirementSourcesProperty());
+		final var search = analysis.getRequirementSearch();
+		// Requirements of the trace graph of the analysis: a new analysis does not change them
+		final var traceGraph = analysis.getTraceGraph();
+		updateSearch();
 		for (final var source : allSources)
 		{
-			final var tab = createSourceTab(source);
+			final var tab = createLazyTab(source.getName(),
+					() -> new ArrayList<>(traceGraph == null ? List.of() : traceGraph.getRequirements(source)),
+					rows -> createSourceContent(source, rows));
+			if (search != null)
+			{
+				tab.textProperty()
+						.bind(Bindings.createStringBinding(() -> (searchResult.get() == null ? source.getName()
+								: MessageFormat.format(labels.getString("search.tab"), source.getName(),
+										search.count(searchResult.get(), source))),
+								searchResult));
+			}
 			resultTabs.getTabs().add(tab);
 		}
 
-		final var tab = createErrorsTab(allSources);
-		resultTabs.getTabs().add(tab);
+		resultTabs.getTabs()
+				.add(createLazyTab(labels.getString("errors"), () -> getUnknownReferences(allSources),
+						this::createErrorsContent));
+
+		if (traceGraph != null)
+		{
+			resultTabs.getTabs()
+					.add(createLazyTab(labels.getString("matrix"), () -> new CoverageMatrix(traceGraph),
+							matrix -> new CoverageMatrixView(matrix, labels)));
+		}
 	}
 
-	private Tab createErrorsTab(final List<InputRequirementSource> allSources)
+	/**
+	 * Create a result tab whose content is prepared in background the first time the tab is selected.
+	 * 
+	 * @param <M>
+	 *            tab content model type
+	 * @param title
+	 *            tab title
+	 * @param model
+	 *            tab content model preparation, called in background
+	 * @param view
+	 *            tab content creation from the prepared model, called in the JavaFX application thread
+	 * @return the result tab
+	 */
+	private <M> Tab createLazyTab(final String title, final Callable<M> model, final Function<M, Node> view)
 	{
-		final var tab = new Tab(labels.getString("errors"));
+		final var tab = new Tab(title);
 		tab.setClosable(false);
+		final var progress = new ProgressIndicator();
+		progress.setMaxSize(Region.USE_PREF_SIZE, Region.USE_PREF_SIZE);
+		tab.setContent(new StackPane(progress));
 
-		final var table = new GridPane();
-		table.getStyleClass().add("result-table");
-		table.setPadding(new Insets(8));
+		tab.selectedProperty().addListener(new ChangeListener<Boolean>()
+		{
+			@Override
+			public void changed(final ObservableValue<? extends Boolean> observable, final Boolean oldValue,
+					final Boolean selected)
+			{
+				if (selected)
+				{
+					observable.removeListener(this);
+					final var task = new Task<M>()
+					{
+						@Override
+						protected M call() throws Exception
+						{
+							return model.call();
+						}
 
-		final var sourceHeader = new Label(labels.getString("unknownfromsrc"));
-		sourceHeader.getStyleClass().addAll("header", "first-row", "first-col");
-		final var reqHeader = new Label(labels.getString("unknownfromreq"));
-		reqHeader.getStyleClass().addAll("header", "first-row");
-		final var refHeader = new Label(labels.getString("unknownreference"));
-		refHeader.getStyleClass().addAll("header", "first-row", "last-col");
-		table.addRow(0, sourceHeader, reqHeader, refHeader);
+						@Override
+						protected void succeeded()
+						{
+							tabTasks.remove(this);
+							tab.setContent(view.apply(getValue()));
+						}
 
-		final var total = allSources.stream().mapToInt(s -> s.getAllUknownReferences().size()).sum();
+						@Override
+						protected void failed()
+						{
+							tabTasks.remove(this);
+							LOGGER.log(Level.SEVERE, "Error during result tab preparation: " + title, getException());
+							tab.setContent(new Label(
+									labels.getString("progress.error") + getException().getLocalizedMessage()));
+						}
+					};
+					tabTasks.add(task);
+					startResultThread(task);
+				}
+			}
+		});
+		return tab;
+	}
 
-		for (final var source : allSources)
+	/**
+	 * Search the requirements matching the search criteria in the last analysis.
+	 */
+	private void updateSearch()
+	{
+		final var search = RETAAnalysis.getInstance().getRequirementSearch();
+		final BitSet found;
+		if (search == null)
+		{
+			found = null;
+		}
+		else if (fullTextSearch.isSelected() && !isContentIndexed())
+		{
+			// The search is updated once the restored or stored requirement contents are indexed in background
+			indexContents();
+			found = searchResult.get();
+		}
+		else if (fullTextSearch.isSelected())
+		{
+			found = search.searchContent(searchField.getText(), coverageFilter.getValue());
+		}
+		else
+		{
+			found = search.search(searchField.getText(), coverageFilter.getValue());
+		}
+		searchResult.set(found);
+	}
+
+	/**
+	 * @return true if the full text index of all the requirement sources is built
+	 */
+	private boolean isContentIndexed()
+	{
+		return contentIndexTask == null
+				&& RETAAnalysis.getInstance().requirementSourcesProperty().stream().allMatch(
+						InputRequirementSource::isContentIndexed);
+	}
+
+	/**
+	 * Build in background, if not running, the full text index of the requirements restored from a snapshot or stored
+	 * on disk: all their contents are read back. The search is updated once it is built.
+	 */
+	private void indexContents()
+	{
+		if (contentIndexTask == null)
 		{
-			final var reqs = source.getRequirements();
-			final var count = source.getAllUknownReferences().size();
-			if (count > 0)
+			final var sources = List.copyOf(RETAAnalysis.getInstance().requirementSourcesProperty());
+			contentIndexTask = new Task<Void>()
 			{
-				var row = table.getRowCount();
-				final var sourceCell = new Label(source.getName());
-				sourceCell.getStyleClass().addAll("first-col");
-				table.add(sourceCell, 0, row, 1, count);
-				for (final var req : reqs)
+				@Override
+				protected Void call() throws Exception
 				{
-					final var refs = req.getReferencesFor(null);
-					if (!refs.isEmpty())
+					sources.forEach(InputRequirementSource::getContentIndex);
+					return null;
+				}
+
+				@Override
+				protected void succeeded()
+				{
+					// Not searched if the results have been cleared meanwhile
+					if (contentIndexTask == this)
 					{
-						final var reqCell = new Label(req.getText());
-						table.add(reqCell, 1, row, 1, refs.size());
-						for (final var ref : refs)
-						{
-							final var refCell = new Label(ref.getText());
-							refCell.getStyleClass().addAll("last-col");
-							table.add(refCell, 2, row);
-							if (row == total)
-							{
-								sourceCell.getStyleClass().addAll("last-row");
-								reqCell.getStyleClass().addAll("last-row");
-								refCell.getStyleClass().addAll("last-row");
-							}
-							row++;
-						}
+						contentIndexTask = null;
+						updateSearch();
+					}
+				}
+
+				@Override
+				protected void failed()
+				{
+					if (contentIndexTask == this)
+					{
+						contentIndexTask = null;
 					}
+					LOGGER.log(Level.SEVERE, "Error during full text indexing", getException());
+				}
+			};
+			startResultThread(contentIndexTask);
+		}
+	}
+
+	/**
+	 * Show only the rows of the requirements found by the search.
+	 * 
+	 * @param <S>
+	 *            row type
+	 * @param rows
+	 *            result table rows
+	 * @param requirement
+	 *            requirement of a row
+	 * @return rows filtered by the search result
+	 */
+	private <S> FilteredList<S> filterBySearch(final List<S> rows, final Function<S, RequirementImpl> requirement)
+	{
+		final var filtered = new FilteredList<>(FXCollections.observableList(rows));
+		filtered.predicateProperty().bind(Bindings.createObjectBinding(() -> {
+			final BitSet found = searchResult.get();
+			return (found == null ? null : (Predicate<S>) r -> {
+				final int index = requirement.apply(r).getIndex();
+				return index >= 0 && found.get(index);
+			});
+		}, searchResult));
+		return filtered;
+	}
+
+	/**
+	 * Cancel the running result tab model preparations: their result will not be shown.
+	 */
+	private void cancelTabTasks()
+	{
+		tabTasks.forEach(Task::cancel);
+		tabTasks.clear();
+	}
+
+	/**
+	 * @param allSources
+	 *            analysed requirement sources
+	 * @return one entry per unknown reference: the referring requirement is the key, the unknown reference is the
+	 *         value
+	 */
+	private static List<Map.Entry<RequirementImpl, RequirementImpl>> getUnknownReferences(
+			final List<InputRequirementSource> allSources)
+	{
+		final List<Map.Entry<RequirementImpl, RequirementImpl>> unknownReferences = new ArrayList<>();
+		for (final var source : allSources)
+		{
+			for (final var req : source.getRequirements())
+			{
+				for (final var ref : req.getReferencesFor(null))
+				{
+					unknownReferences.add(Map.entry(req, ref));
 				}
 			}
 		}
+		return unknownReferences;
+	}
 
-		tab.setContent(new ScrollPane(table));
-		return tab;
+	/**
+	 * @param unknownReferences
+	 *            unknown references (see {@link #getUnknownReferences(List)})
+	 * @return errors tab content
+	 */
+	private Node createErrorsContent(final List<Map.Entry<RequirementImpl, RequirementImpl>> unknownReferences)
+	{
+		final var table = new TableView<>(filterBySearch(unknownReferences, Map.Entry::getKey));
+		table.getStyleClass().add("result-table");
+		table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_ALL_COLUMNS);
+
+		final TableColumn<Map.Entry<RequirementImpl, RequirementImpl>, InputRequirementSource> sourceColumn = createColumn(
+				labels.getString("unknownfromsrc"), e -> e.getKey().getSource());
+		sourceColumn.setCellFactory(groupCellFactory(InputRequirementSource::getName));
+		final TableColumn<Map.Entry<RequirementImpl, RequirementImpl>, RequirementImpl> reqColumn = createColumn(
+				labels.getString("unknownfromreq"), Map.Entry::getKey);
+		reqColumn.setCellFactory(groupCellFactory(RequirementImpl::getText));
+		table.getColumns()
+				.addAll(List.of(sourceColumn, reqColumn,
+						createColumn(labels.getString("unknownreference"), e -> e.getValue().getText()),
+						createColumn(labels.getString("unknowndiagnostic"),
+								e -> getUnknownReferenceDiagnostic(e.getValue()))));
+
+		final Node content;
+		final var index = RETAAnalysis.getInstance().getRequirementIndex();
+		if (index != null && !index.getDuplicates().isEmpty())
+		{
+			final var duplicatesTitle = new Label(labels.getString("duplicates"));
+			duplicatesTitle.setPadding(new Insets(0, 8, 0, 8));
+			final var duplicatesTable = createDuplicatesTable(index.getDuplicates());
+			VBox.setVgrow(duplicatesTable, Priority.ALWAYS);
+			final var split = new SplitPane(table, new VBox(4, duplicatesTitle, duplicatesTable));
+			split.setOrientation(Orientation.VERTICAL);
+			content = split;
+		}
+		else
+		{
+			content = table;
+		}
+		return content;
+	}
+
+	/**
+	 * @param duplicates
+	 *            requirements defined in several sources, by identifier
+	 * @return duplicate requirements table
+	 */
+	private TableView<Map.Entry<String, List<RequirementImpl>>> createDuplicatesTable(
+			final Map<String, List<RequirementImpl>> duplicates)
+	{
+		final var table = new TableView<>(FXCollections.observableArrayList(duplicates.entrySet()));
+		table.getStyleClass().add("result-table");
+		table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_ALL_COLUMNS);
+		table.getColumns()
+				.addAll(List.of(createColumn(labels.getString("duplicateid"), Map.Entry::getKey),
+						createColumn(labels.getString("duplicatesources"), e -> e.getValue()
+								.stream()
+								.map(r -> r.getSource().getName()
+										+ (r.getVersion().isEmpty() ? "" : " " + r.getVersion()))
+								.collect(Collectors.joining(", ")))));
+		return table;
+	}
+
+	/**
+	 * Create a not sortable result table column. Cell values are only computed for the visible rows.
+	 * 
+	 * @param <S>
+	 *            row type
+	 * @param <T>
+	 *            cell value type
+	 * @param title
+	 *            column title
+	 * @param value
+	 *            cell value of a row
+	 * @return the table column
+	 */
+	private static <S, T> TableColumn<S, T> createColumn(final String title, final Function<S, T> value)
+	{
+		final TableColumn<S, T> column = new TableColumn<>(title);
+		column.setSortable(false);
+		column.setCellValueFactory(f -> new ReadOnlyObjectWrapper<>(value.apply(f.getValue())));
+		return column;
+	}
+
+	/**
+	 * Cell factory showing a cell value only on the first row of consecutive rows having the same value instance, like
+	 * a spanned cell.<br>
+	 * Instances are compared rather than values: requirements of different sources may be equal.
+	 * 
+	 * @param <S>
+	 *            row type
+	 * @param <T>
+	 *            cell value type
+	 * @param text
+	 *            text of a cell value
+	 * @return the cell factory
+	 */
+	private static <S, T> Callback<TableColumn<S, T>, TableCell<S, T>> groupCellFactory(
+			final Function<T, String> text)
+	{
+		return c -> new TableCell<>()
+		{
+			@Override
+			protected void updateItem(final T item, final boolean empty)
+			{
+				super.updateItem(item, empty);
+				if (empty || item == null
+						|| (getIndex() > 0 && item == getTableColumn().getCellData(getIndex() - 1)))
+				{
+					setText(null);
+				}
+				else
+				{
+					setText(text.apply(item));
+				}
+			}
+		};
+	}
+
+	/**
+	 * @param ref
+	 *            unresolved reference
+	 * @return translated diagnostic of the unresolved reference
+	 */
+	private String getUnknownReferenceDiagnostic(final RequirementImpl ref)
+	{
+		final String candidates = ref.getCandidates()
+				.stream()
+				.map(c -> c.getSource().getName() + " " + c.getId()
+						+ (c.getVersion().isEmpty() ? "" : " " + c.getVersion()))
+				.collect(Collectors.joining(", "));
+		final String diagnostic;
+		if (ref.getUnknownKind() == UnknownReferenceKind.VERSION_MISMATCH)
+		{
+			diagnostic = MessageFormat.format(labels.getString("unknown.version"), candidates);
+		}
+		else if (ref.getUnknownKind() == UnknownReferenceKind.NOT_COVERED_SOURCE)
+		{
+			diagnostic = MessageFormat.format(labels.getString("unknown.notcovered"), candidates);
+		}
+		else
+		{
+			diagnostic = labels.getString("unknown.unknown");
+		}
+		return diagnostic;
 	}
 
 	@FXML
 	protected void export(final ActionEvent event)
 	{
-		try
+		final FileChooser fileChooser = new FileChooser();
+		final ExtensionFilter excelFilter = new ExtensionFilter(labels.getString("excel.file.desc"), "*.xlsx");
+		fileChooser.getExtensionFilters().add(excelFilter);
+		final Map<ExtensionFilter, AnalysisExporter> exporters = new HashMap<>();
+		for (final AnalysisExporter exporter : RETAAnalysis.getInstance().getExporters())
 		{
-			final FileChooser fileChooser = new FileChooser();
-			fileChooser.getExtensionFilters().add(new ExtensionFilter(labels.getString("excel.file.desc"), "*.xlsx"));
-			fileChooser.setTitle(labels.getString("output.title"));
-			if (lastExport != null)
+			final ExtensionFilter filter = new ExtensionFilter(exporter.getFormatName(),
+					"*." + exporter.getExtension());
+			fileChooser.getExtensionFilters().add(filter);
+			exporters.put(filter, exporter);
+		}
+		fileChooser.setTitle(labels.getString("output.title"));
+		if (lastExport != null)
+		{
+			fileChooser.setInitialDirectory(lastExport.getParentFile());
+			fileChooser.setInitialFileName(lastExport.getName());
+		}
+		else
+		{
+			fileChooser.setInitialDirectory(RETAAnalysis.getInstance().getConfig().getParentFile());
+		}
+
+		final File file = fileChooser.showSaveDialog(root.getScene().getWindow());
+		if (file != null)
+		{
+			// The file extension gives the format, as in command line; the selected filter if the extension is unknown
+			final String extension = com.google.common.io.Files.getFileExtension(file.getName());
+			final AnalysisExporter exporter;
+			if ("xlsx".equalsIgnoreCase(extension))
 			{
-				fileChooser.setInitialDirectory(lastExport.getParentFile());
-				fileChooser.setInitialFileName(lastExport.getName());
+				exporter = null;
 			}
 			else
 			{
-				fileChooser.setInitialDirectory(RETAAnalysis.getInstance().getConfig().getParentFile());
+				exporter = exporters.values()
+						.stream()
+						.filter(e -> e.getExtension().equalsIgnoreCase(extension))
+						.findFirst()
+						.orElse(exporters.get(fileChooser.getSelectedExtensionFilter()));
+			}
+			startExport(exporter, file);
+		}
+	}
+
+	/**
+	 * Export the analysis in background, with a cancellable progress dialog.<br>
+	 * If the output file is opened in another application, the user is asked, without blocking, to close it before
+	 * retrying to replace it by the written temporary file.
+	 * 
+	 * @param exporter
+	 *            exporter of the output format, null for Excel
+	 * @param file
+	 *            output file
+	 */
+	private void startExport(final AnalysisExporter exporter, final File file)
+	{
+		final var task = new Task<Void>()
+		{
+			private void updateProgress(final double p)
+			{
+				if (isCancelled())
+				{
+					throw new CancellationException();
+				}
+				updateProgress(p, 1.0);
+			}
+
+			@Override
+			protected Void call() throws Exception
+			{
+				updateProgress(0.00);
+				if (exporter == null)
+				{
+					updateMessage(labels.getString("progress.writing"));
+					RETAAnalysis.getInstance().writeExcel(file, this::updateProgress);
+				}
+				else
+				{
+					updateMessage(
+							MessageFormat.format(labels.getString("progress.exporting"), exporter.getFormatName()));
+					RETAAnalysis.getInstance().export(exporter, file, this::updateProgress);
+				}
+				updateProgress(1.0);
+				updateMessage(labels.getString("progress.exported"));
+				return null;
 			}
 
-			final File file = fileChooser.showSaveDialog(root.getScene().getWindow());
-			if (file != null)
+			@Override
+			protected void succeeded()
 			{
-				RETAAnalysis.getInstance().writeExcel(file);
 				lastExport = file;
 			}
-		}
-		catch (InvalidFormatException | IOException e)
+
+			@Override
+			protected void cancelled()
+			{
+				LOGGER.info("Export cancelled");
+			}
+
+			@Override
+			protected void failed()
+			{
+				updateProgress(1.0, 1.0);
+				if (getException() instanceof OutputFileLockedException)
+				{
+					replaceOutput((OutputFileLockedException) getException());
+				}
+				else
+				{
+					LOGGER.log(Level.SEVERE, "Exporting analysis", getException());
+					updateMessage(labels.getString("progress.error") + getException().getLocalizedMessage());
+				}
+			}
+
+			/**
+			 * Ask to close the output file, then retry to replace it or delete the temporary file.
+			 * 
+			 * @param locked
+			 *            output file replacement error
+			 */
+			private void replaceOutput(final OutputFileLockedException locked)
+			{
+				updateMessage(MessageFormat.format(labels.getString("output.locked"), file.getName()));
+				MessageDialog.showQuestionMessage(root.getScene().getWindow(), getMessage(), (retry) -> {
+					try
+					{
+						if (retry)
+						{
+							RETAAnalysis.replaceOutput(locked.getTemporaryFile(), file);
+							lastExport = file;
+							updateMessage(labels.getString("progress.exported"));
+						}
+						else
+						{
+							Files.deleteIfExists(locked.getTemporaryFile());
+							updateMessage(labels.getString("progress.error") + locked.getLocalizedMessage());
+						}
+					}
+					catch (final OutputFileLockedException e)
+					{
+						replaceOutput(e);
+					}
+					catch (final IOException e)
+					{
+						LOGGER.log(Level.SEVERE, "Exporting analysis", e);
+						updateMessage(labels.getString("progress.error") + e.getLocalizedMessage());
+					}
+				});
+			}
+		};
+
+		MessageDialog.showProgressBar(root.getScene().getWindow(), labels.getString("progress.title"), task, true);
+
+		final Thread thread = new Thread(task);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Action event to show the requirements impacted by changed requirements.
+	 * 
+	 * @param event
+	 *            the {@link ActionEvent}
+	 */
+	@FXML
+	protected void impact(final ActionEvent event)
+	{
+		final var impactAnalysis = RETAAnalysis.getInstance().getImpactAnalysis();
+		if (impactAnalysis != null)
 		{
-			LOGGER.log(Level.SEVERE, "Exporting excel", e);
+			final Dialog<ButtonType> dialog = new Dialog<>();
+			dialog.initOwner(root.getScene().getWindow());
+			dialog.setTitle(labels.getString("impact.title"));
+			dialog.setHeaderText(null);
+			dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+
+			final var ids = new TextArea();
+			ids.setPromptText(labels.getString("impact.ids"));
+			final var changedSince = new CheckBox(labels.getString("impact.changed"));
+			if (RETAAnalysis.getInstance().getPreviousHashes().isEmpty())
+			{
+				// Without a previous run, every requirement would be reported as changed
+				changedSince.setText(labels.getString("impact.changed.none"));
+				changedSince.setDisable(true);
+			}
+			ids.disableProperty().bind(changedSince.selectedProperty());
+			dialog.getDialogPane().setContent(new VBox(5, ids, changedSince));
+
+			if (dialog.showAndWait().filter(ButtonType.OK::equals).isPresent())
+			{
+				final List<RequirementImpl> changed;
+				if (changedSince.isSelected())
+				{
+					changed = impactAnalysis.findChanged(RETAAnalysis.getInstance().getPreviousHashes());
+				}
+				else
+				{
+					changed = impactAnalysis
+							.findById(Splitter.onPattern("[,;\\s]+").omitEmptyStrings().splitToList(ids.getText()));
+				}
+
+				final var tab = createImpactTab(changed, impactAnalysis.impact(changed));
+				resultTabs.getTabs().add(tab);
+				resultTabs.getSelectionModel().select(tab);
+			}
 		}
 	}
 
-	private Tab createSourceTab(final InputRequirementSource source)
+	private Tab createImpactTab(final List<RequirementImpl> changed,
+			final Map<InputRequirementSource, List<RequirementImpl>> impacted)
 	{
-		final var tab = new Tab(source.getName());
-		tab.setClosable(false);
+		final var tab = new Tab(labels.getString("impact.tab"));
 
-		final var table = new GridPane();
-		table.getStyleClass().add("result-table");
-		table.setPadding(new Insets(8));
+		final var root = new TreeItem<String>();
+		final var changedItem = new TreeItem<>(
+				MessageFormat.format(labels.getString("impact.changed.count"), changed.size()));
+		changed.forEach(r -> changedItem.getChildren().add(new TreeItem<>(r.getSource().getName() + ": " + r.getText())));
+		root.getChildren().add(changedItem);
 
-		final var reqHeader = new Label(labels.getString("requirement"));
-		reqHeader.getStyleClass().addAll("header", "first-row", "first-col");
-		final var sourceHeader = new Label(labels.getString("source"));
-		sourceHeader.getStyleClass().addAll("header", "first-row");
-		final var refHeader = new Label(labels.getString("reference"));
-		refHeader.getStyleClass().addAll("header", "first-row", "last-col");
+		for (final var entry : impacted.entrySet())
+		{
+			final var sourceItem = new TreeItem<>(
+					MessageFormat.format(labels.getString("impact.source.count"), entry.getKey().getName(),
+							entry.getValue().size()));
+			entry.getValue().forEach(r -> sourceItem.getChildren().add(new TreeItem<>(r.getText())));
+			sourceItem.setExpanded(true);
+			root.getChildren().add(sourceItem);
+		}
 
-		table.addRow(0, reqHeader, sourceHeader, refHeader);
+		final var tree = new TreeView<>(root);
+		tree.setShowRoot(false);
+		tab.setContent(tree);
+		return tab;
+	}
 
-		final var requirements = source.getRequirements();
-		final var refSources = source.getCoversBy().keySet();
-		var index = 0;
-		for (final var requirement : requirements)
+	/**
+	 * Action event to compare the last analysis with a baseline analysis snapshot, exported in the snapshot format.
+	 * 
+	 * @param event
+	 *            the {@link ActionEvent}
+	 */
+	@FXML
+	protected void diff(final ActionEvent event)
+	{
+		final FileChooser fileChooser = new FileChooser();
+		fileChooser.getExtensionFilters()
+				.add(new ExtensionFilter(labels.getString("snapshot.file.desc"), "*" + AnalysisSnapshot.EXTENSION));
+		fileChooser.setTitle(labels.getString("diff.title"));
+		if (lastExport != null)
 		{
-			final var reqCell = new Label(requirement.getText());
-			reqCell.getStyleClass().add("first-col");
-			setReqStyle(source, requirement, reqCell);
+			fileChooser.setInitialDirectory(lastExport.getParentFile());
+		}
+		else
+		{
+			fileChooser.setInitialDirectory(RETAAnalysis.getInstance().getConfig().getParentFile());
+		}
 
-			final List<Label> sourceCells = new ArrayList<>();
-			final List<List<Label>> refCells = new ArrayList<>();
-			for (final var refSource : refSources)
+		final File file = fileChooser.showOpenDialog(root.getScene().getWindow());
+		if (file != null)
+		{
+			final var task = new Task<AnalysisDiff>()
 			{
-				final var sourceCell = new Label(refSource.getName());
-				sourceCells.add(sourceCell);
-				final List<Label> cells = new ArrayList<>();
-				refCells.add(cells);
-				final var refs = requirement.getReferredByRequirementFor(refSource);
-				for (final var ref : refs)
+				@Override
+				protected AnalysisDiff call() throws Exception
 				{
-					cells.add(new Label(ref.getText()));
+					return RETAAnalysis.getInstance().compare(file);
 				}
-				if (refs.isEmpty())
+
+				@Override
+				protected void succeeded()
 				{
-					cells.add(new Label());
+					// Not removed if the results have been cleared meanwhile
+					if (tabTasks.remove(this) && getValue() != null)
+					{
+						final var tab = createDiffTab(file, getValue());
+						resultTabs.getTabs().add(tab);
+						resultTabs.getSelectionModel().select(tab);
+					}
 				}
-				cells.getLast().getStyleClass().add("last-col");
-			}
-			if (refSources.isEmpty())
-			{
-				sourceCells.add(new Label());
-				final List<Label> cells = new ArrayList<>();
-				cells.add(new Label());
-				refCells.add(cells);
-				cells.getLast().getStyleClass().add("last-col");
-			}
 
-			var row = table.getRowCount();
-			table.add(reqCell, 0, row, 1, refCells.stream().mapToInt(Collection::size).sum());
-			for (int i = 0; i < sourceCells.size(); i++)
+				@Override
+				protected void failed()
+				{
+					tabTasks.remove(this);
+					LOGGER.log(Level.SEVERE, "Comparing with baseline " + file, getException());
+					MessageDialog.showErrorMessage(root.getScene().getWindow(), labels.getString("diff.error"),
+							getException());
+				}
+			};
+			// Cancelled with the result tabs: the comparison tab is not added to the results of a new analysis
+			tabTasks.add(task);
+			startResultThread(task);
+		}
+	}
+
+	/**
+	 * @param file
+	 *            baseline analysis snapshot file
+	 * @param comparison
+	 *            comparison with the baseline
+	 * @return comparison tab
+	 */
+	private Tab createDiffTab(final File file, final AnalysisDiff comparison)
+	{
+		final var tab = new Tab(MessageFormat.format(labels.getString("diff.tab"), file.getName()));
+		final var baseline = comparison.getBaseline();
+
+		final var root = new TreeItem<String>();
+		root.getChildren()
+				.add(new TreeItem<>(
+						labels.getString(comparison.isRegression() ? "diff.regression" : "diff.no.regression")));
+
+		final var coverageItem = new TreeItem<>(labels.getString("diff.coverage"));
+		for (final var delta : comparison.getCoverageDeltas())
+		{
+			coverageItem.getChildren()
+					.add(new TreeItem<>(MessageFormat.format(labels.getString("diff.coverage.rate"), delta.getSource(),
+							delta.getCoveringSource(), percent(delta.getBaselineRate()), percent(delta.getRate()))));
+		}
+		coverageItem.setExpanded(true);
+		root.getChildren().add(coverageItem);
+
+		root.getChildren().add(createDiffItem("diff.uncovered", comparison.getNewlyUncovered()));
+
+		final var unknownItem = new TreeItem<String>();
+		comparison.getNewUnknownReferences().forEach((r, refs) -> {
+			final var reqItem = new TreeItem<>(r.getSource().getName() + ": " + r.getText());
+			refs.forEach(ref -> reqItem.getChildren().add(new TreeItem<>(ref.getText())));
+			reqItem.setExpanded(true);
+			unknownItem.getChildren().add(reqItem);
+		});
+		unknownItem.setValue(MessageFormat.format(labels.getString("diff.unknown"),
+				comparison.getNewUnknownReferences().values().stream().mapToInt(List::size).sum()));
+		root.getChildren().add(unknownItem);
+
+		root.getChildren().add(createDiffItem("diff.added", comparison.getAdded()));
+
+		final int[] removed = comparison.getRemoved();
+		final var removedItem = new TreeItem<>(MessageFormat.format(labels.getString("diff.removed"), removed.length));
+		for (final int r : removed)
+		{
+			removedItem.getChildren()
+					.add(new TreeItem<>(baseline.getSourceName(baseline.getRequirementSource(r)) + ": "
+							+ baseline.getRequirementText(r)));
+		}
+		root.getChildren().add(removedItem);
+
+		root.getChildren().add(createDiffItem("diff.changed", comparison.getChanged()));
+
+		final var tree = new TreeView<>(root);
+		tree.setShowRoot(false);
+		tab.setContent(tree);
+		return tab;
+	}
+
+	/**
+	 * @param key
+	 *            label key of the item, formatted with the requirement count
+	 * @param requirements
+	 *            requirements
+	 * @return tree item of the requirements
+	 */
+	private TreeItem<String> createDiffItem(final String key, final List<RequirementImpl> requirements)
+	{
+		final var item = new TreeItem<>(MessageFormat.format(labels.getString(key), requirements.size()));
+		requirements.forEach(r -> item.getChildren().add(new TreeItem<>(r.getSource().getName() + ": " + r.getText())));
+		return item;
+	}
+
+	/**
+	 * @param rate
+	 *            coverage rate, NaN if none
+	 * @return coverage rate in percent, <code>-</code> if none
+	 */
+	private static String percent(final double rate)
+	{
+		return (Double.isNaN(rate) ? "-" : String.format("%.1f %%", rate * 100));
+	}
+
+	/**
+	 * @param source
+	 *            requirement source
+	 * @param requirements
+	 *            requirements of the source
+	 * @return source tab content
+	 */
+	private Node createSourceContent(final InputRequirementSource source, final List<RequirementImpl> requirements)
+	{
+		final var table = new TableView<>(filterBySearch(requirements, r -> r));
+		table.getStyleClass().add("result-table");
+		table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_ALL_COLUMNS);
+
+		final TableColumn<RequirementImpl, RequirementImpl> reqColumn = createColumn(labels.getString("requirement"),
+				r -> r);
+		reqColumn.setCellFactory(c -> new TableCell<>()
+		{
+			@Override
+			protected void updateItem(final RequirementImpl item, final boolean empty)
 			{
-				final var refs = refCells.get(i);
-				table.add(sourceCells.get(i), 1, row, 1, refs.size());
-				for (int c = 0; c < refs.size(); c++, row++)
+				super.updateItem(item, empty);
+				getStyleClass().removeAll("uncovered", "partial");
+				if (empty || item == null)
+				{
+					setText(null);
+				}
+				else
 				{
-					table.add(refs.get(c), 2, row);
+					setText(item.getText());
+					setReqStyle(item, this);
 				}
 			}
+		});
+		table.getColumns().add(reqColumn);
 
-			index++;
-			if (index == requirements.size())
+		// One reference column per covering source
+		final var refSources = source.getCoversBy().keySet();
+		if (!refSources.isEmpty())
+		{
+			final TableColumn<RequirementImpl, ?> refColumn = new TableColumn<>(labels.getString("reference"));
+			for (final var refSource : refSources)
 			{
-				reqCell.getStyleClass().add("last-row");
-				sourceCells.getLast().getStyleClass().add("last-row");
-				refCells.getLast().getLast().getStyleClass().add("last-row");
+				refColumn.getColumns()
+						.add(createColumn(refSource.getName(), r -> r.getReferredByRequirementFor(refSource)
+								.stream()
+								.map(RequirementImpl::getText)
+								.collect(Collectors.joining("\n"))));
 			}
+			table.getColumns().add(refColumn);
 		}
 
-		tab.setContent(new ScrollPane(table));
-		return tab;
+		table.getColumns()
+				.add(createColumn(labels.getString("transitive"), r -> r.getTransitiveCoverage()
+						.stream()
+						.map(InputRequirementSource::getName)
+						.collect(Collectors.joining("\n"))));
+
+		final var content = new VBox(4);
+		content.setPadding(new Insets(8, 0, 0, 0));
+		for (final var rate : source.getTransitiveCoversBy().entrySet())
+		{
+			final var rateLabel = new Label(MessageFormat.format(labels.getString("transitive.rate"), source.getName(),
+					rate.getKey().getName(), rate.getValue() * 100));
+			rateLabel.setPadding(new Insets(0, 8, 0, 8));
+			content.getChildren().add(rateLabel);
+		}
+		VBox.setVgrow(table, Priority.ALWAYS);
+		content.getChildren().add(table);
+		return content;
 	}
 
-	private void setReqStyle(final InputRequirementSource source, final RequirementImpl requirement,
-			final Label reqCell)
+	private void setReqStyle(final RequirementImpl requirement, final TableCell<?, ?> reqCell)
 	{
-		if (requirement.getReferredBySource().isEmpty() && !source.getCoversBy().isEmpty())
+		switch (CoverageState.of(requirement))
 		{
+		case UNCOVERED:
 			reqCell.getStyleClass().add("uncovered");
-		}
-		else if (!requirement.getReferredBySource().isEmpty()
-				&& requirement.getReferredBySource().size() < source.getCoversBy().size())
-		{
+			break;
+		case PARTIAL:
 			reqCell.getStyleClass().add("partial");
+			break;
+		default:
+			break;
 		}
 	}
 
@@ -1034,9 +1976,12 @@ public class MainConfigurationController implements Initializable
 	{
 		if (file != null && file.isFile())
 		{
+			clearResults();
+			awaitRestoreThread();
 			RETAAnalysis.getInstance().configure(file);
 			rebuild();
 			lastExport = null;
+			restoreSnapshot();
 		}
 	}
 
@@ -120,6 +120,10 @@ public class SourceConfigurationController
 	@FXML
 	private ValidationDecorator<TextField>			covers;
 
+	/** Input requirement source identifier normalisation field. */
+	@FXML
+	private ValidationDecorator<TextField>			idNormalization;
+
 	/** Plug-in configuration pane. */
 	@FXML
 	private HBox									pluginPane;
@@ -255,6 +259,8 @@ public class SourceConfigurationController
 				.bufferingList(requirementSource, InputRequirementSource.COVERS);
 		bindTextInputControl(covers, coversProperty, new InputRequirementSourceStringConverter());
 
+		bindTextInputControl(idNormalization, bufferingManager.buffering(requirementSource.idNormalizationProperty()));
+
 		callBacks.add(c -> {
 			// force to refresh validation using InputRequirementSourceStringConverter
 			final String value = covers.getChild().getText();
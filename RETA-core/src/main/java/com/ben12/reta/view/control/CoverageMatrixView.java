@@ -0,0 +1,458 @@
+// Package : com.ben12.reta.view.control
+// File : CoverageMatrixView.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.view.control;
+
+import java.text.MessageFormat;
+import java.util.ResourceBundle;
+
+import javafx.animation.AnimationTimer;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Tooltip;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+import com.ben12.reta.model.CoverageMatrix;
+import com.ben12.reta.model.RequirementImpl;
+
+/**
+ * Zoomable heat-map of a {@link CoverageMatrix}: one row per requirement, grouped by source, and one column per
+ * covering source.<br>
+ * The matrix is painted one screen pixel row at a time: each pixel row aggregates the requirements it covers through
+ * the matrix prefix sums and is coloured by covered rate, so a frame costs the same whatever the requirement count.
+ * Texts are drawn when rows are tall enough. Dragging pans, the mouse wheel zooms around the cursor.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public final class CoverageMatrixView extends Region
+{
+	/** Virtual row height at zoom factor 1. */
+	private static final double			ROW_HEIGHT		= 16;
+
+	/** Column width. */
+	private static final int			COLUMN_WIDTH	= 96;
+
+	/** Requirement identifiers column width. */
+	private static final int			LABEL_WIDTH		= 200;
+
+	/** Column header height. */
+	private static final int			HEADER_HEIGHT	= 24;
+
+	/** Row height in pixels from which texts are drawn. */
+	private static final double			TEXT_HEIGHT		= 11;
+
+	/** Maximal zoom factor. */
+	private static final double			MAX_SCALE		= 4;
+
+	/** Directly covered cell colour. */
+	private static final int			DIRECT_COLOR	= 0xFF4CAF50;
+
+	/** Transitively covered cell colour. */
+	private static final int			TRANSITIVE_COLOR	= 0xFFA5D6A7;
+
+	/** Not applicable cell colour. */
+	private static final int			NONE_COLOR		= 0xFFF1F1F1;
+
+	/** Group header row colour. */
+	private static final int			GROUP_COLOR		= 0xFFD3D3D3;
+
+	/** Background colour. */
+	private static final int			BACKGROUND		= 0xFFFFFFFF;
+
+	/** Aggregated cell colours by covered rate, from red (0) to green (255). */
+	private static final int[]			RATE_COLORS		= new int[256];
+
+	/** Text colour. */
+	private static final Color			TEXT_COLOR		= Color.web("#181818");
+
+	/** Text font. */
+	private static final Font			FONT			= Font.font("monospace", 12);
+
+	/** Group header font. */
+	private static final Font			GROUP_FONT		= Font.font("monospace", FontWeight.BOLD, 12);
+
+	static
+	{
+		final Color uncovered = Color.web("#E53935");
+		final Color covered = Color.rgb(DIRECT_COLOR >> 16 & 0xFF, DIRECT_COLOR >> 8 & 0xFF, DIRECT_COLOR & 0xFF);
+		for (int rate = 0; rate < RATE_COLORS.length; rate++)
+		{
+			final Color color = uncovered.interpolate(covered, rate / 255.0);
+			RATE_COLORS[rate] = 0xFF000000 | (int) Math.round(color.getRed() * 255) << 16
+					| (int) Math.round(color.getGreen() * 255) << 8 | (int) Math.round(color.getBlue() * 255);
+		}
+	}
+
+	/** Canvas, of the size of this region. */
+	private final Canvas				canvas			= new Canvas();
+
+	/** Tool-tip of the hovered cell. */
+	private final Tooltip				tooltip			= new RETATooltip();
+
+	/** Translated labels. */
+	private final ResourceBundle		labels;
+
+	/** Shown matrix. */
+	private final CoverageMatrix		matrix;
+
+	/** Pixel buffer of the matrix area. */
+	private int[]						pixels			= new int[0];
+
+	/** Zoom factor. */
+	private double						scale			= 1;
+
+	/** Vertical translation, in pixels. */
+	private double						translateY		= 0;
+
+	/** Last mouse vertical position while dragging. */
+	private double						lastY			= 0;
+
+	/** True if the canvas must be repainted. */
+	private boolean						dirty			= true;
+
+	/** Hovered cell (requirement index * column count + column), -1 if none. */
+	private long						hovered			= -1;
+
+	/**
+	 * @param theMatrix
+	 *            coverage matrix to show
+	 * @param theLabels
+	 *            translated labels
+	 */
+	public CoverageMatrixView(final CoverageMatrix theMatrix, final ResourceBundle theLabels)
+	{
+		matrix = theMatrix;
+		labels = theLabels;
+		getChildren().add(canvas);
+		setMinSize(0, 0);
+
+		final AnimationTimer timer = new AnimationTimer()
+		{
+			@Override
+			public void handle(final long now)
+			{
+				if (dirty)
+				{
+					dirty = false;
+					paint();
+				}
+			}
+		};
+		sceneProperty().subscribe(scene -> {
+			if (scene == null)
+			{
+				timer.stop();
+			}
+			else
+			{
+				timer.start();
+			}
+		});
+
+		canvas.setOnMousePressed(event -> lastY = event.getY());
+		canvas.setOnMouseDragged(this::mouseDragged);
+		canvas.setOnMouseMoved(this::mouseMoved);
+		canvas.setOnScroll(this::scroll);
+		Tooltip.install(canvas, tooltip);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see javafx.scene.Parent#layoutChildren()
+	 */
+	@Override
+	protected void layoutChildren()
+	{
+		canvas.setWidth(getWidth());
+		canvas.setHeight(getHeight());
+		clampTranslation();
+		dirty = true;
+	}
+
+	/**
+	 * Paint the visible part of the matrix.
+	 */
+	private void paint()
+	{
+		final GraphicsContext gc = canvas.getGraphicsContext2D();
+		final int width = (int) canvas.getWidth();
+		final int height = (int) canvas.getHeight();
+		gc.clearRect(0, 0, width, height);
+
+		final int columnCount = matrix.getColumns().size();
+		final int areaWidth = Math.min(Math.max(0, width - LABEL_WIDTH), columnCount * COLUMN_WIDTH);
+		final int areaHeight = Math.max(0, height - HEADER_HEIGHT);
+		if (areaWidth > 0 && areaHeight > 0)
+		{
+			if (pixels.length < areaWidth * areaHeight)
+			{
+				pixels = new int[areaWidth * areaHeight];
+			}
+			final double rowHeight = ROW_HEIGHT * scale;
+			for (int y = 0; y < areaHeight; y++)
+			{
+				final int firstRow;
+				final int endRow;
+				if (rowHeight >= 1)
+				{
+					// Rows are at least one pixel tall: show the row under the pixel centre
+					firstRow = (int) Math.floor((y + 0.5 - translateY) / rowHeight);
+					endRow = firstRow + 1;
+				}
+				else
+				{
+					// Aggregate all the rows under the pixel
+					firstRow = (int) Math.floor((y - translateY) / rowHeight);
+					endRow = (int) Math.ceil((y + 1 - translateY) / rowHeight);
+				}
+				final int from = matrix.requirementsBefore(firstRow);
+				final int to = Math.max(from, matrix.requirementsBefore(endRow));
+				final boolean outside = (firstRow < 0 || firstRow >= matrix.getRowCount());
+				final boolean header = !outside && from == to;
+				final int offset = y * areaWidth;
+				for (int c = 0; c < columnCount && c * COLUMN_WIDTH < areaWidth; c++)
+				{
+					final int color = (outside ? BACKGROUND : header ? GROUP_COLOR : cellColor(from, to, c));
+					// One pixel white separator between columns
+					final int end = Math.min(areaWidth, (c + 1) * COLUMN_WIDTH - 1);
+					for (int x = c * COLUMN_WIDTH; x < end; x++)
+					{
+						pixels[offset + x] = color;
+					}
+					if (end < areaWidth)
+					{
+						pixels[offset + end] = BACKGROUND;
+					}
+				}
+			}
+			gc.getPixelWriter()
+					.setPixels(LABEL_WIDTH, HEADER_HEIGHT, areaWidth, areaHeight, PixelFormat.getIntArgbInstance(),
+							pixels, 0, areaWidth);
+			paintTexts(gc, rowHeight, areaHeight);
+		}
+
+		gc.setFill(Color.LIGHTGREY);
+		gc.fillRect(0, 0, width, HEADER_HEIGHT);
+		gc.setFill(TEXT_COLOR);
+		gc.setFont(GROUP_FONT);
+		gc.setTextAlign(TextAlignment.CENTER);
+		gc.setTextBaseline(VPos.CENTER);
+		for (int c = 0; c < columnCount; c++)
+		{
+			gc.fillText(matrix.getColumns().get(c).getName(), LABEL_WIDTH + c * COLUMN_WIDTH + COLUMN_WIDTH / 2.0,
+					HEADER_HEIGHT / 2.0, COLUMN_WIDTH - 4);
+		}
+	}
+
+	/**
+	 * Paint the group names and, when rows are tall enough, the requirement identifiers.
+	 * 
+	 * @param gc
+	 *            canvas graphics context
+	 * @param rowHeight
+	 *            virtual row height in pixels
+	 * @param areaHeight
+	 *            matrix area height in pixels
+	 */
+	private void paintTexts(final GraphicsContext gc, final double rowHeight, final int areaHeight)
+	{
+		gc.setTextAlign(TextAlignment.LEFT);
+		gc.setTextBaseline(VPos.CENTER);
+		final int firstRow = Math.max(0, (int) Math.floor(-translateY / rowHeight));
+		final int lastRow = Math.min(matrix.getRowCount() - 1, (int) Math.floor((areaHeight - translateY) / rowHeight));
+		if (rowHeight >= TEXT_HEIGHT)
+		{
+			for (int row = firstRow; row <= lastRow; row++)
+			{
+				final double y = HEADER_HEIGHT + translateY + (row + 0.5) * rowHeight;
+				final int index = matrix.requirementOf(row);
+				if (index >= 0)
+				{
+					gc.setFont(FONT);
+					gc.setFill(TEXT_COLOR);
+					gc.fillText(matrix.getRequirement(index).getId(), 4, y, LABEL_WIDTH - 8);
+				}
+				else if (matrix.groupOf(row) >= 0)
+				{
+					gc.setFill(Color.LIGHTGREY);
+					gc.fillRect(0, y - rowHeight / 2, LABEL_WIDTH, rowHeight);
+					gc.setFont(GROUP_FONT);
+					gc.setFill(TEXT_COLOR);
+					gc.fillText(matrix.getGroups().get(matrix.groupOf(row)).getName(), 4, y, LABEL_WIDTH - 8);
+				}
+			}
+		}
+		else
+		{
+			// Rows are too small: only show where each group starts
+			gc.setFont(GROUP_FONT);
+			gc.setFill(TEXT_COLOR);
+			for (int g = Math.max(0, matrix.groupOf(firstRow)); g < matrix.getGroups().size(); g++)
+			{
+				final double y = HEADER_HEIGHT + translateY + matrix.getGroupRow(g) * rowHeight;
+				if (y > HEADER_HEIGHT + areaHeight)
+				{
+					break;
+				}
+				gc.fillText(matrix.getGroups().get(g).getName(), 4, Math.max(y, HEADER_HEIGHT) + 8, LABEL_WIDTH - 8);
+			}
+		}
+	}
+
+	/**
+	 * @param from
+	 *            first requirement index
+	 * @param to
+	 *            requirement index after the last one
+	 * @param column
+	 *            column index
+	 * @return colour of the cells of the requirement range in the column
+	 */
+	private int cellColor(final int from, final int to, final int column)
+	{
+		final int color;
+		if (to - from == 1)
+		{
+			final int state = matrix.getState(from, column);
+			if (state == CoverageMatrix.DIRECT)
+			{
+				color = DIRECT_COLOR;
+			}
+			else if (state == CoverageMatrix.TRANSITIVE)
+			{
+				color = TRANSITIVE_COLOR;
+			}
+			else if (state == CoverageMatrix.UNCOVERED)
+			{
+				color = RATE_COLORS[0];
+			}
+			else
+			{
+				color = NONE_COLOR;
+			}
+		}
+		else
+		{
+			final int applicable = matrix.getApplicableCount(from, to, column);
+			if (applicable == 0)
+			{
+				color = NONE_COLOR;
+			}
+			else
+			{
+				color = RATE_COLORS[matrix.getCoveredCount(from, to, column) * 255 / applicable];
+			}
+		}
+		return color;
+	}
+
+	/**
+	 * Pan the matrix.
+	 * 
+	 * @param event
+	 *            mouse dragged event
+	 */
+	private void mouseDragged(final MouseEvent event)
+	{
+		if (event.getButton() == MouseButton.PRIMARY)
+		{
+			translateY += event.getY() - lastY;
+			lastY = event.getY();
+			clampTranslation();
+			dirty = true;
+		}
+	}
+
+	/**
+	 * Zoom around the mouse position.
+	 * 
+	 * @param event
+	 *            scroll event
+	 */
+	private void scroll(final ScrollEvent event)
+	{
+		final double newScale = Math.max(minScale(), Math.min(MAX_SCALE, scale * Math.pow(1.002, event.getDeltaY())));
+		final double y = event.getY() - HEADER_HEIGHT;
+		translateY = y - (y - translateY) * newScale / scale;
+		scale = newScale;
+		clampTranslation();
+		dirty = true;
+		event.consume();
+	}
+
+	/**
+	 * @return zoom factor showing the whole matrix
+	 */
+	private double minScale()
+	{
+		return Math.min(1, Math.max(1, getHeight() - HEADER_HEIGHT) / (ROW_HEIGHT * Math.max(1, matrix.getRowCount())));
+	}
+
+	/**
+	 * Keep the matrix in the view port.
+	 */
+	private void clampTranslation()
+	{
+		scale = Math.max(minScale(), scale);
+		final double contentHeight = matrix.getRowCount() * ROW_HEIGHT * scale;
+		translateY = Math.max(Math.min(0, getHeight() - HEADER_HEIGHT - contentHeight), Math.min(0, translateY));
+	}
+
+	/**
+	 * Update the tool-tip of the hovered cell.
+	 * 
+	 * @param event
+	 *            mouse moved event
+	 */
+	private void mouseMoved(final MouseEvent event)
+	{
+		final int row = (int) Math.floor((event.getY() - HEADER_HEIGHT - translateY) / (ROW_HEIGHT * scale));
+		final int columnCount = matrix.getColumns().size();
+		final int column = Math.max(-1, Math.min(columnCount, (int) Math.floor((event.getX() - LABEL_WIDTH) / COLUMN_WIDTH)));
+		final int index = (event.getY() < HEADER_HEIGHT ? -1 : matrix.requirementOf(row));
+		final long cell = (index < 0 ? -1 : (long) index * (columnCount + 2) + column + 1);
+		if (cell != hovered)
+		{
+			hovered = cell;
+			String text = "";
+			if (index >= 0)
+			{
+				final RequirementImpl req = matrix.getRequirement(index);
+				text = req.getSource().getName() + ": " + req.getText();
+				if (column >= 0 && column < columnCount)
+				{
+					final int state = matrix.getState(index, column);
+					text += "\n" + MessageFormat.format(labels.getString("matrix.state." + state),
+							matrix.getColumns().get(column).getName());
+				}
+			}
+			tooltip.setText(text);
+		}
+	}
+}
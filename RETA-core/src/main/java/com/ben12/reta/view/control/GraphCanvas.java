@@ -0,0 +1,744 @@
+// Package : com.ben12.reta.view.control
+// File : GraphCanvas.java
+// 
+// Copyright (C) 2025 Benot Moreau (ben.12)
+//
+// This file is part of RETA (Requirement Engineering Traceability Analysis).
+//
+// RETA is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// RETA is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with RETA.  If not, see <http://www.gnu.org/licenses/>.
+package com.ben12.reta.view.control;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import javafx.animation.AnimationTimer;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+import com.ben12.reta.graph.EdgeIndex;
+import com.ben12.reta.graph.GraphLayout;
+import com.ben12.reta.model.CoverageState;
+import com.ben12.reta.model.GraphData.Link;
+import com.ben12.reta.model.InputRequirementSource;
+import com.ben12.reta.model.RequirementImpl;
+
+/**
+ * Draw a {@link GraphLayout} on a {@link Canvas} of the size of the view port.<br>
+ * Only the boxes, rows and edges intersecting the view port are painted, edges are found through an
+ * {@link EdgeIndex}. The graph is panned by dragging and zoomed with the mouse wheel; clicking a link edge selects it
+ * and centres the view on its other end, clicking a requirement selects it with its links.
+ * 
+ * @author Benot Moreau (ben.12)
+ */
+public final class GraphCanvas extends Region
+{
+	/** Minimal zoom factor. */
+	private static final double			MIN_SCALE		= 0.01;
+
+	/** Maximal zoom factor. */
+	private static final double			MAX_SCALE		= 8;
+
+	/** Zoom factor below which texts are not drawn. */
+	private static final double			TEXT_SCALE		= 0.4;
+
+	/** Zoom factor below which edges are drawn as straight lines without arrows. */
+	private static final double			DETAIL_SCALE	= 0.25;
+
+	/** Edge hit tolerance, in pixels. */
+	private static final double			HIT_TOLERANCE	= 4;
+
+	/** Steps used to flatten an edge curve segment for hit tests. */
+	private static final int			CURVE_STEPS		= 8;
+
+	/** Box background colour. */
+	private static final Color			BOX_COLOR		= Color.web("#F1F1F1");
+
+	/** Line and text colour. */
+	private static final Color			LINE_COLOR		= Color.web("#181818");
+
+	/** Selection colour. */
+	private static final Color			SELECTION_COLOR	= Color.web("#1E64C8");
+
+	/** Selected row background colour. */
+	private static final Color			SELECTED_ROW	= Color.web("#CCE0FF");
+
+	/** Uncovered requirement colour. */
+	private static final Color			UNCOVERED_COLOR	= Color.RED;
+
+	/** Partially covered requirement colour. */
+	private static final Color			PARTIAL_COLOR	= Color.CORAL;
+
+	/** Row text font. */
+	private static final Font			FONT			= Font.font("monospace", GraphLayout.FONT_SIZE);
+
+	/** Box header font. */
+	private static final Font			HEADER_FONT		= Font.font("monospace", FontWeight.BOLD,
+			GraphLayout.FONT_SIZE);
+
+	/** Canvas, of the size of this region. */
+	private final Canvas				canvas			= new Canvas();
+
+	/** Tool-tip of the hovered requirement or source. */
+	private final Tooltip				tooltip			= new RETATooltip();
+
+	/** Repaint on the next pulse when {@link #dirty}. */
+	private final AnimationTimer		timer;
+
+	/** Shown graph, may be null. */
+	private GraphLayout					layout			= null;
+
+	/** Edge spatial index of {@link #layout}. */
+	private EdgeIndex					index			= null;
+
+	/** Box index and row of each shown requirement. */
+	private Map<RequirementImpl, int[]>	rowsByRequirement	= new IdentityHashMap<>();
+
+	/** Row colours of each box, null for default colour. */
+	private Color[][]					rowColors		= new Color[0][];
+
+	/** Zoom factor. */
+	private double						scale			= 1;
+
+	/** Horizontal translation, in pixels. */
+	private double						translateX		= 0;
+
+	/** Vertical translation, in pixels. */
+	private double						translateY		= 0;
+
+	/** Last mouse horizontal position while dragging. */
+	private double						lastX			= 0;
+
+	/** Last mouse vertical position while dragging. */
+	private double						lastY			= 0;
+
+	/** True if the graph must be fitted in the view port on next layout. */
+	private boolean						fitPending		= false;
+
+	/** True if the canvas must be repainted. */
+	private boolean						dirty			= false;
+
+	/** Selected requirement, may be null. */
+	private RequirementImpl				selectedRequirement	= null;
+
+	/** Highlighted edges: selected edge or links of the selected requirement. */
+	private final List<GraphLayout.Edge>	highlighted		= new ArrayList<>();
+
+	/** Hovered object, requirement or source, may be null. */
+	private Object						hovered			= null;
+
+	/** Action called when a source box is clicked. */
+	private Consumer<InputRequirementSource>	onSourceClicked	= null;
+
+	/** Action called when an edge is clicked. */
+	private Consumer<GraphLayout.Edge>	onEdgeClicked	= null;
+
+	/**
+	 * Empty graph canvas.
+	 */
+	public GraphCanvas()
+	{
+		getChildren().add(canvas);
+		setMinSize(0, 0);
+
+		timer = new AnimationTimer()
+		{
+			@Override
+			public void handle(final long now)
+			{
+				if (dirty)
+				{
+					dirty = false;
+					paint();
+				}
+			}
+		};
+		timer.start();
+
+		canvas.setOnMousePressed(this::mousePressed);
+		canvas.setOnMouseDragged(this::mouseDragged);
+		canvas.setOnMouseClicked(this::mouseClicked);
+		canvas.setOnMouseMoved(this::mouseMoved);
+		canvas.setOnScroll(this::scroll);
+	}
+
+	/**
+	 * Show a graph, fitted in the view port.
+	 * 
+	 * @param theLayout
+	 *            graph to show, may be null
+	 */
+	public void setLayout(final GraphLayout theLayout)
+	{
+		layout = theLayout;
+		index = (theLayout == null ? null : new EdgeIndex(theLayout));
+		rowsByRequirement = new IdentityHashMap<>();
+		rowColors = new Color[theLayout == null ? 0 : theLayout.getBoxes().size()][];
+		for (int b = 0; b < rowColors.length; b++)
+		{
+			final GraphLayout.Box box = theLayout.getBoxes().get(b);
+			final List<RequirementImpl> requirements = box.getRequirements();
+			rowColors[b] = new Color[requirements.size()];
+			for (int row = 0; row < requirements.size(); row++)
+			{
+				final RequirementImpl req = requirements.get(row);
+				rowsByRequirement.put(req, new int[] { b, row });
+				final CoverageState state = CoverageState.of(req);
+				if (state == CoverageState.UNCOVERED)
+				{
+					rowColors[b][row] = UNCOVERED_COLOR;
+				}
+				else if (state == CoverageState.PARTIAL)
+				{
+					rowColors[b][row] = PARTIAL_COLOR;
+				}
+			}
+		}
+		selectedRequirement = null;
+		highlighted.clear();
+		hovered = null;
+		Tooltip.uninstall(canvas, tooltip);
+		fitPending = true;
+		requestLayout();
+		repaint();
+	}
+
+	/**
+	 * @param action
+	 *            action called when a source box is clicked, may be null
+	 */
+	public void setOnSourceClicked(final Consumer<InputRequirementSource> action)
+	{
+		onSourceClicked = action;
+	}
+
+	/**
+	 * @param action
+	 *            action called when an edge is clicked, may be null
+	 */
+	public void setOnEdgeClicked(final Consumer<GraphLayout.Edge> action)
+	{
+		onEdgeClicked = action;
+	}
+
+	/**
+	 * Zoom out or in so that the whole graph is visible, at most at its natural size.
+	 */
+	public void fit()
+	{
+		if (layout != null && getWidth() > 0 && getHeight() > 0)
+		{
+			scale = Math.max(MIN_SCALE,
+					Math.min(1, Math.min(getWidth() / layout.getWidth(), getHeight() / layout.getHeight())));
+			translateX = (getWidth() - layout.getWidth() * scale) / 2;
+			translateY = (getHeight() - layout.getHeight() * scale) / 2;
+			fitPending = false;
+			repaint();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see javafx.scene.Parent#layoutChildren()
+	 */
+	@Override
+	protected void layoutChildren()
+	{
+		canvas.setWidth(getWidth());
+		canvas.setHeight(getHeight());
+		if (fitPending)
+		{
+			fit();
+		}
+		repaint();
+	}
+
+	/**
+	 * Repaint the canvas on the next pulse.
+	 */
+	private void repaint()
+	{
+		dirty = true;
+	}
+
+	/**
+	 * Paint the graph part visible in the view port.
+	 */
+	private void paint()
+	{
+		final GraphicsContext gc = canvas.getGraphicsContext2D();
+		gc.setTransform(1, 0, 0, 1, 0, 0);
+		gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+		if (layout != null)
+		{
+			final double minX = -translateX / scale;
+			final double minY = -translateY / scale;
+			final double maxX = (canvas.getWidth() - translateX) / scale;
+			final double maxY = (canvas.getHeight() - translateY) / scale;
+			gc.setTransform(scale, 0, 0, scale, translateX, translateY);
+
+			for (int b = 0; b < layout.getBoxes().size(); b++)
+			{
+				paintBox(gc, b, minY, maxY, minX, maxX);
+			}
+
+			final boolean detailed = (scale >= DETAIL_SCALE);
+			gc.setLineWidth(1 / scale);
+			gc.setStroke(LINE_COLOR);
+			gc.setFill(LINE_COLOR);
+			gc.beginPath();
+			index.forEachEdge(minX, minY, maxX, maxY, e -> tracePath(gc, index.getEdge(e), detailed));
+			gc.stroke();
+			if (detailed)
+			{
+				gc.beginPath();
+				index.forEachEdge(minX, minY, maxX, maxY, e -> traceArrow(gc, index.getEdge(e)));
+				gc.fill();
+			}
+
+			if (scale >= TEXT_SCALE)
+			{
+				gc.setFont(FONT);
+				gc.setTextAlign(TextAlignment.CENTER);
+				gc.setTextBaseline(VPos.BASELINE);
+				index.forEachEdge(minX, minY, maxX, maxY, e -> {
+					final GraphLayout.Edge edge = index.getEdge(e);
+					if (edge.getLabel() != null)
+					{
+						final int middle = edge.getPointCount() / 2;
+						gc.fillText(edge.getLabel(), (edge.getX(middle - 1) + edge.getX(middle)) / 2,
+								(edge.getY(middle - 1) + edge.getY(middle)) / 2 - 3);
+					}
+				});
+			}
+
+			if (!highlighted.isEmpty())
+			{
+				gc.setLineWidth(2 / scale);
+				gc.setStroke(SELECTION_COLOR);
+				gc.setFill(SELECTION_COLOR);
+				gc.beginPath();
+				highlighted.forEach(edge -> tracePath(gc, edge, true));
+				gc.stroke();
+				gc.beginPath();
+				highlighted.forEach(edge -> traceArrow(gc, edge));
+				gc.fill();
+			}
+		}
+	}
+
+	/**
+	 * Paint a box and its rows visible in the view port.
+	 * 
+	 * @param gc
+	 *            canvas graphics context
+	 * @param b
+	 *            box index
+	 * @param minY
+	 *            view port top
+	 * @param maxY
+	 *            view port bottom
+	 * @param minX
+	 *            view port left
+	 * @param maxX
+	 *            view port right
+	 */
+	private void paintBox(final GraphicsContext gc, final int b, final double minY, final double maxY,
+			final double minX, final double maxX)
+	{
+		final GraphLayout.Box box = layout.getBoxes().get(b);
+		final double x = box.getX();
+		final double y = box.getY();
+		final double width = box.getWidth();
+		if (x <= maxX && x + width >= minX && y <= maxY && y + box.getHeight() >= minY)
+		{
+			final double top = Math.max(y, minY);
+			final double bottom = Math.min(y + box.getHeight(), maxY);
+			gc.setFill(BOX_COLOR);
+			gc.fillRect(x, top, width, bottom - top);
+
+			final List<String> rows = box.getRows();
+			final int firstRow = Math.max(0, (int) ((minY - y - GraphLayout.HEADER_HEIGHT) / GraphLayout.ROW_HEIGHT));
+			final int lastRow = Math.min(rows.size() - 1,
+					(int) ((maxY - y - GraphLayout.HEADER_HEIGHT) / GraphLayout.ROW_HEIGHT));
+			final int[] selectedRow = (selectedRequirement == null ? null : rowsByRequirement.get(selectedRequirement));
+			if (selectedRow != null && selectedRow[0] == b)
+			{
+				gc.setFill(SELECTED_ROW);
+				gc.fillRect(x, box.getRowY(selectedRow[1]), width, GraphLayout.ROW_HEIGHT);
+			}
+
+			final boolean text = (scale >= TEXT_SCALE);
+			if (text)
+			{
+				gc.setTextBaseline(VPos.BASELINE);
+				if (y + GraphLayout.HEADER_HEIGHT >= minY)
+				{
+					gc.setFont(HEADER_FONT);
+					gc.setTextAlign(TextAlignment.CENTER);
+					gc.setFill(LINE_COLOR);
+					gc.fillText(box.getSource().getName(), x + width / 2, y + GraphLayout.HEADER_HEIGHT - 7);
+				}
+				gc.setFont(FONT);
+				gc.setTextAlign(TextAlignment.LEFT);
+			}
+			for (int row = firstRow; row <= lastRow; row++)
+			{
+				final Color color = (row < rowColors[b].length ? rowColors[b][row] : null);
+				if (text)
+				{
+					gc.setFill(color == null ? LINE_COLOR : color);
+					gc.fillText(rows.get(row), x + GraphLayout.PADDING,
+							box.getRowY(row) + GraphLayout.ROW_HEIGHT - 5);
+				}
+				else if (color != null)
+				{
+					// Texts are unreadable: keep the coverage visible as coloured row marks
+					gc.setFill(color);
+					gc.fillRect(x + GraphLayout.PADDING, box.getRowY(row) + 2, width - 2 * GraphLayout.PADDING,
+							GraphLayout.ROW_HEIGHT - 4);
+				}
+			}
+
+			gc.setLineWidth(0.5 / Math.min(1, scale));
+			gc.setStroke(LINE_COLOR);
+			gc.strokeRect(x, y, width, box.getHeight());
+			gc.strokeLine(x, y + GraphLayout.HEADER_HEIGHT, x + width, y + GraphLayout.HEADER_HEIGHT);
+		}
+	}
+
+	/**
+	 * Add the edge poly-curve (or poly-line) to the current path.
+	 * 
+	 * @param gc
+	 *            canvas graphics context
+	 * @param edge
+	 *            edge
+	 * @param curved
+	 *            true to draw curves with horizontal tangents at each way point, false for straight segments
+	 */
+	private static void tracePath(final GraphicsContext gc, final GraphLayout.Edge edge, final boolean curved)
+	{
+		gc.moveTo(edge.getX(0), edge.getY(0));
+		for (int p = 1; p < edge.getPointCount(); p++)
+		{
+			if (curved)
+			{
+				final double middle = (edge.getX(p - 1) + edge.getX(p)) / 2;
+				gc.bezierCurveTo(middle, edge.getY(p - 1), middle, edge.getY(p), edge.getX(p), edge.getY(p));
+			}
+			else
+			{
+				gc.lineTo(edge.getX(p), edge.getY(p));
+			}
+		}
+	}
+
+	/**
+	 * Add the edge arrow head to the current path.
+	 * 
+	 * @param gc
+	 *            canvas graphics context
+	 * @param edge
+	 *            edge
+	 */
+	private static void traceArrow(final GraphicsContext gc, final GraphLayout.Edge edge)
+	{
+		final int last = edge.getPointCount() - 1;
+		final double x = edge.getX(last);
+		final double y = edge.getY(last);
+		// Curves end with an horizontal tangent
+		final double direction = Math.signum(x - edge.getX(last - 1));
+		final double dx = (direction == 0 ? 1 : direction) * 8;
+		gc.moveTo(x, y);
+		gc.lineTo(x - dx, y - 4);
+		gc.lineTo(x - dx, y + 4);
+		gc.closePath();
+	}
+
+	/**
+	 * @param event
+	 *            mouse pressed event
+	 */
+	private void mousePressed(final MouseEvent event)
+	{
+		lastX = event.getX();
+		lastY = event.getY();
+	}
+
+	/**
+	 * Pan the graph.
+	 * 
+	 * @param event
+	 *            mouse dragged event
+	 */
+	private void mouseDragged(final MouseEvent event)
+	{
+		if (event.getButton() == MouseButton.PRIMARY)
+		{
+			translateX += event.getX() - lastX;
+			translateY += event.getY() - lastY;
+			lastX = event.getX();
+			lastY = event.getY();
+			repaint();
+		}
+	}
+
+	/**
+	 * Zoom around the mouse position.
+	 * 
+	 * @param event
+	 *            scroll event
+	 */
+	private void scroll(final ScrollEvent event)
+	{
+		final double newScale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale * Math.pow(1.002, event.getDeltaY())));
+		translateX = event.getX() - (event.getX() - translateX) * newScale / scale;
+		translateY = event.getY() - (event.getY() - translateY) * newScale / scale;
+		scale = newScale;
+		repaint();
+		event.consume();
+	}
+
+	/**
+	 * Update the tool-tip of the hovered requirement or source.
+	 * 
+	 * @param event
+	 *            mouse moved event
+	 */
+	private void mouseMoved(final MouseEvent event)
+	{
+		final Object found = findRow(toWorldX(event.getX()), toWorldY(event.getY()));
+		if (found != hovered)
+		{
+			hovered = found;
+			if (found instanceof RequirementImpl)
+			{
+				tooltip.setText(((RequirementImpl) found).getText());
+				Tooltip.install(canvas, tooltip);
+			}
+			else if (found instanceof InputRequirementSource)
+			{
+				tooltip.setText(((InputRequirementSource) found).getConfiguration().getDescription());
+				Tooltip.install(canvas, tooltip);
+			}
+			else
+			{
+				tooltip.setText("");
+				Tooltip.uninstall(canvas, tooltip);
+			}
+		}
+	}
+
+	/**
+	 * Select the clicked requirement or edge.
+	 * 
+	 * @param event
+	 *            mouse clicked event
+	 */
+	private void mouseClicked(final MouseEvent event)
+	{
+		if (layout != null && event.getButton() == MouseButton.PRIMARY && event.isStillSincePress())
+		{
+			final double x = toWorldX(event.getX());
+			final double y = toWorldY(event.getY());
+			final Object row = findRow(x, y);
+			final GraphLayout.Edge edge = (row == null ? findEdge(x, y) : null);
+			highlighted.clear();
+			selectedRequirement = null;
+			if (row instanceof RequirementImpl)
+			{
+				final RequirementImpl req = (RequirementImpl) row;
+				selectedRequirement = req;
+				for (final GraphLayout.Edge e : layout.getEdges())
+				{
+					if (e.getLink() != null && (e.getLink().getReq1() == req || e.getLink().getReq2() == req))
+					{
+						highlighted.add(e);
+					}
+				}
+			}
+			else if (row instanceof InputRequirementSource && onSourceClicked != null)
+			{
+				onSourceClicked.accept((InputRequirementSource) row);
+			}
+			else if (edge != null)
+			{
+				highlighted.add(edge);
+				final Link link = edge.getLink();
+				if (link != null)
+				{
+					// Navigate to the link end farthest from the click
+					final int last = edge.getPointCount() - 1;
+					final boolean nearStart = Math.hypot(x - edge.getX(0), y - edge.getY(0)) < Math.hypot(
+							x - edge.getX(last), y - edge.getY(last));
+					selectedRequirement = (nearStart ? link.getReq2() : link.getReq1());
+					centerOn(nearStart ? edge.getX(last) : edge.getX(0), nearStart ? edge.getY(last) : edge.getY(0));
+				}
+				if (onEdgeClicked != null)
+				{
+					onEdgeClicked.accept(edge);
+				}
+			}
+			repaint();
+		}
+	}
+
+	/**
+	 * @param x
+	 *            graph horizontal position
+	 * @param y
+	 *            graph vertical position
+	 * @return requirement of the row, or source of the box header (or summary box), at the position; null if none
+	 */
+	private Object findRow(final double x, final double y)
+	{
+		Object found = null;
+		if (layout != null)
+		{
+			for (final GraphLayout.Box box : layout.getBoxes())
+			{
+				if (x >= box.getX() && x <= box.getX() + box.getWidth() && y >= box.getY()
+						&& y <= box.getY() + box.getHeight())
+				{
+					final int row = (int) Math.floor((y - box.getY() - GraphLayout.HEADER_HEIGHT) / GraphLayout.ROW_HEIGHT);
+					if (row >= 0 && row < box.getRequirements().size())
+					{
+						found = box.getRequirements().get(row);
+					}
+					else
+					{
+						found = box.getSource();
+					}
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * @param x
+	 *            graph horizontal position
+	 * @param y
+	 *            graph vertical position
+	 * @return the nearest edge within {@link #HIT_TOLERANCE} pixels, null if none
+	 */
+	private GraphLayout.Edge findEdge(final double x, final double y)
+	{
+		final double tolerance = HIT_TOLERANCE / scale;
+		final double[] best = { tolerance * tolerance };
+		final GraphLayout.Edge[] found = { null };
+		index.forEachEdge(x - tolerance, y - tolerance, x + tolerance, y + tolerance, e -> {
+			final GraphLayout.Edge edge = index.getEdge(e);
+			double px = edge.getX(0);
+			double py = edge.getY(0);
+			for (int p = 1; p < edge.getPointCount(); p++)
+			{
+				final double x0 = edge.getX(p - 1);
+				final double y0 = edge.getY(p - 1);
+				final double x1 = edge.getX(p);
+				final double y1 = edge.getY(p);
+				for (int s = 1; s <= CURVE_STEPS; s++)
+				{
+					// Cubic curve with control points (middle, y0) and (middle, y1)
+					final double t = (double) s / CURVE_STEPS;
+					final double u = 1 - t;
+					final double cx = u * u * u * x0 + 3 * u * t * (x0 + x1) / 2 + t * t * t * x1;
+					final double cy = u * u * u * y0 + 3 * u * u * t * y0 + 3 * u * t * t * y1 + t * t * t * y1;
+					final double distance = squaredDistance(x, y, px, py, cx, cy);
+					if (distance < best[0])
+					{
+						best[0] = distance;
+						found[0] = edge;
+					}
+					px = cx;
+					py = cy;
+				}
+			}
+		});
+		return found[0];
+	}
+
+	/**
+	 * @param x
+	 *            point horizontal position
+	 * @param y
+	 *            point vertical position
+	 * @param x0
+	 *            segment start horizontal position
+	 * @param y0
+	 *            segment start vertical position
+	 * @param x1
+	 *            segment end horizontal position
+	 * @param y1
+	 *            segment end vertical position
+	 * @return squared distance between the point and the segment
+	 */
+	private static double squaredDistance(final double x, final double y, final double x0, final double y0,
+			final double x1, final double y1)
+	{
+		final double dx = x1 - x0;
+		final double dy = y1 - y0;
+		final double length = dx * dx + dy * dy;
+		final double t = (length == 0 ? 0 : Math.max(0, Math.min(1, ((x - x0) * dx + (y - y0) * dy) / length)));
+		final double ex = x0 + t * dx - x;
+		final double ey = y0 + t * dy - y;
+		return ex * ex + ey * ey;
+	}
+
+	/**
+	 * @param x
+	 *            graph horizontal position
+	 * @param y
+	 *            graph vertical position
+	 */
+	private void centerOn(final double x, final double y)
+	{
+		translateX = getWidth() / 2 - x * scale;
+		translateY = getHeight() / 2 - y * scale;
+	}
+
+	/**
+	 * @param x
+	 *            view horizontal position
+	 * @return graph horizontal position
+	 */
+	private double toWorldX(final double x)
+	{
+		return (x - translateX) / scale;
+	}
+
+	/**
+	 * @param y
+	 *            view vertical position
+	 * @return graph vertical position
+	 */
+	private double toWorldY(final double y)
+	{
+		return (y - translateY) / scale;
+	}
+}